@@ -0,0 +1,123 @@
+package com.epam.training.gen.ai;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.NbpClient;
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.NbpRateStore;
+import com.epam.training.gen.ai.plugin.http.CircuitBreakerProperties;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+import com.epam.training.gen.ai.plugin.http.PluginHttpProperties;
+import com.epam.training.gen.ai.plugin.http.PluginWebClientFactory;
+import com.epam.training.gen.ai.plugin.speculative.Gazetteer;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativePrefetchProperties;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastCache;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shared inputs of the benchmarks, shaped like the real upstream responses.
+ */
+@UtilityClass
+public class BenchmarkFixtures {
+
+    public static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    private static final String[] CURRENCY_CODES = {"THB", "USD", "AUD", "HKD", "CAD", "NZD", "SGD", "EUR", "HUF",
+            "CHF", "GBP", "UAH", "JPY", "CZK", "DKK", "ISK", "NOK", "SEK", "RON", "BGN", "TRY", "ILS", "CLP", "PHP",
+            "MXN", "ZAR", "BRL", "MYR", "IDR", "INR", "KRW", "CNY", "XDR"};
+
+    /**
+     * Creates an object mapper configured like the one auto-configured by Spring Boot.
+     */
+    public static ObjectMapper objectMapper() {
+
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static LlmMetrics llmMetrics() {
+
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(Map.of(DEPLOYMENT_NAME, true));
+        modelConfiguration.setDefaultDeploymentName(DEPLOYMENT_NAME);
+        return new LlmMetrics(new SimpleMeterRegistry(), modelConfiguration);
+    }
+
+    /**
+     * Creates the factory of plugin web clients; benchmarks override the client methods, so no request is sent.
+     */
+    public static PluginWebClientFactory webClientFactory() {
+
+        return new PluginWebClientFactory(WebClient.builder(), new PluginHttpProperties());
+    }
+
+    public static PluginCircuitBreakers circuitBreakers() {
+
+        return new PluginCircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates the speculative prefetch; benchmarked calls carry no prefetches, so it never moves a location.
+     */
+    public static SpeculativeToolPrefetch speculativeToolPrefetch(WeatherForecastCache weatherForecastCache)
+            throws IOException {
+
+        return new SpeculativeToolPrefetch(new Gazetteer(new ClassPathResource("gazetteer/capitals.csv")),
+                new NbpRateStore(new NbpClient(webClientFactory(), circuitBreakers(), "http://localhost")),
+                weatherForecastCache, new SpeculativePrefetchProperties(), objectMapper(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates an Open-Meteo response with a week of hourly temperatures.
+     */
+    public static String weatherForecastJson() {
+
+        long start = Instant.now().truncatedTo(ChronoUnit.DAYS).getEpochSecond();
+        StringBuilder time = new StringBuilder();
+        StringBuilder temperature = new StringBuilder();
+        for (int hour = 0; hour < 168; hour++) {
+            String separator = hour == 0 ? "" : ",";
+            time.append(separator).append(start + hour * 3600L);
+            temperature.append(separator).append(Math.round(Math.sin(hour / 24.0 * Math.PI) * 80 + 50) / 10.0);
+        }
+        return """
+                {"latitude":52.52,"longitude":13.419998,"generationtime_ms":0.0349,"utc_offset_seconds":3600,\
+                "timezone":"CET","timezone_abbreviation":"CET","elevation":38.0,\
+                "hourly_units":{"time":"unixtime","temperature_2m":"°C"},\
+                "hourly":{"time":[%s],"temperature_2m":[%s]}}""".formatted(time, temperature);
+    }
+
+    /**
+     * Creates an NBP response with table A.
+     */
+    public static String exchangeRateTableJson() {
+
+        StringBuilder rates = new StringBuilder();
+        for (int i = 0; i < CURRENCY_CODES.length; i++) {
+            rates.append(i == 0 ? "" : ",")
+                    .append("{\"currency\":\"currency ").append(i)
+                    .append("\",\"code\":\"").append(CURRENCY_CODES[i])
+                    .append("\",\"mid\":").append(1 + i * 0.137).append('}');
+        }
+        return "[{\"table\":\"A\",\"no\":\"241/A/NBP/2024\",\"effectiveDate\":\"" + LocalDate.now()
+                + "\",\"rates\":[" + rates + "]}]";
+    }
+}
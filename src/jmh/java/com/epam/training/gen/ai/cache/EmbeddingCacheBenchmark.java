@@ -0,0 +1,125 @@
+package com.epam.training.gen.ai.cache;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Lookup latency of the memory-mapped embedding cache compared with a heap map of the same vectors.
+ * <p>
+ * The heap taken by either after it is filled is printed once per fork, e.g. with {@code -Djmh.args="EmbeddingCache"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmbeddingCacheBenchmark {
+
+    private static final String MODEL = "text-embedding-ada-002";
+    private static final int DIMENSION = 1536;
+    private static final int BATCH_SIZE = 16;
+
+    @Param({"10000", "50000"})
+    private int vectors;
+
+    private Path directory;
+    private MappedFileEmbeddingCache cache;
+    private Map<String, float[]> heapMap;
+    private List<String> texts;
+    private List<String> batch;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("embedding-cache");
+        texts = IntStream.range(0, vectors).mapToObj(i -> "Chunk number " + i + " of an ingested document.").toList();
+        random = new SplittableRandom(42);
+
+        long heapBefore = usedHeap();
+        cache = new MappedFileEmbeddingCache(directory.resolve("embeddings.bin"), 64 << 20, vectors);
+        for (int from = 0; from < vectors; from += 1_000) {
+            List<String> slice = texts.subList(from, Math.min(from + 1_000, vectors));
+            cache.putAll(MODEL, slice, slice.stream().map(text -> vector()).toList());
+        }
+        long heapWithCache = usedHeap();
+
+        heapMap = new HashMap<>();
+        texts.forEach(text -> heapMap.put(MODEL + text, vector()));
+        long heapWithMap = usedHeap();
+        System.out.printf("%nHeap used by %d vectors: mapped file cache %d KB, heap map %d KB%n", vectors,
+                (heapWithCache - heapBefore) / 1024, (heapWithMap - heapWithCache) / 1024);
+
+        batch = IntStream.range(0, BATCH_SIZE).mapToObj(i -> texts.get(i * (vectors / BATCH_SIZE))).toList();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        cache.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<float[]> getHit() {
+
+        return cache.getAll(MODEL, List.of(texts.get(random.nextInt(vectors))));
+    }
+
+    @Benchmark
+    public List<float[]> getMiss() {
+
+        return cache.getAll(MODEL, List.of("Not cached chunk " + random.nextInt(vectors)));
+    }
+
+    @Benchmark
+    public List<float[]> getBatch() {
+
+        return cache.getAll(MODEL, batch);
+    }
+
+    @Benchmark
+    public float[] getHitFromHeapMap() {
+
+        return heapMap.get(MODEL + texts.get(random.nextInt(vectors)));
+    }
+
+    private float[] vector() {
+
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextDouble(-1, 1);
+        }
+        return vector;
+    }
+
+    private static long usedHeap() {
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
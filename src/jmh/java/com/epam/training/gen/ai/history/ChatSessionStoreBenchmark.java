@@ -0,0 +1,119 @@
+package com.epam.training.gen.ai.history;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Heap taken by active chat sessions in each store and loading of an evicted conversation from the file store.
+ * <p>
+ * The heap used by the sessions in memory and, for the file store, after they are evicted is printed once per fork,
+ * e.g. with {@code -Djmh.args="ChatSessionStore"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatSessionStoreBenchmark {
+
+    private static final int TURNS = 6;
+    private static final int SEGMENT_SIZE = 16 << 20;
+    // a turn of about 800 characters
+    private static final String USER_MESSAGE =
+            "Could you provide the currency exchange rate and the weather? ".repeat(3);
+    private static final String ASSISTANT_MESSAGE = "The rate is 4.05 PLN and it is sunny with 21 degrees. ".repeat(11);
+
+    @Param({"10000"})
+    private int sessions;
+
+    private Path directory;
+    private MappedFileChatSessionStore fileStore;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("chat-sessions");
+        random = new SplittableRandom(42);
+
+        long heapBefore = usedHeap();
+        InMemoryChatSessionStore inMemoryStore = new InMemoryChatSessionStore();
+        fill(inMemoryStore);
+        long heapWithInMemoryStore = usedHeap();
+        inMemoryStore.evictIdle(Duration.ZERO);
+        long heapAfterInMemoryStore = usedHeap();
+
+        fileStore = new MappedFileChatSessionStore(directory.resolve("chat-sessions.log"), SEGMENT_SIZE,
+                Long.MAX_VALUE);
+        fill(fileStore);
+        long heapWithFileStore = usedHeap();
+        fileStore.evictIdle(Duration.ZERO);
+        long heapAfterEviction = usedHeap();
+
+        System.out.printf("%nHeap used by %d sessions of %d turns: in-memory store %d KB, file store %d KB while "
+                        + "active, %d KB after eviction%n", sessions, TURNS,
+                (heapWithInMemoryStore - heapBefore) / 1024, (heapWithFileStore - heapAfterInMemoryStore) / 1024,
+                (heapAfterEviction - heapAfterInMemoryStore) / 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        fileStore.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Loads an evicted conversation by walking its records back and evicts it again.
+     */
+    @Benchmark
+    public ConversationSnapshot loadEvictedConversation() {
+
+        ConversationSnapshot snapshot = fileStore.getConversation(conversationId(random.nextInt(sessions)))
+                .snapshot();
+        fileStore.evictIdle(Duration.ZERO);
+        return snapshot;
+    }
+
+    private void fill(ChatSessionStore store) {
+
+        for (int i = 0; i < sessions; i++) {
+            Conversation conversation = store.getConversation(conversationId(i));
+            for (int turn = 0; turn < TURNS; turn++) {
+                conversation.addTurn(new ChatTurn(USER_MESSAGE + i + turn, ASSISTANT_MESSAGE + i + turn));
+            }
+        }
+    }
+
+    private static String conversationId(int session) {
+
+        return "conversation-" + session;
+    }
+
+    private static long usedHeap() {
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,140 @@
+package com.epam.training.gen.ai.kernel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.OpenAIClientBuilder;
+import com.azure.core.credential.AzureKeyCredential;
+import com.epam.training.gen.ai.BenchmarkFixtures;
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.plugin.SimplePlugin;
+import com.microsoft.semantickernel.Kernel;
+import com.microsoft.semantickernel.aiservices.openai.chatcompletion.OpenAIChatCompletion;
+import com.microsoft.semantickernel.orchestration.InvocationContext;
+import com.microsoft.semantickernel.plugin.KernelPlugin;
+import com.microsoft.semantickernel.plugin.KernelPluginFactory;
+import com.microsoft.semantickernel.semanticfunctions.KernelFunction;
+import com.microsoft.semantickernel.semanticfunctions.KernelFunctionArguments;
+import com.microsoft.semantickernel.semanticfunctions.KernelPromptTemplateFactory;
+import com.microsoft.semantickernel.semanticfunctions.PromptTemplate;
+import com.microsoft.semantickernel.semanticfunctions.PromptTemplateConfig;
+import com.microsoft.semantickernel.services.chatcompletion.ChatCompletionService;
+import com.microsoft.semantickernel.services.chatcompletion.ChatHistory;
+
+/**
+ * Building the arguments of the chat function and rendering the chat prompt for histories of different lengths.
+ * <p>
+ * {@link #buildPerRequest} compiles the chat template and builds the kernel as every request did before the
+ * {@link KernelRegistry}, and is the baseline of {@link #usePrebuilt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatPromptBenchmark {
+
+    @Param({"0", "6", "20"})
+    private int turns;
+
+    private static final String PLUGIN_SET_NAME = "simple";
+
+    private Kernel kernel;
+    private String chatTemplateText;
+    private PromptTemplate chatTemplate;
+    private OpenAIAsyncClient openAIAsyncClient;
+    private KernelPlugin kernelPlugin;
+    private KernelRegistry kernelRegistry;
+    private InvocationContext invocationContext;
+    private ChatHistory chatHistory;
+    private ChatHistory documents;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        try (InputStream template = getClass().getResourceAsStream("/prompts/chat.prompt")) {
+            chatTemplateText = new String(template.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        chatTemplate = new KernelPromptTemplateFactory().tryCreate(PromptTemplateConfig.builder()
+                .withTemplate(chatTemplateText)
+                .build());
+        kernel = Kernel.builder().build();
+
+        openAIAsyncClient = new OpenAIClientBuilder()
+                .endpoint("https://localhost")
+                .credential(new AzureKeyCredential("benchmark"))
+                .buildAsyncClient();
+        kernelPlugin = KernelPluginFactory.createFromObject(new SimplePlugin(), "Simple_Plugin");
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setDefaultDeploymentName(BenchmarkFixtures.DEPLOYMENT_NAME);
+        kernelRegistry = new KernelRegistry(modelConfiguration, openAIAsyncClient, BenchmarkFixtures.llmMetrics(),
+                new ClassPathResource("prompts/chat.prompt"));
+        kernelRegistry.registerPluginSet(PLUGIN_SET_NAME, List.of(kernelPlugin));
+        kernelRegistry.prebuildKernels();
+        invocationContext = InvocationContext.builder().build();
+
+        documents = new ChatHistory();
+        chatHistory = new ChatHistory();
+        for (int i = 0; i < turns; i++) {
+            chatHistory.addUserMessage("What is the weather in city number " + i + " for the nearest 5 days?");
+            chatHistory.addAssistantMessage("The temperature in city number " + i
+                    + " will range from 0.9°C to 7.8°C on 2024-12-14 and from 5.7°C to 12.2°C on 2024-12-15.");
+        }
+    }
+
+    @Benchmark
+    public KernelFunctionArguments kernelFunctionArguments() {
+
+        return KernelFunctionArguments.builder()
+                .withVariable("input", "What is the semantic kernel?")
+                .withVariable("chatHistory", chatHistory)
+                .withVariable("documents", documents)
+                .build();
+    }
+
+    @Benchmark
+    public String renderChatPrompt() {
+
+        return chatTemplate.renderAsync(kernel, kernelFunctionArguments(), invocationContext).block();
+    }
+
+    /**
+     * Compiles the chat template and builds the kernel for one request.
+     */
+    @Benchmark
+    public void buildPerRequest(Blackhole blackhole) {
+
+        blackhole.consume(KernelFunction.<String>createFromPrompt(chatTemplateText).build());
+        ChatCompletionService chatCompletionService = OpenAIChatCompletion.builder()
+                .withModelId(BenchmarkFixtures.DEPLOYMENT_NAME)
+                .withOpenAIAsyncClient(openAIAsyncClient)
+                .build();
+        blackhole.consume(Kernel.builder()
+                .withAIService(ChatCompletionService.class, chatCompletionService)
+                .withPlugin(kernelPlugin)
+                .build());
+    }
+
+    /**
+     * Gets the compiled chat function and the prebuilt kernel for one request.
+     */
+    @Benchmark
+    public void usePrebuilt(Blackhole blackhole) {
+
+        blackhole.consume(kernelRegistry.getChatFunction());
+        blackhole.consume(kernelRegistry.getKernel(PLUGIN_SET_NAME, BenchmarkFixtures.DEPLOYMENT_NAME));
+    }
+}
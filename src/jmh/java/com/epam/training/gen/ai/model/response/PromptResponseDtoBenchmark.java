@@ -0,0 +1,47 @@
+package com.epam.training.gen.ai.model.response;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.epam.training.gen.ai.BenchmarkFixtures;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialization of the response body of the prompt endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptResponseDtoBenchmark {
+
+    private static final String ANSWER = """
+            The term "semantic kernel" refers to the core or essential meaning of a piece of information or text. \
+            It represents the central ideas, concepts, or key information that gives the text its overall meaning. \
+            The semantic kernel focuses on the fundamental messages or main points conveyed by the information, \
+            disregarding less significant or peripheral details.""";
+
+    private ObjectMapper objectMapper;
+    private PromptResponseDto promptResponseDto;
+
+    @Setup
+    public void setUp() {
+
+        objectMapper = BenchmarkFixtures.objectMapper();
+        promptResponseDto = new PromptResponseDto(List.of(ANSWER));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+
+        return objectMapper.writeValueAsBytes(promptResponseDto);
+    }
+}
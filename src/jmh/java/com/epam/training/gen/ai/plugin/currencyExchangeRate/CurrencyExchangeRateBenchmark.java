@@ -0,0 +1,75 @@
+package com.epam.training.gen.ai.plugin.currencyExchangeRate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.epam.training.gen.ai.BenchmarkFixtures;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Deserialization of NBP responses and formatting of the currency exchange rate tool output.
+ * <p>
+ * The rate table is loaded up front, so {@link #getCurrencyRate()} measures the plugin function without the
+ * upstream call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CurrencyExchangeRateBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] responseJson;
+    private CurrencyExchangeRatePlugin currencyExchangeRatePlugin;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        objectMapper = BenchmarkFixtures.objectMapper();
+        responseJson = BenchmarkFixtures.exchangeRateTableJson().getBytes(StandardCharsets.UTF_8);
+        ExchangeRateTableResponseDto responseDto = deserialize()[0];
+
+        NbpClient nbpClient = new NbpClient(BenchmarkFixtures.webClientFactory(), BenchmarkFixtures.circuitBreakers(),
+                "http://localhost") {
+
+            @Override
+            public Mono<ExchangeRateTableResponseDto> getExchangeRateTable() {
+
+                return Mono.just(responseDto);
+            }
+        };
+        NbpRateStore nbpRateStore = new NbpRateStore(nbpClient);
+        nbpRateStore.refresh().block();
+        currencyExchangeRatePlugin = new CurrencyExchangeRatePlugin(nbpRateStore, new ToolOutputProperties(),
+                BenchmarkFixtures.llmMetrics());
+    }
+
+    @Benchmark
+    public ExchangeRateTableResponseDto[] deserialize() throws IOException {
+
+        return objectMapper.readValue(responseJson, ExchangeRateTableResponseDto[].class);
+    }
+
+    @Benchmark
+    public String getCurrencyRate() {
+
+        return currencyExchangeRatePlugin.getCurrencyRate("eur").block();
+    }
+
+    @Benchmark
+    public String getCurrencyRates() {
+
+        return currencyExchangeRatePlugin.getCurrencyRates("EUR,USD,GBP,CHF", "USD").block();
+    }
+}
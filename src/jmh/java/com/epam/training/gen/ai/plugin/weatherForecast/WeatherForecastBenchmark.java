@@ -0,0 +1,136 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.epam.training.gen.ai.BenchmarkFixtures;
+import com.epam.training.gen.ai.plugin.output.ToolOutputContext;
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Deserialization of Open-Meteo responses and formatting of the weather forecast tool output.
+ * <p>
+ * {@link #deserializeBoxed()} binds the response to boxed lists, as before the streaming deserializer, as the
+ * baseline of {@link #deserialize()}; compare {@code gc.alloc.rate.norm} of both.
+ * <p>
+ * The forecast cache is warmed up, so {@link #getWeatherForecast(FormatState)} measures the plugin function
+ * without the upstream call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeatherForecastBenchmark {
+
+    private static final double LATITUDE = 52.52;
+    private static final double LONGITUDE = 13.41;
+
+    private ObjectMapper objectMapper;
+    private byte[] responseJson;
+    private WeatherForecastPlugin weatherForecastPlugin;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        objectMapper = BenchmarkFixtures.objectMapper();
+        responseJson = BenchmarkFixtures.weatherForecastJson().getBytes(StandardCharsets.UTF_8);
+        WeatherForecastResponseDto responseDto = deserialize();
+
+        WeatherForecastClient weatherForecastClient = new WeatherForecastClient(BenchmarkFixtures.webClientFactory(),
+                BenchmarkFixtures.circuitBreakers(), "http://localhost") {
+
+            @Override
+            public Mono<WeatherForecastResponseDto> getWeatherForecast(Double latitude, Double longitude) {
+
+                return Mono.just(responseDto);
+            }
+        };
+        WeatherForecastCache weatherForecastCache = new WeatherForecastCache(weatherForecastClient, 0.05,
+                Duration.ofHours(24));
+        weatherForecastPlugin = new WeatherForecastPlugin(weatherForecastCache,
+                BenchmarkFixtures.speculativeToolPrefetch(weatherForecastCache), new ToolOutputProperties(),
+                List.of(new HourlyWeatherForecastFormatter(), new DailyWeatherForecastFormatter()),
+                BenchmarkFixtures.llmMetrics(), Integer.MAX_VALUE, 1000, 10);
+        weatherForecastPlugin.getWeatherForecast("Berlin", LATITUDE, LONGITUDE).block();
+    }
+
+    @Benchmark
+    public WeatherForecastResponseDto deserialize() throws IOException {
+
+        return objectMapper.readValue(responseJson, WeatherForecastResponseDto.class);
+    }
+
+    @Benchmark
+    public BoxedWeatherForecastResponseDto deserializeBoxed() throws IOException {
+
+        return objectMapper.readValue(responseJson, BoxedWeatherForecastResponseDto.class);
+    }
+
+    @Benchmark
+    public String getWeatherForecast(FormatState formatState) {
+
+        return weatherForecastPlugin.getWeatherForecast("Berlin", LATITUDE, LONGITUDE)
+                .contextWrite(ToolOutputContext.of(formatState.format))
+                .block();
+    }
+
+    @State(Scope.Benchmark)
+    public static class FormatState {
+
+        @Param({"HOURLY", "DAILY"})
+        private ToolOutputFormat format;
+    }
+
+    /**
+     * Open-Meteo response bound by the default Jackson bean deserializer.
+     */
+    public static class BoxedWeatherForecastResponseDto {
+
+        public double latitude;
+
+        public double longitude;
+
+        @JsonProperty("generationtime_ms")
+        public double generationtimeMs;
+
+        @JsonProperty("utc_offset_seconds")
+        public int utcOffsetSeconds;
+
+        public String timezone;
+
+        @JsonProperty("timezone_abbreviation")
+        public String timezoneAbbreviation;
+
+        public double elevation;
+
+        @JsonProperty("hourly_units")
+        public Map<String, String> hourlyUnits;
+
+        public BoxedHourly hourly;
+    }
+
+    public static class BoxedHourly {
+
+        public List<Long> time;
+
+        @JsonProperty("temperature_2m")
+        public List<Double> temperature2m;
+    }
+}
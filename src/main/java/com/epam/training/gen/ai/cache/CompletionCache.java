@@ -0,0 +1,194 @@
+package com.epam.training.gen.ai.cache;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.cache.CompletionCacheProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exact-match cache of LLM answers.
+ * <p>
+ * Only deterministic calls (temperature 0) are cached unless {@code completion-cache.cache-non-zero-temperature} is
+ * set. The cache is bounded by the estimated size of the cached answers and evicts the least recently used entries
+ * first; entries older than {@code completion-cache.ttl} are never returned. Concurrent misses of the same key share
+ * a single request to the model.
+ */
+@Slf4j
+@Component
+public class CompletionCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "completion";
+
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    private final CompletionCacheProperties properties;
+    private final Clock clock;
+    private final LinkedHashMap<CompletionCacheKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<CompletionCacheKey, Mono<List<String>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long sizeInBytes;
+
+    @Autowired
+    public CompletionCache(CompletionCacheProperties properties) {
+
+        this(properties, Clock.systemUTC());
+    }
+
+    CompletionCache(CompletionCacheProperties properties, Clock clock) {
+
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isCacheable(Double temperature) {
+
+        return properties.isEnabled()
+                && (properties.isCacheNonZeroTemperature() || (temperature != null && temperature == 0));
+    }
+
+    public Mono<List<String>> getOrCompute(CompletionCacheKey key, Supplier<Mono<List<String>>> loader) {
+
+        if (!isCacheable(key.temperature())) {
+            return loader.get();
+        }
+
+        return Mono.defer(() -> {
+            List<String> cached = get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                log.info("Completion cache hit for deployment {}.", key.deploymentName());
+                return Mono.just(cached);
+            }
+
+            return inFlight.compute(key, (inFlightKey, current) -> {
+                if (current != null) {
+                    // the answer is being requested already, so the model is not called again
+                    hits.incrementAndGet();
+                    return current;
+                }
+                misses.incrementAndGet();
+                // the request is cancelled only when all the waiting callers are cancelled
+                return loader.get()
+                        .doOnNext(answers -> put(inFlightKey, answers))
+                        .doFinally(signal -> inFlight.remove(inFlightKey))
+                        .flux()
+                        .publish()
+                        .refCount()
+                        .next();
+            });
+        });
+    }
+
+    public long getHitCount() {
+
+        return hits.get();
+    }
+
+    public long getMissCount() {
+
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+
+        return evictions.get();
+    }
+
+    public synchronized long getSizeInBytes() {
+
+        return sizeInBytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size.bytes", this, CompletionCache::getSizeInBytes)
+                .tag("cache", CACHE_NAME)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private synchronized List<String> get(CompletionCacheKey key) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(clock.instant())) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.answers();
+    }
+
+    private synchronized void put(CompletionCacheKey key, List<String> answers) {
+
+        long maxSizeInBytes = properties.getMaxSize().toBytes();
+        Entry entry = new Entry(List.copyOf(answers), estimateSize(key, answers),
+                clock.instant().plus(properties.getTtl()));
+        if (entry.sizeInBytes() > maxSizeInBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeInBytes -= previous.sizeInBytes();
+        }
+        sizeInBytes += entry.sizeInBytes();
+
+        Iterator<Map.Entry<CompletionCacheKey, Entry>> eldest = entries.entrySet().iterator();
+        while (sizeInBytes > maxSizeInBytes && eldest.hasNext()) {
+            sizeInBytes -= eldest.next().getValue().sizeInBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(CompletionCacheKey key, Entry entry) {
+
+        entries.remove(key);
+        sizeInBytes -= entry.sizeInBytes();
+        evictions.incrementAndGet();
+    }
+
+    private static long estimateSize(CompletionCacheKey key, List<String> answers) {
+
+        long size = ENTRY_OVERHEAD_BYTES + 2L * key.deploymentName().length() + 2L * key.promptHash().length()
+                + 2L * key.pluginSet().length();
+        for (String answer : answers) {
+            size += 2L * (answer == null ? 0 : answer.length());
+        }
+        return size;
+    }
+
+    private record Entry(List<String> answers, long sizeInBytes, Instant expiresAt) {
+    }
+}
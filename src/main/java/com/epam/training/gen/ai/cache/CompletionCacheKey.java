@@ -0,0 +1,42 @@
+package com.epam.training.gen.ai.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Key of the exact-match completion cache.
+ *
+ * @param deploymentName deployment name
+ * @param temperature    sampling temperature, {@code null} for the deployment default
+ * @param maxTokens      maximal number of completion tokens, {@code null} for the deployment default
+ * @param promptHash     SHA-256 of the rendered prompt (history and user input)
+ * @param pluginSet      names of the plugins available to the model
+ */
+public record CompletionCacheKey(String deploymentName, Double temperature, Integer maxTokens, String promptHash,
+                                 String pluginSet) {
+
+    private static final char SEPARATOR = '\u001F';
+
+    /**
+     * Hashes prompt parts in order; parts are separated so that {@code ["ab", "c"]} and {@code ["a", "bc"]} differ.
+     *
+     * @param promptParts rendered prompt parts
+     * @return hex encoded SHA-256 digest
+     */
+    public static String hash(List<String> promptParts) {
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : promptParts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) SEPARATOR);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+}
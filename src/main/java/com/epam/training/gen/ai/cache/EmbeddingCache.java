@@ -0,0 +1,27 @@
+package com.epam.training.gen.ai.cache;
+
+import java.util.List;
+
+/**
+ * Cache of text embeddings addressed by the embedding model and the content of the text.
+ */
+public interface EmbeddingCache {
+
+    /**
+     * Gets the cached embeddings of the texts.
+     *
+     * @param modelName embedding model (deployment) name
+     * @param texts     texts
+     * @return embeddings in the order of the texts, {@code null} for texts not cached
+     */
+    List<float[]> getAll(String modelName, List<String> texts);
+
+    /**
+     * Caches the embeddings of the texts; texts already cached are skipped.
+     *
+     * @param modelName embedding model (deployment) name
+     * @param texts     texts
+     * @param vectors   embeddings in the order of the texts
+     */
+    void putAll(String modelName, List<String> texts, List<float[]> vectors);
+}
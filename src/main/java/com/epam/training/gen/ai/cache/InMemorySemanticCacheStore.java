@@ -0,0 +1,74 @@
+package com.epam.training.gen.ai.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.epam.training.gen.ai.util.VectorUtils;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory {@link SemanticCacheStore} doing a linear cosine-similarity scan per scope.
+ * <p>
+ * Intended for local runs and tests; each scope keeps at most {@code maxEntries} entries and drops the oldest ones.
+ */
+public class InMemorySemanticCacheStore implements SemanticCacheStore {
+
+    private final int maxEntries;
+    private final Map<String, Deque<Entry>> entriesByScope = new ConcurrentHashMap<>();
+
+    public InMemorySemanticCacheStore(int maxEntries) {
+
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Mono<List<String>> findNearest(String scope, float[] vector, double minSimilarity) {
+
+        return Mono.fromSupplier(() -> {
+            Deque<Entry> entries = entriesByScope.get(scope);
+            if (entries == null) {
+                return null;
+            }
+
+            float[] normalized = VectorUtils.normalize(vector);
+            Instant now = Instant.now();
+            Entry best = null;
+            double bestSimilarity = minSimilarity;
+            synchronized (entries) {
+                entries.removeIf(entry -> entry.expiresAt().isBefore(now));
+                for (Entry entry : entries) {
+                    double similarity = VectorUtils.dot(normalized, entry.vector());
+                    if (similarity >= bestSimilarity) {
+                        bestSimilarity = similarity;
+                        best = entry;
+                    }
+                }
+            }
+            return best == null ? null : best.answers();
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String scope, float[] vector, List<String> answers, Duration ttl) {
+
+        return Mono.fromRunnable(() -> {
+            Deque<Entry> entries = entriesByScope.computeIfAbsent(scope, key -> new ArrayDeque<>());
+            synchronized (entries) {
+                entries.addLast(new Entry(VectorUtils.normalize(vector), List.copyOf(answers),
+                        Instant.now().plus(ttl)));
+                while (entries.size() > maxEntries) {
+                    entries.removeFirst();
+                }
+            }
+        });
+    }
+
+    private record Entry(float[] vector, List<String> answers, Instant expiresAt) {
+    }
+}
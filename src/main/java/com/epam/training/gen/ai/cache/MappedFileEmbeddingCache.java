@@ -0,0 +1,317 @@
+package com.epam.training.gen.ai.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link EmbeddingCache} keeping vectors in an append-only, memory-mapped file.
+ * <p>
+ * A text is addressed by the first 128 bits of the SHA-256 of the model name and the text. Every vector is appended
+ * as a record {@code int length, long keyHigh, long keyLow, float[] vector} of packed little-endian float32 values;
+ * the length is written last, so a partially written record is never read back. The file is mapped in segments of
+ * fixed size and a record never spans two segments.
+ * <p>
+ * Keys are indexed by an open-addressing hash table of {@code long keyHigh, long keyLow, long offset + 1} slots in a
+ * direct buffer, which is rebuilt from the record headers when the file is opened. Neither the vectors nor the index
+ * are on the heap, so the number of cached vectors does not affect garbage collection.
+ */
+@Slf4j
+public class MappedFileEmbeddingCache implements EmbeddingCache, MeterBinder, Closeable {
+
+    private static final String CACHE_NAME = "embedding";
+    private static final int HEADER_SIZE = Integer.BYTES + 2 * Long.BYTES;
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private ByteBuffer index;
+    private int capacity;
+    private int size;
+    private long writePosition;
+
+    /**
+     * Opens the cache, creating the file if it does not exist.
+     *
+     * @param file            cache file
+     * @param segmentSize     size of a mapped segment in bytes, also the maximal size of a vector record
+     * @param initialCapacity number of vectors the index is sized for; it grows when more vectors are cached
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileEmbeddingCache(Path file, int segmentSize, int initialCapacity) throws IOException {
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.segmentSize = segmentSize;
+
+        long segmentCount = Math.max((channel.size() + segmentSize - 1) / segmentSize, 1);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(map(i));
+        }
+        allocateIndex(Integer.highestOneBit(Math.clamp(initialCapacity, 1, MAX_CAPACITY / 2) * 2 - 1) << 1);
+        recover();
+        log.info("Embedding cache {} opened: {} vectors, {} bytes used.", file, size, writePosition);
+    }
+
+    @Override
+    public List<float[]> getAll(String modelName, List<String> texts) {
+
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        lock.readLock().lock();
+        try {
+            for (String text : texts) {
+                long[] key = key(modelName, text);
+                long offset = find(key[0], key[1]);
+                vectors.add(offset < 0 ? null : read(offset));
+                (offset < 0 ? misses : hits).incrementAndGet();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return vectors;
+    }
+
+    @Override
+    public void putAll(String modelName, List<String> texts, List<float[]> vectors) {
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < texts.size(); i++) {
+                long[] key = key(modelName, texts.get(i));
+                if (find(key[0], key[1]) < 0) {
+                    ensureIndexCapacity();
+                    insert(key[0], key[1], append(key[0], key[1], vectors.get(i)));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", this, MappedFileEmbeddingCache::size)
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        lock.writeLock().lock();
+        try {
+            segments.forEach(MappedByteBuffer::force);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return offset of the record of the key, -1 if the key is not cached
+     */
+    private long find(long keyHigh, long keyLow) {
+
+        for (int slot = slot(keyHigh, keyLow); ; slot = (slot + 1) & (capacity - 1)) {
+            int position = slot * SLOT_SIZE;
+            long offset = index.getLong(position + 2 * Long.BYTES) - 1;
+            if (offset < 0 || index.getLong(position) == keyHigh && index.getLong(position + Long.BYTES) == keyLow) {
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * Doubles the index before it gets more than half full, so that probe sequences stay short.
+     */
+    private void ensureIndexCapacity() {
+
+        if (size + 1 <= capacity / 2) {
+            return;
+        }
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Embedding cache index is full.");
+        }
+
+        ByteBuffer previous = index;
+        int previousCapacity = capacity;
+        allocateIndex(capacity * 2);
+        for (int slot = 0; slot < previousCapacity; slot++) {
+            int position = slot * SLOT_SIZE;
+            long offset = previous.getLong(position + 2 * Long.BYTES) - 1;
+            if (offset >= 0) {
+                insert(previous.getLong(position), previous.getLong(position + Long.BYTES), offset);
+            }
+        }
+    }
+
+    private void insert(long keyHigh, long keyLow, long offset) {
+
+        int slot = slot(keyHigh, keyLow);
+        while (index.getLong(slot * SLOT_SIZE + 2 * Long.BYTES) != 0) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        index.putLong(slot * SLOT_SIZE, keyHigh)
+                .putLong(slot * SLOT_SIZE + Long.BYTES, keyLow)
+                .putLong(slot * SLOT_SIZE + 2 * Long.BYTES, offset + 1);
+        size++;
+    }
+
+    /**
+     * @param slots number of slots, a power of two
+     */
+    private void allocateIndex(int slots) {
+
+        capacity = slots;
+        index = ByteBuffer.allocateDirect(capacity * SLOT_SIZE).order(BYTE_ORDER);
+        size = 0;
+    }
+
+    private int slot(long keyHigh, long keyLow) {
+
+        // the key is a cryptographic hash, so its bits are already uniformly distributed
+        return (int) (keyHigh ^ keyLow) & (capacity - 1);
+    }
+
+    private long append(long keyHigh, long keyLow, float[] vector) {
+
+        int length = HEADER_SIZE + vector.length * Float.BYTES;
+        if (length > segmentSize) {
+            throw new IllegalArgumentException(
+                    "Record of " + length + " bytes exceeds the segment size of " + segmentSize + " bytes.");
+        }
+
+        int segmentIndex = (int) (writePosition / segmentSize);
+        int position = (int) (writePosition % segmentSize);
+        if (position + length > segmentSize) {
+            segmentIndex++;
+            position = 0;
+            writePosition = (long) segmentIndex * segmentSize;
+        }
+        if (segmentIndex == segments.size()) {
+            try {
+                segments.add(map(segmentIndex));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to extend embedding cache.", e);
+            }
+        }
+
+        ByteBuffer segment = segments.get(segmentIndex);
+        segment.putLong(position + Integer.BYTES, keyHigh)
+                .putLong(position + Integer.BYTES + Long.BYTES, keyLow);
+        segment.slice(position + HEADER_SIZE, vector.length * Float.BYTES)
+                .order(BYTE_ORDER)
+                .asFloatBuffer()
+                .put(vector);
+        // the length is written last, so a partially written record is never read back
+        segment.putInt(position, length);
+
+        long offset = writePosition;
+        writePosition += length;
+        return offset;
+    }
+
+    private float[] read(long offset) {
+
+        ByteBuffer segment = segments.get((int) (offset / segmentSize));
+        int position = (int) (offset % segmentSize);
+        float[] vector = new float[(segment.getInt(position) - HEADER_SIZE) / Float.BYTES];
+        segment.slice(position + HEADER_SIZE, vector.length * Float.BYTES)
+                .order(BYTE_ORDER)
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    private void recover() {
+
+        for (int segmentIndex = 0; segmentIndex < segments.size(); segmentIndex++) {
+            ByteBuffer segment = segments.get(segmentIndex);
+            int position = 0;
+            while (position + HEADER_SIZE <= segmentSize) {
+                int length = segment.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+
+                long offset = (long) segmentIndex * segmentSize + position;
+                ensureIndexCapacity();
+                insert(segment.getLong(position + Integer.BYTES),
+                        segment.getLong(position + Integer.BYTES + Long.BYTES), offset);
+                writePosition = offset + length;
+                position += length;
+            }
+        }
+    }
+
+    private MappedByteBuffer map(int segmentIndex) throws IOException {
+
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) segmentIndex * segmentSize,
+                segmentSize);
+        segment.order(BYTE_ORDER);
+        return segment;
+    }
+
+    private static long[] key(String modelName, String text) {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+        digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        return new long[] {hash.getLong(), hash.getLong()};
+    }
+}
@@ -0,0 +1,20 @@
+package com.epam.training.gen.ai.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link EmbeddingCache} used when embedding caching is disabled; nothing is ever cached.
+ */
+public class NoOpEmbeddingCache implements EmbeddingCache {
+
+    @Override
+    public List<float[]> getAll(String modelName, List<String> texts) {
+
+        return Arrays.asList(new float[texts.size()][]);
+    }
+
+    @Override
+    public void putAll(String modelName, List<String> texts, List<float[]> vectors) {
+    }
+}
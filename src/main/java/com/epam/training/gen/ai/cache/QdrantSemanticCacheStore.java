@@ -0,0 +1,143 @@
+package com.epam.training.gen.ai.cache;
+
+import static io.qdrant.client.ConditionFactory.range;
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.list;
+import static io.qdrant.client.ValueFactory.value;
+import static io.qdrant.client.VectorsFactory.vectors;
+import static io.qdrant.client.WithPayloadSelectorFactory.enable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.epam.training.gen.ai.util.FutureUtils;
+
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.Filter;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Range;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Qdrant backed {@link SemanticCacheStore}.
+ * <p>
+ * Every scope is a separate cosine collection created on first use. Entries carry an {@code expiresAt} payload
+ * (epoch seconds) that is used to filter out expired answers on lookup and to purge them after writes.
+ */
+@Slf4j
+public class QdrantSemanticCacheStore implements SemanticCacheStore {
+
+    private static final String ANSWERS_PAYLOAD = "answers";
+    private static final String EXPIRES_AT_PAYLOAD = "expiresAt";
+
+    private final QdrantClient qdrantClient;
+    private final Map<String, Mono<Void>> collections = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastPurges = new ConcurrentHashMap<>();
+
+    public QdrantSemanticCacheStore(QdrantClient qdrantClient) {
+
+        this.qdrantClient = qdrantClient;
+    }
+
+    @Override
+    public Mono<List<String>> findNearest(String scope, float[] vector, double minSimilarity) {
+
+        SearchPoints searchPoints = SearchPoints.newBuilder()
+                .setCollectionName(scope)
+                .addAllVector(toList(vector))
+                .setFilter(notExpiredFilter())
+                .setScoreThreshold((float) minSimilarity)
+                .setLimit(1)
+                .setWithPayload(enable(true))
+                .build();
+
+        return ensureCollection(scope, vector.length)
+                .then(FutureUtils.toMono(() -> qdrantClient.searchAsync(searchPoints)))
+                .flatMap(points -> points.isEmpty() ? Mono.empty() : Mono.just(toAnswers(points.get(0))));
+    }
+
+    @Override
+    public Mono<Void> put(String scope, float[] vector, List<String> answers, Duration ttl) {
+
+        PointStruct point = PointStruct.newBuilder()
+                .setId(id(UUID.randomUUID()))
+                .setVectors(vectors(vector))
+                .putPayload(ANSWERS_PAYLOAD, list(answers.stream().map(answer -> value(answer)).toList()))
+                .putPayload(EXPIRES_AT_PAYLOAD, value(Instant.now().plus(ttl).getEpochSecond()))
+                .build();
+
+        return ensureCollection(scope, vector.length)
+                .then(FutureUtils.toMono(() -> qdrantClient.upsertAsync(scope, List.of(point))))
+                .then(purgeExpired(scope, ttl));
+    }
+
+    private Mono<Void> ensureCollection(String collectionName, int vectorSize) {
+
+        return collections.computeIfAbsent(collectionName, name -> FutureUtils
+                .toMono(() -> qdrantClient.collectionExistsAsync(name))
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : FutureUtils.toMono(() -> qdrantClient.createCollectionAsync(name, VectorParams.newBuilder()
+                                        .setDistance(Distance.Cosine)
+                                        .setSize(vectorSize)
+                                        .build()))
+                                .doOnNext(response -> log.info("Qdrant collection {} was created.", name))
+                                .then())
+                .doOnError(e -> collections.remove(name))
+                .cache());
+    }
+
+    /**
+     * Deletes expired points at most once per TTL period per collection.
+     */
+    private Mono<Void> purgeExpired(String collectionName, Duration ttl) {
+
+        Instant now = Instant.now();
+        Instant lastPurge = lastPurges.putIfAbsent(collectionName, now);
+        if (lastPurge == null || lastPurge.plus(ttl).isAfter(now)
+                || !lastPurges.replace(collectionName, lastPurge, now)) {
+            return Mono.empty();
+        }
+
+        Filter expiredFilter = Filter.newBuilder()
+                .addMust(range(EXPIRES_AT_PAYLOAD, Range.newBuilder().setLte(now.getEpochSecond()).build()))
+                .build();
+        return FutureUtils.toMono(() -> qdrantClient.deleteAsync(collectionName, expiredFilter))
+                .doOnError(e -> log.warn("Failed to purge expired entries of {}.", collectionName, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static Filter notExpiredFilter() {
+
+        return Filter.newBuilder()
+                .addMust(range(EXPIRES_AT_PAYLOAD, Range.newBuilder().setGt(Instant.now().getEpochSecond()).build()))
+                .build();
+    }
+
+    private static List<String> toAnswers(ScoredPoint point) {
+
+        return point.getPayloadMap().get(ANSWERS_PAYLOAD).getListValue().getValuesList().stream()
+                .map(Value::getStringValue)
+                .toList();
+    }
+
+    private static List<Float> toList(float[] vector) {
+
+        Float[] boxed = new Float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            boxed[i] = vector[i];
+        }
+        return List.of(boxed);
+    }
+}
@@ -0,0 +1,36 @@
+package com.epam.training.gen.ai.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Vector store of previously generated answers keyed by prompt embeddings.
+ * <p>
+ * Entries are partitioned by scope (deployment, temperature, plugin set) so that answers are never shared between
+ * incompatible model settings.
+ */
+public interface SemanticCacheStore {
+
+    /**
+     * Finds the answers of the most similar non-expired prompt.
+     *
+     * @param scope         cache scope
+     * @param vector        prompt embedding
+     * @param minSimilarity minimal cosine similarity
+     * @return cached answers or empty {@link Mono} when nothing is similar enough
+     */
+    Mono<List<String>> findNearest(String scope, float[] vector, double minSimilarity);
+
+    /**
+     * Stores answers for the prompt embedding.
+     *
+     * @param scope   cache scope
+     * @param vector  prompt embedding
+     * @param answers answers to cache
+     * @param ttl     time to live of the entry
+     * @return completion signal
+     */
+    Mono<Void> put(String scope, float[] vector, List<String> answers, Duration ttl);
+}
@@ -0,0 +1,93 @@
+package com.epam.training.gen.ai.cache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.cache.SemanticCacheProperties;
+import com.epam.training.gen.ai.service.EmbeddingService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Semantic cache placed in front of LLM calls.
+ * <p>
+ * The prompt is embedded and the nearest cached prompt of the same scope is looked up. Its answers are returned when
+ * the similarity is above {@code semantic-cache.similarity-threshold}; otherwise the loader is called and its result
+ * is stored. Failures of the embedding model or the store never fail the request, they only cause a cache miss.
+ */
+@Slf4j
+@Component
+public class SemanticResponseCache {
+
+    private final SemanticCacheProperties properties;
+    private final SemanticCacheStore store;
+    private final EmbeddingService embeddingService;
+
+    @Autowired
+    public SemanticResponseCache(SemanticCacheProperties properties, SemanticCacheStore store,
+            EmbeddingService embeddingService) {
+
+        this.properties = properties;
+        this.store = store;
+        this.embeddingService = embeddingService;
+    }
+
+    /**
+     * Builds a store scope name from the settings that influence the answer.
+     *
+     * @param namespace      kind of call (e.g. Open AI client or Semantic Kernel plugin set)
+     * @param deploymentName deployment name
+     * @param temperature    temperature, {@code null} for the deployment default
+     * @return scope name usable as a collection name
+     */
+    public String scope(String namespace, String deploymentName, Double temperature) {
+
+        return new StringJoiner("_")
+                .add(properties.getCollectionPrefix())
+                .add(namespace)
+                .add(deploymentName)
+                .add(temperature == null ? "default" : "t" + temperature)
+                .toString()
+                .replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    public Mono<List<String>> getOrCompute(String scope, String prompt, Supplier<Mono<List<String>>> loader) {
+
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+
+        return embeddingService.embed(prompt)
+                .map(Optional::of)
+                .onErrorResume(e -> {
+                    log.warn("Prompt embedding failed, semantic cache is bypassed.", e);
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(vector -> vector.isPresent()
+                        ? lookupOrLoad(scope, vector.get(), loader)
+                        : loader.get());
+    }
+
+    private Mono<List<String>> lookupOrLoad(String scope, float[] vector, Supplier<Mono<List<String>>> loader) {
+
+        return store.findNearest(scope, vector, properties.getSimilarityThreshold())
+                .doOnNext(answers -> log.info("Semantic cache hit in {}.", scope))
+                .onErrorResume(e -> {
+                    log.warn("Semantic cache lookup failed in {}.", scope, e);
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> loader.get()
+                        .flatMap(answers -> store.put(scope, vector, answers, properties.getTtl())
+                                .onErrorResume(e -> {
+                                    log.warn("Semantic cache write failed in {}.", scope, e);
+                                    return Mono.empty();
+                                })
+                                .thenReturn(answers))));
+    }
+}
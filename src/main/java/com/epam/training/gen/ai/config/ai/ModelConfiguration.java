@@ -1,6 +1,9 @@
 package com.epam.training.gen.ai.config.ai;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -13,10 +16,27 @@ import lombok.Setter;
 @ConfigurationProperties(prefix = "model")
 public class ModelConfiguration {
 
-    private Map<String, Boolean> allowFeatures;
+    private Map<String, Boolean> allowFeatures = new LinkedHashMap<>();
+
+    private String defaultDeploymentName;
 
     public boolean isFeaturesAllowed(String modelId) {
 
         return ObjectUtils.defaultIfNull(allowFeatures.get(modelId), false);
     }
+
+    /**
+     * Gets the names of all configured deployments.
+     *
+     * @return the default deployment followed by the deployments listed under {@code model.allowFeatures}
+     */
+    public Set<String> getDeploymentNames() {
+
+        Set<String> deploymentNames = new LinkedHashSet<>();
+        if (defaultDeploymentName != null) {
+            deploymentNames.add(defaultDeploymentName);
+        }
+        deploymentNames.addAll(allowFeatures.keySet());
+        return deploymentNames;
+    }
 }
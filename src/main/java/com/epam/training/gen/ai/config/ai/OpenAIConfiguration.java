@@ -3,6 +3,14 @@ package com.epam.training.gen.ai.config.ai;
 import com.azure.ai.openai.OpenAIAsyncClient;
 import com.azure.ai.openai.OpenAIClientBuilder;
 import com.azure.core.credential.AzureKeyCredential;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.policy.AddHeadersPolicy;
+import com.azure.core.http.policy.ExponentialBackoff;
+import com.azure.core.http.policy.ExponentialBackoffOptions;
+import com.azure.core.http.policy.RequestRetryCondition;
+import com.azure.core.http.policy.RetryOptions;
+import com.azure.core.http.policy.RetryStrategy;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -18,8 +26,15 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class OpenAIConfiguration {
 
+    private static final HttpHeaderName API_KEY_HEADER = HttpHeaderName.fromString("api-key");
+    private static final RetryStrategy DEFAULT_RETRY_STRATEGY = new ExponentialBackoff();
+
     /**
      * Creates an {@link OpenAIAsyncClient} bean for interacting with Azure OpenAI Service asynchronously.
+     * <p>
+     * Key credentials are accepted over HTTPS only, so for plain HTTP endpoints (such as a local mock server) the key
+     * is sent as a header instead. Responses with 429 are not retried by the client: they are queued again by the
+     * admission control, which honours {@code Retry-After} for all requests to the deployment.
      *
      * @param key      API key
      * @param endpoint endpoint URL
@@ -29,9 +44,22 @@ public class OpenAIConfiguration {
     public OpenAIAsyncClient openAIAsyncClient(@Value("${client-openai-key}") String key,
             @Value("${client-openai-endpoint}") String endpoint) {
 
-        return new OpenAIClientBuilder()
-                .credential(new AzureKeyCredential(key))
+        OpenAIClientBuilder builder = new OpenAIClientBuilder()
                 .endpoint(endpoint)
-                .buildAsyncClient();
+                .retryOptions(new RetryOptions(new ExponentialBackoffOptions())
+                        .setShouldRetryCondition(OpenAIConfiguration::shouldRetry));
+        if (endpoint.startsWith("http://")) {
+            builder.addPolicy(new AddHeadersPolicy(new HttpHeaders().set(API_KEY_HEADER, key)));
+        } else {
+            builder.credential(new AzureKeyCredential(key));
+        }
+        return builder.buildAsyncClient();
+    }
+
+    private static boolean shouldRetry(RequestRetryCondition condition) {
+
+        boolean throttled = condition.getResponse() != null
+                && condition.getResponse().getStatusCode() == RetryStrategy.HTTP_STATUS_TOO_MANY_REQUESTS;
+        return !throttled && DEFAULT_RETRY_STRATEGY.shouldRetryCondition(condition);
     }
 }
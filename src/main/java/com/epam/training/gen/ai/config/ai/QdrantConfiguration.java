@@ -0,0 +1,41 @@
+package com.epam.training.gen.ai.config.ai;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
+
+/**
+ * Configuration class for setting up the Qdrant gRPC client.
+ * <p>
+ * The underlying gRPC channel connects lazily, so the bean can be created even when no Qdrant instance is running
+ * and no Qdrant backed feature is enabled.
+ */
+@Configuration
+public class QdrantConfiguration {
+
+    /**
+     * Creates a {@link QdrantClient} bean.
+     *
+     * @param host    Qdrant host
+     * @param port    Qdrant gRPC port
+     * @param useTls  whether the connection uses TLS
+     * @param apiKey  optional API key
+     * @return Qdrant client
+     */
+    @Bean(destroyMethod = "close")
+    public QdrantClient qdrantClient(@Value("${client-qdrant-host}") String host,
+            @Value("${client-qdrant-port}") int port,
+            @Value("${client-qdrant-use-tls:false}") boolean useTls,
+            @Value("${client-qdrant-api-key:}") String apiKey) {
+
+        QdrantGrpcClient.Builder builder = QdrantGrpcClient.newBuilder(host, port, useTls);
+        if (StringUtils.isNotBlank(apiKey)) {
+            builder.withApiKey(apiKey);
+        }
+        return new QdrantClient(builder.build());
+    }
+}
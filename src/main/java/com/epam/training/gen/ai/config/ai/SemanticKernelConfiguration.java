@@ -9,13 +9,10 @@ import com.microsoft.semantickernel.aiservices.openai.chatcompletion.OpenAIChatC
 import com.microsoft.semantickernel.plugin.KernelPlugin;
 import com.microsoft.semantickernel.plugin.KernelPluginFactory;
 import com.microsoft.semantickernel.services.chatcompletion.ChatCompletionService;
-import com.microsoft.semantickernel.services.chatcompletion.ChatHistory;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
 
 /**
  * Configuration class for setting up Semantic Kernel components.
@@ -117,11 +114,4 @@ public class SemanticKernelConfiguration {
                 .withPlugin(weatherForecastKernelPlugin)
                 .build();
     }
-
-    @Bean
-    @Scope(scopeName = "session", proxyMode = ScopedProxyMode.TARGET_CLASS)
-    public ChatHistory chatHistory() {
-
-        return new ChatHistory();
-    }
 }
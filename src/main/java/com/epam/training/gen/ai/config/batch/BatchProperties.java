@@ -0,0 +1,27 @@
+package com.epam.training.gen.ai.config.batch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "batch")
+public class BatchProperties {
+
+    /**
+     * Maximal number of prompts of one batch processed at the same time.
+     */
+    private int concurrency = 8;
+
+    /**
+     * Maximal number of requests per second per deployment name; deployments not listed are not limited.
+     */
+    private Map<String, Double> rateLimit = new HashMap<>();
+}
@@ -0,0 +1,31 @@
+package com.epam.training.gen.ai.config.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "completion-cache")
+public class CompletionCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound of the estimated memory taken by cached answers.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /**
+     * Whether answers generated with a non-zero temperature are cached too.
+     */
+    private boolean cacheNonZeroTemperature;
+}
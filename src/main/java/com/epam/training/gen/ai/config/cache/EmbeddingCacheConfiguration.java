@@ -0,0 +1,38 @@
+package com.epam.training.gen.ai.config.cache;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.epam.training.gen.ai.cache.EmbeddingCache;
+import com.epam.training.gen.ai.cache.MappedFileEmbeddingCache;
+import com.epam.training.gen.ai.cache.NoOpEmbeddingCache;
+
+/**
+ * Configuration class for the cache of text embeddings.
+ * <p>
+ * Embeddings are kept in a memory-mapped file when {@code embedding-cache.enabled=true}, otherwise every text is
+ * embedded by the model.
+ */
+@Configuration
+public class EmbeddingCacheConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "embedding-cache", name = "enabled", havingValue = "true")
+    public MappedFileEmbeddingCache mappedFileEmbeddingCache(EmbeddingCacheProperties embeddingCacheProperties)
+            throws IOException {
+
+        return new MappedFileEmbeddingCache(embeddingCacheProperties.getFilePath(),
+                Math.toIntExact(embeddingCacheProperties.getFileSegmentSize().toBytes()),
+                embeddingCacheProperties.getInitialCapacity());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "embedding-cache", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public EmbeddingCache noOpEmbeddingCache() {
+
+        return new NoOpEmbeddingCache();
+    }
+}
@@ -0,0 +1,31 @@
+package com.epam.training.gen.ai.config.cache;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "embedding-cache")
+public class EmbeddingCacheProperties {
+
+    private boolean enabled;
+
+    private Path filePath = Path.of("data", "embeddings.bin");
+
+    /**
+     * Size of a mapped segment of the file, also the maximal size of a stored vector.
+     */
+    private DataSize fileSegmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Number of vectors the off-heap index is sized for when the cache is opened; it doubles when exceeded.
+     */
+    private int initialCapacity = 65_536;
+}
@@ -0,0 +1,34 @@
+package com.epam.training.gen.ai.config.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.epam.training.gen.ai.cache.InMemorySemanticCacheStore;
+import com.epam.training.gen.ai.cache.QdrantSemanticCacheStore;
+import com.epam.training.gen.ai.cache.SemanticCacheStore;
+
+import io.qdrant.client.QdrantClient;
+
+/**
+ * Configuration class for selecting the vector store behind the semantic response cache.
+ * <p>
+ * Qdrant is used when {@code semantic-cache.store=qdrant}, otherwise answers are kept in memory.
+ */
+@Configuration
+public class SemanticCacheConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "semantic-cache", name = "store", havingValue = "qdrant")
+    public SemanticCacheStore qdrantSemanticCacheStore(QdrantClient qdrantClient) {
+
+        return new QdrantSemanticCacheStore(qdrantClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "semantic-cache", name = "store", havingValue = "in-memory", matchIfMissing = true)
+    public SemanticCacheStore inMemorySemanticCacheStore(SemanticCacheProperties semanticCacheProperties) {
+
+        return new InMemorySemanticCacheStore(semanticCacheProperties.getInMemoryMaxEntries());
+    }
+}
@@ -0,0 +1,32 @@
+package com.epam.training.gen.ai.config.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "semantic-cache")
+public class SemanticCacheProperties {
+
+    private boolean enabled;
+
+    /**
+     * Minimal cosine similarity between prompts for a cached answer to be reused.
+     */
+    private double similarityThreshold = 0.95;
+
+    private Duration ttl = Duration.ofHours(1);
+
+    private String collectionPrefix = "semantic_cache";
+
+    /**
+     * Maximal number of entries per scope kept by the in-memory store.
+     */
+    private int inMemoryMaxEntries = 10_000;
+}
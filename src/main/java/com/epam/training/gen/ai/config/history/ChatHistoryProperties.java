@@ -0,0 +1,57 @@
+package com.epam.training.gen.ai.config.history;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "chat-history")
+public class ChatHistoryProperties {
+
+    /**
+     * Number of the latest turns (user message and answer) always sent verbatim.
+     */
+    private int keepTurns = 6;
+
+    /**
+     * Number of turns beyond {@link #keepTurns} collected before they are folded into the summary, so that the
+     * summary is not regenerated on every turn.
+     */
+    private int foldBatchTurns = 4;
+
+    /**
+     * Token budget of the rendered history when no per-deployment budget is configured.
+     */
+    private int defaultTokenBudget = 3000;
+
+    /**
+     * Token budgets of the rendered history per deployment name.
+     */
+    private Map<String, Integer> tokenBudget = new HashMap<>();
+
+    /**
+     * Deployment generating summaries; the default deployment is used when blank.
+     */
+    private String summaryDeploymentName;
+
+    private int summaryMaxTokens = 256;
+
+    /**
+     * Time after a failed summarization during which no turns are folded; only the latest {@link #keepTurns} turns
+     * are sent meanwhile.
+     */
+    private Duration foldRetryDelay = Duration.ofMinutes(1);
+
+    public int getTokenBudget(String deploymentName) {
+
+        return tokenBudget.getOrDefault(deploymentName, defaultTokenBudget);
+    }
+}
@@ -0,0 +1,81 @@
+package com.epam.training.gen.ai.config.history;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+
+import com.epam.training.gen.ai.history.ChatSessionStore;
+import com.epam.training.gen.ai.history.Conversation;
+import com.epam.training.gen.ai.history.InMemoryChatSessionStore;
+import com.epam.training.gen.ai.history.MappedFileChatSessionStore;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Configuration class for storing chat conversations.
+ * <p>
+ * Conversations are kept in a memory-mapped file when {@code chat-session.store=file}, otherwise on the heap.
+ * The conversation of a request is identified by the {@code conversationId} header, falling back to the HTTP
+ * session id. Only server-issued ids are accepted: a header which is not a UUID is replaced by a newly issued
+ * random UUID, returned in the {@code conversationId} response header, so that a client cannot pick the id of
+ * another client's conversation.
+ */
+@Configuration
+public class ChatSessionConfiguration {
+
+    public static final String CONVERSATION_ID_HEADER = "conversationId";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "chat-session", name = "store", havingValue = "file")
+    public ChatSessionStore mappedFileChatSessionStore(ChatSessionProperties chatSessionProperties)
+            throws IOException {
+
+        return new MappedFileChatSessionStore(chatSessionProperties.getFilePath(),
+                Math.toIntExact(chatSessionProperties.getFileSegmentSize().toBytes()),
+                chatSessionProperties.getFileMaxSize().toBytes());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "chat-session", name = "store", havingValue = "in-memory", matchIfMissing = true)
+    public ChatSessionStore inMemoryChatSessionStore() {
+
+        return new InMemoryChatSessionStore();
+    }
+
+    /**
+     * Creates a request-scoped {@link Conversation} loaded lazily from the {@link ChatSessionStore}.
+     *
+     * @return the {@link Conversation} of the current request
+     */
+    @Bean
+    @Scope(scopeName = "request", proxyMode = ScopedProxyMode.TARGET_CLASS)
+    public Conversation conversation(ChatSessionStore chatSessionStore, HttpServletRequest request,
+                                     HttpServletResponse response) {
+
+        String conversationId = request.getHeader(CONVERSATION_ID_HEADER);
+        if (StringUtils.isBlank(conversationId)) {
+            return chatSessionStore.getConversation(request.getSession().getId());
+        }
+        if (!isIssuedId(conversationId)) {
+            conversationId = UUID.randomUUID().toString();
+            response.setHeader(CONVERSATION_ID_HEADER, conversationId);
+        }
+        return chatSessionStore.getConversation(conversationId);
+    }
+
+    static boolean isIssuedId(String conversationId) {
+
+        try {
+            return UUID.fromString(conversationId).toString().equals(conversationId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
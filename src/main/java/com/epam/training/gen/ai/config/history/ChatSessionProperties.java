@@ -0,0 +1,40 @@
+package com.epam.training.gen.ai.config.history;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "chat-session")
+public class ChatSessionProperties {
+
+    /**
+     * Conversations not accessed for this time are dropped from memory.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    /**
+     * File of the {@code file} store.
+     */
+    private Path filePath = Path.of("data", "chat-sessions.log");
+
+    /**
+     * Size of a mapped segment of the {@code file} store, also the maximal size of a stored turn.
+     */
+    private DataSize fileSegmentSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Maximal size of the file of the {@code file} store; the file is compacted when it is reached.
+     */
+    private DataSize fileMaxSize = DataSize.ofGigabytes(1);
+}
@@ -0,0 +1,53 @@
+package com.epam.training.gen.ai.config.rag;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.epam.training.gen.ai.rag.DocumentStore;
+import com.epam.training.gen.ai.rag.InMemoryDocumentStore;
+import com.epam.training.gen.ai.rag.IngestionManifest;
+import com.epam.training.gen.ai.rag.QdrantDocumentStore;
+
+import io.qdrant.client.QdrantClient;
+
+/**
+ * Configuration class for selecting the vector store of ingested documents.
+ * <p>
+ * Qdrant is used when {@code rag.store=qdrant}, otherwise chunks are kept in memory. The ingestion manifest is
+ * persisted only along with the Qdrant store, since in-memory chunks do not survive a restart.
+ */
+@Configuration
+public class RagConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rag", name = "store", havingValue = "qdrant")
+    public DocumentStore qdrantDocumentStore(QdrantClient qdrantClient, RagProperties ragProperties) {
+
+        return new QdrantDocumentStore(qdrantClient, ragProperties.getCollection());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rag", name = "store", havingValue = "qdrant")
+    public IngestionManifest persistentIngestionManifest(RagProperties ragProperties) throws IOException {
+
+        return new IngestionManifest(Path.of(ragProperties.getManifestPath()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rag", name = "store", havingValue = "in-memory", matchIfMissing = true)
+    public DocumentStore inMemoryDocumentStore() {
+
+        return new InMemoryDocumentStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rag", name = "store", havingValue = "in-memory", matchIfMissing = true)
+    public IngestionManifest inMemoryIngestionManifest() throws IOException {
+
+        return new IngestionManifest(null);
+    }
+}
@@ -0,0 +1,70 @@
+package com.epam.training.gen.ai.config.rag;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "rag")
+public class RagProperties {
+
+    /**
+     * Whether the chunks retrieved for the user's input are added to Semantic Kernel prompts.
+     */
+    private boolean enabled;
+
+    private String collection = "documents";
+
+    private int topK = 4;
+
+    /**
+     * Minimal cosine similarity between the input and a chunk for the chunk to be added to the prompt.
+     */
+    private double minScore = 0.75;
+
+    private int contextTokenBudget = 1000;
+
+    /**
+     * Maximal time the prompt waits for retrieval; the prompt is sent without documents when it is exceeded.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    private String documentsPath = "data/documents";
+
+    private List<String> fileExtensions = List.of("txt", "md");
+
+    /**
+     * Log of the fingerprints of ingested files, used to skip unchanged files; only used with the Qdrant store.
+     */
+    private String manifestPath = "data/ingestion-manifest.log";
+
+    /**
+     * Maximal chunk length in characters.
+     */
+    private int chunkSize = 2000;
+
+    /**
+     * Number of characters repeated from the end of a chunk at the start of the next one; less than half of
+     * {@code chunkSize}.
+     */
+    private int chunkOverlap = 200;
+
+    private int fileConcurrency = 4;
+
+    private int embeddingBatchSize = 16;
+
+    private int embeddingConcurrency = 4;
+
+    private int upsertBatchSize = 64;
+
+    private int upsertConcurrency = 2;
+
+    private int maxRetries = 2;
+}
@@ -0,0 +1,67 @@
+package com.epam.training.gen.ai.config.ratelimit;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether LLM requests go through the per-deployment admission control.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrency limit of a deployment before any feedback from it.
+     */
+    private int initialLimit = 8;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 64;
+
+    /**
+     * Factor the concurrency limit is multiplied by when the deployment is overloaded.
+     */
+    private double backoffRatio = 0.7;
+
+    /**
+     * Successful requests slower than this also shrink the concurrency limit; not set to react to 429 only.
+     */
+    private Duration latencyThreshold;
+
+    /**
+     * Maximal time a request waits for admission before it is rejected.
+     */
+    private Duration queueTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Maximal number of requests waiting for admission per deployment; further requests are rejected at once.
+     */
+    private int maxQueueSize = 256;
+
+    /**
+     * Pause of a deployment after a 429 response without {@code Retry-After}.
+     */
+    private Duration defaultRetryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Number of times a request answered with 429 is queued again.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * Tokens per minute quota per deployment name; deployments not listed have no token limit.
+     */
+    private Map<String, Integer> tokensPerMinute = new HashMap<>();
+}
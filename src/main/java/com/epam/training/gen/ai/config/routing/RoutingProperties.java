@@ -0,0 +1,61 @@
+package com.epam.training.gen.ai.config.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "routing")
+public class RoutingProperties {
+
+    /**
+     * Whether Semantic Kernel requests without a deployment name are routed to the best healthy deployment instead
+     * of the default one.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Deployments requests are routed to; empty for all configured deployments.
+     */
+    private List<String> deployments = new ArrayList<>();
+
+    /**
+     * Weight of the latest request in the moving averages of latency and error rate.
+     */
+    private double ewmaWeight = 0.2;
+
+    /**
+     * Deployments with a higher average error rate are not routed to, except for one probe per probe interval.
+     */
+    private double maxErrorRate = 0.5;
+
+    private Duration probeInterval = Duration.ofSeconds(30);
+
+    /**
+     * Number of latest latencies per deployment the hedging percentile is computed from.
+     */
+    private int latencyWindow = 100;
+
+    /**
+     * Whether a duplicate request is sent to a second deployment when the first one is slower than its
+     * {@link #hedgePercentile} latency.
+     */
+    private boolean hedging = false;
+
+    private double hedgePercentile = 95;
+
+    /**
+     * Requests are not hedged earlier than this, nor before the deployment has {@link #hedgeMinSamples} latencies.
+     */
+    private Duration hedgeMinDelay = Duration.ofSeconds(1);
+
+    private int hedgeMinSamples = 20;
+}
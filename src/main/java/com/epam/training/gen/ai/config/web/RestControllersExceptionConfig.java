@@ -15,6 +15,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.epam.training.gen.ai.rag.IngestionInProgressException;
+import com.epam.training.gen.ai.ratelimit.AdmissionRejectedException;
+
 @RestController
 @ControllerAdvice
 public class RestControllersExceptionConfig {
@@ -35,4 +38,18 @@ public class RestControllersExceptionConfig {
 
         return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Failed to read request");
     }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ProblemDetail handleAdmissionRejected(AdmissionRejectedException ex) {
+
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(IngestionInProgressException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetail handleIngestionInProgress(IngestionInProgressException ex) {
+
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+    }
 }
@@ -0,0 +1,30 @@
+package com.epam.training.gen.ai.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.epam.training.gen.ai.rag.DocumentIngestionService;
+import com.epam.training.gen.ai.rag.IngestionReport;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/documents")
+public class DocumentController {
+
+    private final DocumentIngestionService documentIngestionService;
+
+    @Autowired
+    public DocumentController(DocumentIngestionService documentIngestionService) {
+
+        this.documentIngestionService = documentIngestionService;
+    }
+
+    @PostMapping("/ingest")
+    public Mono<IngestionReport> ingest() {
+
+        return documentIngestionService.ingest();
+    }
+}
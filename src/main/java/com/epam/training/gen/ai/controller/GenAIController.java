@@ -1,9 +1,11 @@
 package com.epam.training.gen.ai.controller;
 
+import java.io.IOException;
 import java.util.Collections;
-import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -12,52 +14,130 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.epam.training.gen.ai.model.request.PromptRequestDto;
+import com.epam.training.gen.ai.model.response.BatchPromptResultDto;
 import com.epam.training.gen.ai.model.response.PromptResponseDto;
+import com.epam.training.gen.ai.plugin.output.ToolOutputContext;
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+import com.epam.training.gen.ai.service.BatchPromptService;
 import com.epam.training.gen.ai.service.OpenAIService;
 import com.epam.training.gen.ai.service.SemanticKernelService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @RestController
 @RequestMapping("/prompt")
 public class GenAIController {
 
+    private static final String TOKEN_EVENT = "token";
+    private static final String DONE_EVENT = "done";
+
     private final OpenAIService openAIService;
     private final SemanticKernelService semanticKernelService;
+    private final BatchPromptService batchPromptService;
 
     @Autowired
-    public GenAIController(OpenAIService openAIService, SemanticKernelService semanticKernelService) {
+    public GenAIController(OpenAIService openAIService, SemanticKernelService semanticKernelService,
+            BatchPromptService batchPromptService) {
 
         this.openAIService = openAIService;
         this.semanticKernelService = semanticKernelService;
+        this.batchPromptService = batchPromptService;
     }
 
     @PostMapping("/open-ai/send")
-    public PromptResponseDto sendPromptToOpenAI(@Validated @RequestBody PromptRequestDto request) {
+    public Mono<PromptResponseDto> sendPromptToOpenAI(
+            @RequestHeader(name = "temperature", required = false) Double temperature,
+            @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            @Validated @RequestBody PromptRequestDto request) {
 
-        List<String> result = openAIService.getChatCompletions(request.getInput());
-        return new PromptResponseDto(result);
+        return openAIService.getChatCompletions(request.getInput(), temperature, maxTokens)
+                .map(PromptResponseDto::new);
+    }
+
+    @PostMapping(value = "/open-ai/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchPromptResultDto> sendBatchToOpenAI(
+            @RequestHeader(name = "temperature", required = false) Double temperature,
+            @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            HttpServletRequest request) throws IOException {
+
+        return batchPromptService.process(request.getInputStream(), openAIService.getDeploymentName(),
+                input -> openAIService.getChatCompletions(input, temperature, maxTokens));
     }
 
     @PostMapping("/sk/send")
-    public PromptResponseDto sendPromptToSK(
+    public Mono<PromptResponseDto> sendPromptToSK(
             @RequestHeader(name = "deploymentName", required = false) String deploymentName,
             @RequestHeader(name = "temperature", required = false) Double temperature,
             @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            @RequestHeader(name = "toolOutputFormat", required = false) ToolOutputFormat toolOutputFormat,
             @Validated @RequestBody PromptRequestDto request) {
 
-        String result = semanticKernelService.processWithHistory(request.getInput(), deploymentName, temperature,
-                maxTokens);
-        return new PromptResponseDto(Collections.singletonList(result));
+        return semanticKernelService.processWithHistory(request.getInput(), deploymentName, temperature, maxTokens)
+                .map(result -> new PromptResponseDto(Collections.singletonList(result)))
+                .contextWrite(ToolOutputContext.of(toolOutputFormat));
+    }
+
+    @PostMapping(value = "/sk/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchPromptResultDto> sendBatchToSK(
+            @RequestHeader(name = "deploymentName", required = false) String deploymentName,
+            @RequestHeader(name = "temperature", required = false) Double temperature,
+            @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            HttpServletRequest request) throws IOException {
+
+        return batchPromptService.process(request.getInputStream(),
+                semanticKernelService.resolveDeploymentName(deploymentName),
+                input -> semanticKernelService.processWithoutHistory(input, deploymentName, temperature, maxTokens)
+                        .map(Collections::singletonList));
     }
 
     @PostMapping("/sk/place/commonInfo")
-    public PromptResponseDto getCurrencyExchangeRate(
+    public Mono<PromptResponseDto> getCurrencyExchangeRate(
             @RequestHeader(name = "deploymentName", required = false) String deploymentName,
             @RequestHeader(name = "temperature", required = false) Double temperature,
             @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            @RequestHeader(name = "toolOutputFormat", required = false) ToolOutputFormat toolOutputFormat,
             @Validated @RequestBody PromptRequestDto request) {
 
-        String result = semanticKernelService.getCommonInfoAboutPlace(request.getInput(), deploymentName, temperature,
-                maxTokens);
-        return new PromptResponseDto(Collections.singletonList(result));
+        return semanticKernelService.getCommonInfoAboutPlace(request.getInput(), deploymentName, temperature,
+                        maxTokens)
+                .map(result -> new PromptResponseDto(Collections.singletonList(result)))
+                .contextWrite(ToolOutputContext.of(toolOutputFormat));
+    }
+
+    @PostMapping(value = "/sk/send/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamPromptToSK(
+            @RequestHeader(name = "deploymentName", required = false) String deploymentName,
+            @RequestHeader(name = "temperature", required = false) Double temperature,
+            @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            @RequestHeader(name = "toolOutputFormat", required = false) ToolOutputFormat toolOutputFormat,
+            @Validated @RequestBody PromptRequestDto request) {
+
+        return toServerSentEvents(semanticKernelService.streamWithHistory(request.getInput(), deploymentName,
+                temperature, maxTokens).contextWrite(ToolOutputContext.of(toolOutputFormat)));
+    }
+
+    @PostMapping(value = "/sk/place/commonInfo/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamCommonInfoAboutPlace(
+            @RequestHeader(name = "deploymentName", required = false) String deploymentName,
+            @RequestHeader(name = "temperature", required = false) Double temperature,
+            @RequestHeader(name = "maxTokens", required = false) Integer maxTokens,
+            @RequestHeader(name = "toolOutputFormat", required = false) ToolOutputFormat toolOutputFormat,
+            @Validated @RequestBody PromptRequestDto request) {
+
+        return toServerSentEvents(semanticKernelService.streamCommonInfoAboutPlace(request.getInput(),
+                deploymentName, temperature, maxTokens).contextWrite(ToolOutputContext.of(toolOutputFormat)));
+    }
+
+    private static Flux<ServerSentEvent<String>> toServerSentEvents(Flux<String> chunks) {
+
+        return chunks
+                .map(chunk -> ServerSentEvent.builder(chunk).event(TOKEN_EVENT).build())
+                .concatWith(Flux.just(ServerSentEvent.<String>builder().event(DONE_EVENT).build()));
     }
 }
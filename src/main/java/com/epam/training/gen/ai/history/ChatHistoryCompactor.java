@@ -0,0 +1,193 @@
+package com.epam.training.gen.ai.history;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.models.ChatCompletionsOptions;
+import com.azure.ai.openai.models.ChatRequestSystemMessage;
+import com.azure.ai.openai.models.ChatRequestUserMessage;
+import com.epam.training.gen.ai.config.history.ChatHistoryProperties;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.util.TokenBudget;
+import com.microsoft.semantickernel.services.chatcompletion.ChatHistory;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the chat history sent to the model bounded.
+ * <p>
+ * The latest turns are sent verbatim. Once enough older turns pile up (or the history exceeds the token budget of
+ * the deployment), they are folded into a summary which is updated incrementally: the model gets the previous
+ * summary and the folded turns only, never the whole conversation. If summarization fails, only the latest turns are
+ * sent and no turns are folded for {@code chat-history.fold-retry-delay}; the older turns are folded on a later turn.
+ */
+@Slf4j
+@Service
+public class ChatHistoryCompactor {
+
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation: ";
+
+    private static final String SUMMARY_OPERATION = "summary";
+
+    private static final String SUMMARIZE_INSTRUCTION = """
+            You maintain a running summary of a conversation between a user and an assistant. \
+            Update the summary with the new turns. Keep facts, names, numbers, decisions and open questions, \
+            drop greetings and repetitions. Answer with the updated summary only.""";
+
+    private final OpenAIAsyncClient openAIAsyncClient;
+    private final ChatHistoryProperties properties;
+    private final LlmMetrics llmMetrics;
+    private final String summaryDeploymentName;
+    private final Clock clock;
+    private volatile Instant foldRetryAt = Instant.MIN;
+
+    @Autowired
+    public ChatHistoryCompactor(OpenAIAsyncClient openAIAsyncClient, ChatHistoryProperties properties,
+            LlmMetrics llmMetrics, @Value("${client-openai-deployment-name}") String defaultDeploymentName) {
+
+        this(openAIAsyncClient, properties, llmMetrics, defaultDeploymentName, Clock.systemUTC());
+    }
+
+    ChatHistoryCompactor(OpenAIAsyncClient openAIAsyncClient, ChatHistoryProperties properties,
+            LlmMetrics llmMetrics, String defaultDeploymentName, Clock clock) {
+
+        this.openAIAsyncClient = openAIAsyncClient;
+        this.properties = properties;
+        this.llmMetrics = llmMetrics;
+        this.summaryDeploymentName = StringUtils.defaultIfBlank(properties.getSummaryDeploymentName(),
+                defaultDeploymentName);
+        this.clock = clock;
+    }
+
+    /**
+     * Compacts the conversation if needed and renders the history to be sent to the deployment.
+     *
+     * @param conversation   conversation of the session
+     * @param deploymentName deployment the history is sent to
+     * @return summary (as a system message) followed by the latest turns fitting the token budget
+     */
+    public Mono<ChatHistory> compact(Conversation conversation, String deploymentName) {
+
+        ConversationSnapshot snapshot = conversation.snapshot();
+        int tokenBudget = properties.getTokenBudget(deploymentName);
+        int overflow = snapshot.turns().size() - properties.getKeepTurns();
+
+        Mono<ConversationSnapshot> compacted = Mono.just(snapshot);
+        if (overflow > 0 && (overflow >= properties.getFoldBatchTurns() || estimateTokens(snapshot) > tokenBudget)) {
+            compacted = clock.instant().isBefore(foldRetryAt)
+                    ? Mono.just(keepLatestTurns(snapshot))
+                    : fold(conversation, snapshot, overflow);
+        }
+
+        return compacted.map(compactedSnapshot -> toPromptHistory(compactedSnapshot, deploymentName, tokenBudget));
+    }
+
+    private Mono<ConversationSnapshot> fold(Conversation conversation, ConversationSnapshot snapshot,
+            int turnCount) {
+
+        List<ChatTurn> turns = snapshot.turns();
+        return summarize(snapshot.summary(), turns.subList(0, turnCount))
+                .map(summary -> {
+                    if (conversation.fold(snapshot, turnCount, summary)) {
+                        log.info("Folded {} turns into the summary of {} estimated tokens.", turnCount,
+                                TokenBudget.estimateTokens(summary));
+                    }
+                    return new ConversationSnapshot(summary, snapshot.foldedTurns() + turnCount,
+                            turns.subList(turnCount, turns.size()));
+                })
+                .onErrorResume(e -> {
+                    foldRetryAt = clock.instant().plus(properties.getFoldRetryDelay());
+                    log.warn("Failed to fold {} turns into the summary, only the latest {} turns are sent until {}.",
+                            turnCount, properties.getKeepTurns(), foldRetryAt, e);
+                    return Mono.just(keepLatestTurns(snapshot));
+                });
+    }
+
+    /**
+     * Leaves the turns beyond {@code chat-history.keep-turns} out of the prompt without folding them.
+     */
+    private ConversationSnapshot keepLatestTurns(ConversationSnapshot snapshot) {
+
+        List<ChatTurn> turns = snapshot.turns();
+        return new ConversationSnapshot(snapshot.summary(), snapshot.foldedTurns(),
+                turns.subList(Math.max(turns.size() - properties.getKeepTurns(), 0), turns.size()));
+    }
+
+    private Mono<String> summarize(String previousSummary, List<ChatTurn> turns) {
+
+        StringBuilder sb = new StringBuilder("Current summary: ")
+                .append(StringUtils.defaultIfBlank(previousSummary, "none"))
+                .append("\n\nNew turns:");
+        turns.forEach(turn -> sb.append("\nUser: ")
+                .append(turn.userMessage())
+                .append("\nAssistant: ")
+                .append(turn.assistantMessage()));
+
+        ChatCompletionsOptions options = new ChatCompletionsOptions(List.of(
+                new ChatRequestSystemMessage(SUMMARIZE_INSTRUCTION),
+                new ChatRequestUserMessage(sb.toString())))
+                .setTemperature(0.0)
+                .setMaxTokens(properties.getSummaryMaxTokens());
+
+        return openAIAsyncClient.getChatCompletions(summaryDeploymentName, options)
+                .transform(llmMetrics.timeRequest(summaryDeploymentName, SUMMARY_OPERATION))
+                .doOnNext(completions -> llmMetrics.recordTokenUsage(summaryDeploymentName, completions.getUsage()))
+                .flatMap(completions -> Mono.justOrEmpty(completions.getChoices().stream()
+                        .map(choice -> choice.getMessage().getContent())
+                        .filter(StringUtils::isNotBlank)
+                        .findFirst()))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Summary was not generated.")));
+    }
+
+    private ChatHistory toPromptHistory(ConversationSnapshot snapshot, String deploymentName, int tokenBudget) {
+
+        List<ChatTurn> turns = snapshot.turns();
+        int tokens = snapshot.summary() == null ? 0 : TokenBudget.estimateTokens(SUMMARY_PREFIX + snapshot.summary());
+        int firstTurn = turns.size();
+        while (firstTurn > 0) {
+            int turnTokens = estimateTokens(turns.get(firstTurn - 1));
+            if (tokens + turnTokens > tokenBudget) {
+                break;
+            }
+            tokens += turnTokens;
+            firstTurn--;
+        }
+
+        ChatHistory history = new ChatHistory();
+        if (snapshot.summary() != null) {
+            history.addSystemMessage(SUMMARY_PREFIX + snapshot.summary());
+        }
+        turns.subList(firstTurn, turns.size()).forEach(turn -> {
+            history.addUserMessage(turn.userMessage());
+            history.addAssistantMessage(turn.assistantMessage());
+        });
+
+        log.info("Chat history. Deployment: {}, verbatim turns: {}, omitted turns: {}, folded turns: {}, "
+                        + "estimated tokens: {}/{}.", deploymentName, turns.size() - firstTurn, firstTurn,
+                snapshot.foldedTurns(), tokens, tokenBudget);
+        llmMetrics.recordHistory(deploymentName, turns.size() - firstTurn, tokens);
+        return history;
+    }
+
+    private static int estimateTokens(ConversationSnapshot snapshot) {
+
+        int tokens = snapshot.summary() == null ? 0 : TokenBudget.estimateTokens(SUMMARY_PREFIX + snapshot.summary());
+        for (ChatTurn turn : snapshot.turns()) {
+            tokens += estimateTokens(turn);
+        }
+        return tokens;
+    }
+
+    private static int estimateTokens(ChatTurn turn) {
+
+        return TokenBudget.estimateTokens(turn.userMessage()) + TokenBudget.estimateTokens(turn.assistantMessage());
+    }
+}
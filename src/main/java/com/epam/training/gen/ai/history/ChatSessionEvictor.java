@@ -0,0 +1,36 @@
+package com.epam.training.gen.ai.history;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.history.ChatSessionProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically drops idle conversations from memory.
+ */
+@Slf4j
+@Component
+public class ChatSessionEvictor {
+
+    private final ChatSessionStore chatSessionStore;
+    private final ChatSessionProperties chatSessionProperties;
+
+    @Autowired
+    public ChatSessionEvictor(ChatSessionStore chatSessionStore, ChatSessionProperties chatSessionProperties) {
+
+        this.chatSessionStore = chatSessionStore;
+        this.chatSessionProperties = chatSessionProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${chat-session.eviction-interval:PT1M}")
+    public void evictIdle() {
+
+        int evicted = chatSessionStore.evictIdle(chatSessionProperties.getIdleTimeout());
+        if (evicted > 0) {
+            log.info("Evicted {} idle conversations.", evicted);
+        }
+    }
+}
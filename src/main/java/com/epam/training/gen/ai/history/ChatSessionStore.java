@@ -0,0 +1,28 @@
+package com.epam.training.gen.ai.history;
+
+import java.time.Duration;
+
+/**
+ * Storage of chat conversations by conversation id.
+ * <p>
+ * Implementations keep recently used conversations in memory and load the others lazily, so that a conversation
+ * can be served by any node sharing the store.
+ */
+public interface ChatSessionStore {
+
+    /**
+     * Returns the conversation, loading it from the store or creating an empty one.
+     *
+     * @param conversationId id of the conversation
+     * @return live conversation; its changes are persisted by the store
+     */
+    Conversation getConversation(String conversationId);
+
+    /**
+     * Drops conversations not accessed for the given time from memory.
+     *
+     * @param idleTimeout maximal idle time
+     * @return number of evicted conversations
+     */
+    int evictIdle(Duration idleTimeout);
+}
@@ -0,0 +1,7 @@
+package com.epam.training.gen.ai.history;
+
+/**
+ * A user message together with the assistant answer to it.
+ */
+public record ChatTurn(String userMessage, String assistantMessage) {
+}
@@ -0,0 +1,69 @@
+package com.epam.training.gen.ai.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chat conversation of a session: the latest turns kept verbatim and a rolling summary of the older ones.
+ * <p>
+ * Requests of the same session may run concurrently, so the state is only changed through the synchronized
+ * methods and read through {@link #snapshot()}.
+ */
+public class Conversation {
+
+    private final List<ChatTurn> turns;
+    private final ConversationListener listener;
+    private String summary;
+    private int foldedTurns;
+
+    public Conversation() {
+
+        this(new ConversationSnapshot(null, 0, List.of()), ConversationListener.NONE);
+    }
+
+    /**
+     * Restores a conversation.
+     *
+     * @param snapshot stored state of the conversation
+     * @param listener listener of further changes
+     */
+    public Conversation(ConversationSnapshot snapshot, ConversationListener listener) {
+
+        this.turns = new ArrayList<>(snapshot.turns());
+        this.summary = snapshot.summary();
+        this.foldedTurns = snapshot.foldedTurns();
+        this.listener = listener;
+    }
+
+    public synchronized ConversationSnapshot snapshot() {
+
+        return new ConversationSnapshot(summary, foldedTurns, List.copyOf(turns));
+    }
+
+    public synchronized void addTurn(ChatTurn turn) {
+
+        turns.add(turn);
+        listener.onTurnAdded(turn);
+    }
+
+    /**
+     * Replaces the oldest turns by the summary covering them.
+     *
+     * @param snapshot   snapshot the summary was generated from
+     * @param turnCount  number of the oldest turns of the snapshot covered by the summary
+     * @param newSummary summary of the previous summary and the folded turns
+     * @return {@code false} if another request has folded the turns in the meantime
+     */
+    public synchronized boolean fold(ConversationSnapshot snapshot, int turnCount, String newSummary) {
+
+        if (foldedTurns != snapshot.foldedTurns() || turns.size() < turnCount) {
+            return false;
+        }
+
+        turns.subList(0, turnCount).clear();
+        foldedTurns += turnCount;
+        summary = newSummary;
+        listener.onFolded(snapshot());
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package com.epam.training.gen.ai.history;
+
+/**
+ * Receives changes of a {@link Conversation}, e.g. to persist them as deltas.
+ * <p>
+ * Called while the conversation is locked, so changes arrive in the order they were applied.
+ */
+public interface ConversationListener {
+
+    ConversationListener NONE = new ConversationListener() {
+    };
+
+    default void onTurnAdded(ChatTurn turn) {
+    }
+
+    /**
+     * Called after the oldest turns were folded into the summary.
+     *
+     * @param snapshot state of the conversation after folding
+     */
+    default void onFolded(ConversationSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.epam.training.gen.ai.history;
+
+import java.util.List;
+
+/**
+ * Immutable state of a {@link Conversation} at some moment.
+ *
+ * @param summary     summary of the folded turns, {@code null} when nothing was folded yet
+ * @param foldedTurns number of turns folded into the summary so far
+ * @param turns       turns kept verbatim, oldest first
+ */
+public record ConversationSnapshot(String summary, int foldedTurns, List<ChatTurn> turns) {
+
+    public boolean isEmpty() {
+
+        return summary == null && turns.isEmpty();
+    }
+}
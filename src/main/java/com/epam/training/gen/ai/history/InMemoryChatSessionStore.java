@@ -0,0 +1,55 @@
+package com.epam.training.gen.ai.history;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ChatSessionStore} keeping conversations on the heap of a single node.
+ * <p>
+ * Evicted conversations are lost, like conversations of an expired HTTP session.
+ */
+public class InMemoryChatSessionStore implements ChatSessionStore {
+
+    private final Map<String, Entry> conversations = new ConcurrentHashMap<>();
+
+    @Override
+    public Conversation getConversation(String conversationId) {
+
+        // accessed under the lock of the entry, so that it cannot be evicted in between
+        Entry entry = conversations.compute(conversationId, (id, current) -> {
+            Entry accessed = current != null ? current : new Entry(new Conversation());
+            accessed.lastAccessNanos = System.nanoTime();
+            return accessed;
+        });
+        return entry.conversation;
+    }
+
+    @Override
+    public int evictIdle(Duration idleTimeout) {
+
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (String conversationId : conversations.keySet()) {
+            // the idle time is checked again under the lock of the entry, so a conversation handed out to a request
+            // since the iteration started is kept
+            Entry remaining = conversations.computeIfPresent(conversationId,
+                    (id, entry) -> now - entry.lastAccessNanos > idleTimeout.toNanos() ? null : entry);
+            if (remaining == null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private static final class Entry {
+
+        private final Conversation conversation;
+        private volatile long lastAccessNanos;
+
+        private Entry(Conversation conversation) {
+
+            this.conversation = conversation;
+        }
+    }
+}
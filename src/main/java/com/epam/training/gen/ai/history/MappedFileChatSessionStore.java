@@ -0,0 +1,438 @@
+package com.epam.training.gen.ai.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ChatSessionStore} persisting conversations to an append-only, memory-mapped file.
+ * <p>
+ * Every change is appended as a record: {@code TURN} for a new turn and {@code CHECKPOINT} with the summary and the
+ * remaining verbatim turns after folding. Each record points to the previous record of the same conversation, so
+ * only the offset of the last record per conversation is kept on the heap, and a conversation is loaded by walking
+ * its records back to the latest checkpoint. Conversations in use are kept in memory until they are idle.
+ * <p>
+ * Record layout: {@code int length, byte type, long previousOffset, string conversationId, payload}, where strings
+ * are encoded as {@code int byteLength} ({@code -1} for {@code null}) followed by UTF-8 bytes. The file is mapped in
+ * segments of fixed size; a record never spans two segments.
+ * <p>
+ * Once the file would grow beyond its maximal size, it is compacted: the current state of every conversation (a
+ * checkpoint with the summary followed by the verbatim turns) is rewritten to a new file which replaces the old one.
+ * If the conversations do not fit into the maximal size even after compaction, the change is rejected with an
+ * {@link IllegalStateException}.
+ */
+@Slf4j
+public class MappedFileChatSessionStore implements ChatSessionStore, Closeable {
+
+    private static final byte TURN = 1;
+    private static final byte CHECKPOINT = 2;
+    private static final long NO_RECORD = -1L;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    private final Path file;
+    private final int segmentSize;
+    private final long maxSize;
+    private final Map<String, Entry> conversations = new ConcurrentHashMap<>();
+    private SegmentedFile segmentedFile;
+    private Map<String, Long> lastRecordOffsets = new ConcurrentHashMap<>();
+    private long compactedSize = -1;
+
+    /**
+     * Opens the store, creating the file if it does not exist.
+     *
+     * @param file        store file
+     * @param segmentSize size of a mapped segment in bytes, also the maximal size of a record
+     * @param maxSize     maximal size of the file in bytes, at least one segment
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileChatSessionStore(Path file, int segmentSize, long maxSize) throws IOException {
+
+        if (maxSize < segmentSize) {
+            throw new IllegalArgumentException("Maximal size of " + maxSize
+                    + " bytes is less than the segment size of " + segmentSize + " bytes.");
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+
+        this.file = file;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.segmentedFile = new SegmentedFile(file);
+        recover();
+        log.info("Chat session store {} opened: {} conversations, {} bytes used.", file, lastRecordOffsets.size(),
+                segmentedFile.writePosition);
+    }
+
+    @Override
+    public Conversation getConversation(String conversationId) {
+
+        // accessed under the lock of the entry, so that it cannot be evicted in between
+        Entry entry = conversations.compute(conversationId, (id, current) -> {
+            Entry accessed = current != null
+                    ? current
+                    : new Entry(new Conversation(read(id), new AppendingListener(id)));
+            accessed.lastAccessNanos = System.nanoTime();
+            return accessed;
+        });
+        return entry.conversation;
+    }
+
+    @Override
+    public int evictIdle(Duration idleTimeout) {
+
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (String conversationId : conversations.keySet()) {
+            // the idle time is checked again under the lock of the entry, so a conversation handed out to a request
+            // since the iteration started is kept
+            Entry remaining = conversations.computeIfPresent(conversationId,
+                    (id, entry) -> now - entry.lastAccessNanos > idleTimeout.toNanos() ? null : entry);
+            if (remaining == null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        segmentedFile.close();
+    }
+
+    private synchronized ConversationSnapshot read(String conversationId) {
+
+        Deque<ChatTurn> turns = new ArrayDeque<>();
+        String summary = null;
+        int foldedTurns = 0;
+        long offset = lastRecordOffsets.getOrDefault(conversationId, NO_RECORD);
+        while (offset != NO_RECORD) {
+            ByteBuffer record = segmentedFile.record(offset);
+            byte type = record.get();
+            offset = record.getLong();
+            readString(record);
+
+            if (type == TURN) {
+                turns.addFirst(readTurn(record));
+            } else {
+                foldedTurns = record.getInt();
+                summary = readString(record);
+                List<ChatTurn> checkpointTurns = new ArrayList<>();
+                for (int i = record.getInt(); i > 0; i--) {
+                    checkpointTurns.add(readTurn(record));
+                }
+                checkpointTurns.reversed().forEach(turns::addFirst);
+                break;
+            }
+        }
+
+        return new ConversationSnapshot(summary, foldedTurns, List.copyOf(turns));
+    }
+
+    private synchronized void append(String conversationId, byte type, ByteBuffer payload) {
+
+        byte[] id = conversationId.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE + Integer.BYTES + id.length + payload.remaining();
+        if (segmentedFile.offsetOf(length) + length > maxSize) {
+            // a full store is not compacted again until a record was appended
+            if (segmentedFile.writePosition != compactedSize) {
+                compact();
+            }
+            if (segmentedFile.offsetOf(length) + length > maxSize) {
+                throw new IllegalStateException("Chat session store " + file + " is full: the conversations take "
+                        + segmentedFile.writePosition + " of " + maxSize + " bytes even after compaction. Increase "
+                        + "chat-session.file-max-size.");
+            }
+        }
+
+        long offset = segmentedFile.append(type, lastRecordOffsets.getOrDefault(conversationId, NO_RECORD), id,
+                payload);
+        lastRecordOffsets.put(conversationId, offset);
+    }
+
+    /**
+     * Rewrites the current state of every conversation to a new file replacing the store file. The store file is left
+     * untouched if the compaction fails.
+     */
+    private void compact() {
+
+        Path compactedFile = file.resolveSibling(file.getFileName() + ".compacting");
+        long sizeBefore = segmentedFile.writePosition;
+        Map<String, Long> compactedOffsets = new ConcurrentHashMap<>();
+        SegmentedFile compacted = null;
+        try {
+            Files.deleteIfExists(compactedFile);
+            compacted = new SegmentedFile(compactedFile);
+            for (String conversationId : lastRecordOffsets.keySet()) {
+                // the turns are written as separate records, so that each of them fits into a segment again
+                ConversationSnapshot snapshot = read(conversationId);
+                byte[] id = conversationId.getBytes(StandardCharsets.UTF_8);
+                long offset = compacted.append(CHECKPOINT, NO_RECORD, id, encodeCheckpoint(
+                        new ConversationSnapshot(snapshot.summary(), snapshot.foldedTurns(), List.of())));
+                for (ChatTurn turn : snapshot.turns()) {
+                    offset = compacted.append(TURN, offset, id, encodeTurn(turn));
+                }
+                compactedOffsets.put(conversationId, offset);
+            }
+            compacted.force();
+            // the mapped segments keep referring to the moved file
+            Files.move(compactedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(compacted);
+            throw new IllegalStateException("Failed to compact chat session store " + file + ".", e);
+        }
+
+        closeQuietly(segmentedFile);
+        segmentedFile = compacted;
+        lastRecordOffsets = compactedOffsets;
+        compactedSize = compacted.writePosition;
+        log.info("Chat session store {} compacted from {} to {} bytes: {} conversations.", file, sizeBefore,
+                segmentedFile.writePosition, lastRecordOffsets.size());
+    }
+
+    private void recover() {
+
+        for (int segmentIndex = 0; segmentIndex < segmentedFile.segments.size(); segmentIndex++) {
+            ByteBuffer segment = segmentedFile.segments.get(segmentIndex).duplicate();
+            int position = 0;
+            while (position + HEADER_SIZE <= segmentSize) {
+                int length = segment.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+
+                long offset = (long) segmentIndex * segmentSize + position;
+                ByteBuffer record = segmentedFile.record(offset);
+                record.position(record.position() + Byte.BYTES + Long.BYTES);
+                lastRecordOffsets.put(readString(record), offset);
+                segmentedFile.writePosition = offset + length;
+                position += length;
+            }
+        }
+    }
+
+    private static void closeQuietly(SegmentedFile segmentedFile) {
+
+        if (segmentedFile == null) {
+            return;
+        }
+        try {
+            segmentedFile.close();
+        } catch (IOException e) {
+            log.warn("Failed to close chat session store file.", e);
+        }
+    }
+
+    private static ByteBuffer encodeTurn(ChatTurn turn) {
+
+        byte[] userMessage = encodeString(turn.userMessage());
+        byte[] assistantMessage = encodeString(turn.assistantMessage());
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(userMessage) + encodedLength(assistantMessage));
+        putString(buffer, userMessage);
+        putString(buffer, assistantMessage);
+        return buffer.flip();
+    }
+
+    private static ByteBuffer encodeCheckpoint(ConversationSnapshot snapshot) {
+
+        List<ByteBuffer> turns = snapshot.turns().stream()
+                .map(MappedFileChatSessionStore::encodeTurn)
+                .toList();
+        byte[] summary = encodeString(snapshot.summary());
+
+        int size = 2 * Integer.BYTES + encodedLength(summary);
+        for (ByteBuffer turn : turns) {
+            size += turn.remaining();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .putInt(snapshot.foldedTurns());
+        putString(buffer, summary);
+        buffer.putInt(turns.size());
+        turns.forEach(buffer::put);
+        return buffer.flip();
+    }
+
+    /**
+     * @return UTF-8 bytes of the value, {@code null} for {@code null}
+     */
+    private static byte[] encodeString(String value) {
+
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int encodedLength(byte[] value) {
+
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static ChatTurn readTurn(ByteBuffer buffer) {
+
+        return new ChatTurn(readString(buffer), readString(buffer));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private final class AppendingListener implements ConversationListener {
+
+        private final String conversationId;
+
+        private AppendingListener(String conversationId) {
+
+            this.conversationId = conversationId;
+        }
+
+        @Override
+        public void onTurnAdded(ChatTurn turn) {
+
+            append(conversationId, TURN, encodeTurn(turn));
+        }
+
+        @Override
+        public void onFolded(ConversationSnapshot snapshot) {
+
+            append(conversationId, CHECKPOINT, encodeCheckpoint(snapshot));
+        }
+    }
+
+    private static final class Entry {
+
+        private final Conversation conversation;
+        private volatile long lastAccessNanos;
+
+        private Entry(Conversation conversation) {
+
+            this.conversation = conversation;
+        }
+    }
+
+    /**
+     * File mapped in segments of {@link #segmentSize} bytes; a record never spans two segments.
+     */
+    private final class SegmentedFile implements Closeable {
+
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private long writePosition;
+
+        private SegmentedFile(Path path) throws IOException {
+
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long segmentCount = Math.max((channel.size() + segmentSize - 1) / segmentSize, 1);
+            for (int i = 0; i < segmentCount; i++) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize));
+            }
+        }
+
+        /**
+         * Returns the offset a record of the length would be written at.
+         */
+        private long offsetOf(int length) {
+
+            if (length > segmentSize) {
+                throw new IllegalArgumentException(
+                        "Record of " + length + " bytes exceeds the segment size of " + segmentSize + " bytes.");
+            }
+            return writePosition % segmentSize + length > segmentSize
+                    ? (writePosition / segmentSize + 1) * segmentSize
+                    : writePosition;
+        }
+
+        /**
+         * Appends a record, mapping a new segment if needed.
+         *
+         * @return offset of the record
+         */
+        private long append(byte type, long previousOffset, byte[] id, ByteBuffer payload) {
+
+            int length = HEADER_SIZE + Integer.BYTES + id.length + payload.remaining();
+            long offset = offsetOf(length);
+            int segmentIndex = (int) (offset / segmentSize);
+            int position = (int) (offset % segmentSize);
+            if (segmentIndex == segments.size()) {
+                try {
+                    segments.add(channel.map(FileChannel.MapMode.READ_WRITE, offset, segmentSize));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to extend chat session store.", e);
+                }
+            }
+
+            // the length is written last, so a partially written record is never read back
+            ByteBuffer segment = segments.get(segmentIndex).duplicate();
+            segment.position(position + Integer.BYTES);
+            segment.put(type)
+                    .putLong(previousOffset)
+                    .putInt(id.length)
+                    .put(id)
+                    .put(payload);
+            segment.putInt(position, length);
+
+            writePosition = offset + length;
+            return offset;
+        }
+
+        /**
+         * Returns the record at the offset, positioned after the length field.
+         */
+        private ByteBuffer record(long offset) {
+
+            ByteBuffer segment = segments.get((int) (offset / segmentSize)).duplicate();
+            int position = (int) (offset % segmentSize);
+            segment.limit(position + segment.getInt(position));
+            segment.position(position + Integer.BYTES);
+            return segment.slice();
+        }
+
+        private void force() {
+
+            segments.forEach(MappedByteBuffer::force);
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            force();
+            channel.close();
+        }
+    }
+}
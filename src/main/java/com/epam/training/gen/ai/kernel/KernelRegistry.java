@@ -0,0 +1,161 @@
+package com.epam.training.gen.ai.kernel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.microsoft.semantickernel.Kernel;
+import com.microsoft.semantickernel.aiservices.openai.chatcompletion.OpenAIChatCompletion;
+import com.microsoft.semantickernel.plugin.KernelPlugin;
+import com.microsoft.semantickernel.semanticfunctions.KernelFunction;
+import com.microsoft.semantickernel.services.chatcompletion.ChatCompletionService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of kernels and the compiled chat function.
+ * <p>
+ * Plugin sets are registered under a name; a kernel is built once per plugin set and deployment. Kernels of all
+ * configured deployments are built when the application starts, so that no user request pays for it. The chat
+ * prompt template is compiled once and recompiled only when the template resource changes.
+ */
+@Slf4j
+@Component
+public class KernelRegistry {
+
+    private final ModelConfiguration modelConfiguration;
+    private final OpenAIAsyncClient openAIAsyncClient;
+    private final LlmMetrics llmMetrics;
+    private final Resource chatTemplate;
+    private final Map<String, List<KernelPlugin>> pluginSets = new ConcurrentHashMap<>();
+    private final Map<String, Kernel> kernels = new ConcurrentHashMap<>();
+    private final AtomicReference<KernelFunction<String>> chatFunction = new AtomicReference<>();
+    private volatile long chatTemplateLastModified;
+
+    @Autowired
+    public KernelRegistry(ModelConfiguration modelConfiguration, OpenAIAsyncClient openAIAsyncClient,
+            LlmMetrics llmMetrics,
+            @Value("${prompt-template-chat:classpath:prompts/chat.prompt}") Resource chatTemplate) throws IOException {
+
+        this.modelConfiguration = modelConfiguration;
+        this.openAIAsyncClient = openAIAsyncClient;
+        this.llmMetrics = llmMetrics;
+        this.chatTemplate = chatTemplate;
+        compileChatTemplate();
+    }
+
+    /**
+     * Registers a named set of plugins kernels can be built with.
+     *
+     * @param pluginSetName name of the plugin set
+     * @param plugins       plugins of the set
+     */
+    public void registerPluginSet(String pluginSetName, List<KernelPlugin> plugins) {
+
+        pluginSets.put(pluginSetName, List.copyOf(plugins));
+    }
+
+    public List<KernelPlugin> getPlugins(String pluginSetName) {
+
+        List<KernelPlugin> plugins = pluginSets.get(pluginSetName);
+        if (plugins == null) {
+            throw new IllegalArgumentException("Unknown plugin set " + pluginSetName + ".");
+        }
+        return plugins;
+    }
+
+    /**
+     * Gets the kernel with the plugin set for the deployment, building it on first use.
+     * <p>
+     * Kernels record the token usage of their chat completions.
+     *
+     * @param pluginSetName  name of a registered plugin set
+     * @param deploymentName deployment name
+     * @return the kernel
+     */
+    public Kernel getKernel(String pluginSetName, String deploymentName) {
+
+        return kernels.computeIfAbsent(pluginSetName + "_" + deploymentName,
+                key -> buildKernel(getPlugins(pluginSetName), deploymentName));
+    }
+
+    /**
+     * Gets the compiled function rendering the chat history and the user's message.
+     *
+     * @return the chat {@link KernelFunction}
+     */
+    public KernelFunction<String> getChatFunction() {
+
+        return chatFunction.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prebuildKernels() {
+
+        long startNanos = System.nanoTime();
+        Set<String> deploymentNames = modelConfiguration.getDeploymentNames();
+        pluginSets.keySet().forEach(pluginSetName -> deploymentNames.forEach(deploymentName -> {
+            try {
+                getKernel(pluginSetName, deploymentName);
+            } catch (RuntimeException e) {
+                log.warn("Failed to prebuild {} kernel for {} deployment.", pluginSetName, deploymentName, e);
+            }
+        }));
+        log.info("Prebuilt {} kernels in {} ms.", kernels.size(),
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${prompt-template-reload-interval:PT10S}")
+    public void reloadChanged() {
+
+        try {
+            if (chatTemplate.lastModified() != chatTemplateLastModified) {
+                compileChatTemplate();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reload chat prompt template {}, keeping the previous one.", chatTemplate, e);
+        }
+    }
+
+    private void compileChatTemplate() throws IOException {
+
+        long lastModified = chatTemplate.lastModified();
+        String template = StreamUtils.copyToString(chatTemplate.getInputStream(), StandardCharsets.UTF_8);
+        chatFunction.set(KernelFunction.<String>createFromPrompt(template).build());
+        chatTemplateLastModified = lastModified;
+        log.info("Compiled chat prompt template {}.", chatTemplate);
+    }
+
+    private Kernel buildKernel(List<KernelPlugin> plugins, String deploymentName) {
+
+        ChatCompletionService chatCompletionService = OpenAIChatCompletion.builder()
+                .withModelId(deploymentName)
+                .withOpenAIAsyncClient(openAIAsyncClient)
+                .build();
+
+        Kernel.Builder kernelBuilder = Kernel.builder()
+                .withAIService(ChatCompletionService.class, chatCompletionService);
+        plugins.forEach(kernelBuilder::withPlugin);
+
+        Kernel kernel = kernelBuilder.build();
+        kernel.getGlobalKernelHooks().addPostChatCompletionHook(llmMetrics.tokenUsageHook(deploymentName));
+        return kernel;
+    }
+}
@@ -0,0 +1,232 @@
+package com.epam.training.gen.ai.metrics;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.azure.ai.openai.models.CompletionsUsage;
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.microsoft.semantickernel.hooks.PostChatCompletionEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Meters of LLM requests, tool calls, token usage and chat history size.
+ * <p>
+ * Tags have bounded cardinality: deployments which are not configured are reported as {@value #OTHER_DEPLOYMENT},
+ * operations and functions are names defined in code, and outcomes are {@code success}, {@code error} or
+ * {@code cancelled}.
+ */
+@Component
+public class LlmMetrics {
+
+    static final String OTHER_DEPLOYMENT = "other";
+
+    private static final String DEPLOYMENT_TAG = "deployment";
+    private static final String OPERATION_TAG = "operation";
+    private static final String OUTCOME_TAG = "outcome";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> deploymentNames;
+
+    @Autowired
+    public LlmMetrics(MeterRegistry meterRegistry, ModelConfiguration modelConfiguration) {
+
+        this.meterRegistry = meterRegistry;
+        this.deploymentNames = Set.copyOf(modelConfiguration.getDeploymentNames());
+    }
+
+    /**
+     * Times an LLM request and counts it as in flight until it terminates.
+     *
+     * @param deploymentName deployment the request is sent to
+     * @param operation      kind of the request, e.g. the plugin set of the kernel
+     * @return operator to be applied with {@link Mono#transform(Function)}
+     */
+    public <T> Function<Mono<T>, Mono<T>> timeRequest(String deploymentName, String operation) {
+
+        return mono -> Mono.defer(() -> {
+            RequestSample sample = startRequest(deploymentName, operation);
+            return mono.doFinally(sample::stop);
+        });
+    }
+
+    /**
+     * Times a streamed LLM request and its time to the first chunk.
+     *
+     * @param deploymentName deployment the request is sent to
+     * @param operation      kind of the request, e.g. the plugin set of the kernel
+     * @return operator to be applied with {@link Flux#transform(Function)}
+     */
+    public <T> Function<Flux<T>, Flux<T>> timeStream(String deploymentName, String operation) {
+
+        return flux -> Flux.defer(() -> {
+            RequestSample sample = startRequest(deploymentName, operation);
+            Timer.Sample firstChunkSample = Timer.start(meterRegistry);
+            Timer timeToFirstToken = Timer.builder("llm.time.to.first.token")
+                    .description("Time from sending a streamed request to receiving its first chunk")
+                    .tag(DEPLOYMENT_TAG, deploymentTag(deploymentName))
+                    .tag(OPERATION_TAG, operation)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            AtomicBoolean firstChunk = new AtomicBoolean(true);
+            return flux
+                    .doOnNext(chunk -> {
+                        if (firstChunk.compareAndSet(true, false)) {
+                            firstChunkSample.stop(timeToFirstToken);
+                        }
+                    })
+                    .doFinally(sample::stop);
+        });
+    }
+
+    /**
+     * Times a tool call made by the model.
+     *
+     * @param functionName name of the kernel function
+     * @return operator to be applied with {@link Mono#transform(Function)} before errors are turned into answers
+     */
+    public <T> Function<Mono<T>, Mono<T>> timeToolCall(String functionName) {
+
+        return mono -> Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(Timer.builder("llm.tool.calls")
+                    .description("Duration of tool calls made by the model")
+                    .tag("function", functionName)
+                    .tag(OUTCOME_TAG, outcome(signal))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)));
+        });
+    }
+
+    public void recordTokenUsage(String deploymentName, CompletionsUsage usage) {
+
+        if (usage == null) {
+            return;
+        }
+        String deploymentTag = deploymentTag(deploymentName);
+        tokens(deploymentTag, "prompt").record(usage.getPromptTokens());
+        tokens(deploymentTag, "completion").record(usage.getCompletionTokens());
+    }
+
+    /**
+     * Creates a kernel hook recording the token usage of every chat completion made by the kernel, including the
+     * intermediate completions requesting tool calls.
+     *
+     * @param deploymentName deployment of the kernel
+     * @return the hook
+     */
+    public Function<PostChatCompletionEvent, PostChatCompletionEvent> tokenUsageHook(String deploymentName) {
+
+        return event -> {
+            recordTokenUsage(deploymentName, event.getChatCompletions().getUsage());
+            return event;
+        };
+    }
+
+    /**
+     * Records the size of the chat history sent to the model.
+     *
+     * @param deploymentName  deployment the history is sent to
+     * @param verbatimTurns   number of turns sent verbatim
+     * @param estimatedTokens estimated number of tokens of the history including the summary
+     */
+    public void recordHistory(String deploymentName, int verbatimTurns, int estimatedTokens) {
+
+        String deploymentTag = deploymentTag(deploymentName);
+        DistributionSummary.builder("chat.history.turns")
+                .description("Turns of the chat history sent verbatim to the model")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(verbatimTurns);
+        DistributionSummary.builder("chat.history.tokens")
+                .description("Estimated tokens of the chat history sent to the model")
+                .baseUnit("tokens")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(estimatedTokens);
+    }
+
+    /**
+     * Maps the deployment to a tag value of bounded cardinality.
+     *
+     * @param deploymentName deployment name requested by the client
+     * @return the deployment name when it is configured, otherwise {@value #OTHER_DEPLOYMENT}
+     */
+    public String deploymentTag(String deploymentName) {
+
+        return deploymentName != null && deploymentNames.contains(deploymentName) ? deploymentName : OTHER_DEPLOYMENT;
+    }
+
+    private RequestSample startRequest(String deploymentName, String operation) {
+
+        String deploymentTag = deploymentTag(deploymentName);
+        LongTaskTimer.Sample activeSample = LongTaskTimer.builder("llm.requests.active")
+                .description("LLM requests in flight")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .tag(OPERATION_TAG, operation)
+                .register(meterRegistry)
+                .start();
+        return new RequestSample(deploymentTag, operation, Timer.start(meterRegistry), activeSample);
+    }
+
+    private DistributionSummary tokens(String deploymentTag, String type) {
+
+        return DistributionSummary.builder("llm.tokens")
+                .description("Tokens per chat completion")
+                .baseUnit("tokens")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(SignalType signal) {
+
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+
+    private final class RequestSample {
+
+        private final String deploymentTag;
+        private final String operation;
+        private final Timer.Sample sample;
+        private final LongTaskTimer.Sample activeSample;
+
+        private RequestSample(String deploymentTag, String operation, Timer.Sample sample,
+                LongTaskTimer.Sample activeSample) {
+
+            this.deploymentTag = deploymentTag;
+            this.operation = operation;
+            this.sample = sample;
+            this.activeSample = activeSample;
+        }
+
+        private void stop(SignalType signal) {
+
+            activeSample.stop();
+            sample.stop(Timer.builder("llm.requests")
+                    .description("Duration of LLM requests")
+                    .tag(DEPLOYMENT_TAG, deploymentTag)
+                    .tag(OPERATION_TAG, operation)
+                    .tag(OUTCOME_TAG, outcome(signal))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.epam.training.gen.ai.model.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Result of one prompt of a batch; exactly one of {@code answers} and {@code error} is set.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPromptResultDto {
+
+    /**
+     * Zero-based position of the prompt in the batch, {@code null} if the batch itself could not be read.
+     */
+    private Long index;
+
+    private List<String> answers;
+
+    private String error;
+}
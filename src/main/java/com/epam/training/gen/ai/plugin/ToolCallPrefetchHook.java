@@ -0,0 +1,148 @@
+package com.epam.training.gen.ai.plugin;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.azure.ai.openai.models.ChatChoice;
+import com.azure.ai.openai.models.ChatCompletionsFunctionToolCall;
+import com.azure.ai.openai.models.ChatResponseMessage;
+import com.azure.ai.openai.models.FunctionCall;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.semantickernel.hooks.KernelHooks;
+import com.microsoft.semantickernel.hooks.PostChatCompletionEvent;
+import com.microsoft.semantickernel.orchestration.FunctionInvocation;
+import com.microsoft.semantickernel.orchestration.FunctionResult;
+import com.microsoft.semantickernel.orchestration.ToolCallBehavior;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Kernel hook prefetching the data of all tool calls requested by the model in one turn concurrently.
+ * <p>
+ * Semantic Kernel still invokes the functions one after another; the hook only loads their data into the plugin
+ * caches with bounded concurrency and a per-call timeout, so that the invocations get the already loaded (or
+ * in-flight) data. The timeout bounds the prefetch only, a failed or timed out prefetch is ignored and the function
+ * invocation loads the data itself. The hook is added to each invocation, and the prefetches still running when the
+ * invocation completes, fails or is cancelled are disposed. Every tool call is also reported to the
+ * {@link SpeculativeToolPrefetch}, which may have loaded its data already.
+ */
+@Slf4j
+@Component
+public class ToolCallPrefetchHook {
+
+    private final List<ToolCallPrefetcher> prefetchers;
+    private final SpeculativeToolPrefetch speculativeToolPrefetch;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final Duration timeout;
+
+    @Autowired
+    public ToolCallPrefetchHook(List<ToolCallPrefetcher> prefetchers, SpeculativeToolPrefetch speculativeToolPrefetch,
+            ObjectMapper objectMapper, @Value("${tool-calls-parallel:true}") boolean enabled,
+            @Value("${tool-calls-prefetch-max-concurrency:8}") int maxConcurrency,
+            @Value("${tool-calls-prefetch-timeout:PT10S}") Duration timeout) {
+
+        this.prefetchers = prefetchers;
+        this.speculativeToolPrefetch = speculativeToolPrefetch;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Invokes a kernel function with the hook, prefetching the tool calls of each model turn while the invocation
+     * runs.
+     *
+     * @param invocation supplier of the function invocation, called once per subscription
+     * @return result of the invocation
+     */
+    public <T> Mono<FunctionResult<T>> invoke(Supplier<FunctionInvocation<T>> invocation) {
+
+        if (!enabled) {
+            return Mono.defer(invocation);
+        }
+
+        return Mono.deferContextual(context -> {
+            Disposable.Composite prefetches = Disposables.composite();
+            KernelHooks kernelHooks = new KernelHooks();
+            kernelHooks.addPostChatCompletionHook(event -> onChatCompletion(event, context, prefetches));
+            return invocation.get()
+                    .addKernelHooks(kernelHooks)
+                    .doFinally(signal -> prefetches.dispose());
+        });
+    }
+
+    /**
+     * Starts the prefetches of the tool calls of one model turn.
+     *
+     * @param event      chat completion of the turn
+     * @param context    Reactor context of the request
+     * @param prefetches prefetches of the invocation, the started ones are added to it
+     * @return the unchanged event
+     */
+    PostChatCompletionEvent onChatCompletion(PostChatCompletionEvent event, ContextView context,
+            Disposable.Composite prefetches) {
+
+        List<FunctionCall> functionCalls = event.getChatCompletions().getChoices().stream()
+                .map(ChatChoice::getMessage)
+                .filter(Objects::nonNull)
+                .map(ChatResponseMessage::getToolCalls)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(ChatCompletionsFunctionToolCall.class::isInstance)
+                .map(toolCall -> ((ChatCompletionsFunctionToolCall) toolCall).getFunction())
+                .toList();
+        functionCalls.forEach(functionCall -> speculativeToolPrefetch.onToolCall(context,
+                getFunctionName(functionCall), functionCall.getArguments()));
+
+        // a single call is invoked right away, there is nothing to overlap it with
+        if (functionCalls.size() > 1) {
+            long startNanos = System.nanoTime();
+            prefetches.add(Flux.fromIterable(functionCalls)
+                    .flatMap(this::prefetch, maxConcurrency)
+                    .doOnComplete(() -> log.info("Prefetched {} tool calls in {} ms.", functionCalls.size(),
+                            Duration.ofNanos(System.nanoTime() - startNanos).toMillis()))
+                    .contextWrite(context)
+                    .subscribe());
+        }
+
+        return event;
+    }
+
+    private Mono<Void> prefetch(FunctionCall functionCall) {
+
+        String functionName = getFunctionName(functionCall);
+        return Mono.fromCallable(() -> objectMapper.readTree(StringUtils.defaultIfBlank(functionCall.getArguments(),
+                        "{}")))
+                .flatMap(arguments -> Flux.fromIterable(prefetchers)
+                        .flatMap(prefetcher -> prefetcher.prefetch(functionName, arguments))
+                        .then())
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Prefetch of tool call {} failed.", functionCall.getName(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private static String getFunctionName(FunctionCall functionCall) {
+
+        return StringUtils.contains(functionCall.getName(), ToolCallBehavior.FUNCTION_NAME_SEPARATOR)
+                ? StringUtils.substringAfterLast(functionCall.getName(), ToolCallBehavior.FUNCTION_NAME_SEPARATOR)
+                : functionCall.getName();
+    }
+}
@@ -0,0 +1,24 @@
+package com.epam.training.gen.ai.plugin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Plugin able to load data for a tool call before Semantic Kernel invokes the function.
+ * <p>
+ * Semantic Kernel invokes the tool calls of one model turn one after another. Prefetching all of them concurrently
+ * into the plugin caches makes the sequential invocations complete immediately, so a turn takes as long as its
+ * slowest tool call instead of the sum of all of them.
+ */
+public interface ToolCallPrefetcher {
+
+    /**
+     * Loads the data needed by the function call into the plugin cache.
+     *
+     * @param functionName name of the called function
+     * @param arguments    arguments of the call
+     * @return completion of the prefetch, empty if the function is not handled by the plugin
+     */
+    Mono<Void> prefetch(String functionName, JsonNode arguments);
+}
@@ -1,58 +1,183 @@
 package com.epam.training.gen.ai.plugin.currencyExchangeRate;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.ToolCallPrefetcher;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+import com.epam.training.gen.ai.util.AgeFormatter;
+import com.epam.training.gen.ai.util.TokenBudget;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.microsoft.semantickernel.semanticfunctions.annotations.DefineKernelFunction;
 import com.microsoft.semantickernel.semanticfunctions.annotations.KernelFunctionParameter;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
-public class CurrencyExchangeRatePlugin {
+public class CurrencyExchangeRatePlugin implements ToolCallPrefetcher {
+
+    public static final String GET_CURRENCY_RATE_FUNCTION = "getCurrencyRate";
+    public static final String GET_CURRENCY_RATES_FUNCTION = "getCurrencyRates";
+
+    /**
+     * Currency NBP rates are quoted in.
+     */
+    public static final String BASE_CURRENCY = "PLN";
+
+    private static final MathContext CROSS_RATE_PRECISION = new MathContext(6);
 
-    private final NbpClient nbpClient;
+    private final NbpRateStore nbpRateStore;
+    private final ToolOutputProperties toolOutputProperties;
+    private final LlmMetrics llmMetrics;
 
     @Autowired
-    public CurrencyExchangeRatePlugin(NbpClient nbpClient) {
+    public CurrencyExchangeRatePlugin(NbpRateStore nbpRateStore, ToolOutputProperties toolOutputProperties,
+            LlmMetrics llmMetrics) {
 
-        this.nbpClient = nbpClient;
+        this.nbpRateStore = nbpRateStore;
+        this.toolOutputProperties = toolOutputProperties;
+        this.llmMetrics = llmMetrics;
     }
 
-    @DefineKernelFunction(name = "getCurrencyRate",
+    @DefineKernelFunction(name = GET_CURRENCY_RATE_FUNCTION,
             description = "Get last currency rate",
             returnDescription = "The cost of one unit of foreign currency in Polish zloty",
             returnType = "java.lang.String"
     )
-    public String getCurrencyRate(
+    public Mono<String> getCurrencyRate(
             @KernelFunctionParameter(
                     description = "A three-letter code (ISO 4217 standard) of currency whose exchange rate should be find out",
                     name = "currencyCode") String currencyCode) {
 
         log.info("Currency code: {}.", currencyCode);
         if (StringUtils.isBlank(currencyCode)) {
-            return "Exchange rate was not found for currency with code " + currencyCode;
+            return Mono.just("Exchange rate was not found for currency with code " + currencyCode);
+        }
+
+        String errorMsg = "Exchange rate was not found for currency with code " + currencyCode + ".";
+        return nbpRateStore.getTable()
+                .map(rateTable -> {
+                    String code = currencyCode.trim().toUpperCase(Locale.ROOT);
+                    Double rate = rateTable.midRates().get(code);
+                    if (rate == null) {
+                        return errorMsg;
+                    }
+
+                    StringBuilder sb = new StringBuilder("1 ")
+                            .append(code)
+                            .append(" = ")
+                            .append(rate)
+                            .append(" PLN");
+                    appendTableInfo(sb, rateTable);
+                    return TokenBudget.truncate(sb.toString(), toolOutputProperties.getTokenBudget());
+                })
+                .transform(llmMetrics.timeToolCall(GET_CURRENCY_RATE_FUNCTION))
+                .onErrorResume(e -> {
+                    log.error(errorMsg, e);
+                    return Mono.just(errorMsg);
+                });
+    }
+
+    /**
+     * Gets the rates of several currencies from one table lookup, so that a question about several countries takes a
+     * single tool call. Rates in a base currency other than PLN are cross rates computed from the average rates.
+     */
+    @DefineKernelFunction(name = GET_CURRENCY_RATES_FUNCTION,
+            description = "Get last rates of several currencies at once, in Polish zloty or in another base currency",
+            returnDescription = "The cost of one unit of every foreign currency in the base currency",
+            returnType = "java.lang.String"
+    )
+    public Mono<String> getCurrencyRates(
+            @KernelFunctionParameter(
+                    description = "Comma-separated three-letter codes (ISO 4217 standard) of currencies whose exchange rates should be find out",
+                    name = "currencyCodes") String currencyCodes,
+            @KernelFunctionParameter(
+                    description = "A three-letter code (ISO 4217 standard) of currency the rates are expressed in, PLN by default",
+                    name = "baseCurrencyCode", required = false, defaultValue = BASE_CURRENCY)
+            String baseCurrencyCode) {
+
+        log.info("Currency codes: {}, base currency code: {}.", currencyCodes, baseCurrencyCode);
+        String errorMsg = "Exchange rates were not found for currencies with codes " + currencyCodes + ".";
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : StringUtils.split(StringUtils.defaultString(currencyCodes), ",; ")) {
+            codes.add(code.trim().toUpperCase(Locale.ROOT));
         }
+        if (codes.isEmpty()) {
+            return Mono.just(errorMsg);
+        }
+
+        String base = StringUtils.defaultIfBlank(baseCurrencyCode, BASE_CURRENCY).trim().toUpperCase(Locale.ROOT);
+        return nbpRateStore.getTable()
+                .map(rateTable -> {
+                    Double baseRate = getMidRate(rateTable, base);
+                    if (baseRate == null) {
+                        return "Exchange rate was not found for base currency with code " + base + ".";
+                    }
+
+                    StringBuilder sb = new StringBuilder();
+                    for (String code : codes) {
+                        Double rate = getMidRate(rateTable, code);
+                        sb.append(sb.isEmpty() ? "" : "; ");
+                        if (rate == null) {
+                            sb.append(code).append(": not found");
+                        } else {
+                            sb.append("1 ").append(code).append(" = ").append(toBase(rate, baseRate)).append(' ')
+                                    .append(base);
+                        }
+                    }
+                    appendTableInfo(sb, rateTable);
+                    return TokenBudget.truncate(sb.toString(), toolOutputProperties.getTokenBudget());
+                })
+                .transform(llmMetrics.timeToolCall(GET_CURRENCY_RATES_FUNCTION))
+                .onErrorResume(e -> {
+                    log.error(errorMsg, e);
+                    return Mono.just(errorMsg);
+                });
+    }
+
+    @Override
+    public Mono<Void> prefetch(String functionName, JsonNode arguments) {
+
+        return GET_CURRENCY_RATE_FUNCTION.equals(functionName) || GET_CURRENCY_RATES_FUNCTION.equals(functionName)
+                ? nbpRateStore.getTable().then()
+                : Mono.empty();
+    }
+
+    private static Double getMidRate(NbpRateTable rateTable, String code) {
+
+        return BASE_CURRENCY.equals(code) ? Double.valueOf(1) : rateTable.midRates().get(code);
+    }
+
+    /**
+     * Rates in PLN are returned as published, cross rates are rounded to significant digits.
+     */
+    private static String toBase(double rate, double baseRate) {
+
+        return baseRate == 1
+                ? String.valueOf(rate)
+                : BigDecimal.valueOf(rate / baseRate).round(CROSS_RATE_PRECISION).stripTrailingZeros().toPlainString();
+    }
+
+    private static void appendTableInfo(StringBuilder sb, NbpRateTable rateTable) {
 
-        try {
-            CurrencyExchangeRateResponseDto responseDto = nbpClient.getExchangeRate(currencyCode);
-            log.info("NBP REST response: {}", responseDto);
-
-            CurrencyExchangeItemResponseDto rateItem = responseDto.getRates().get(0);
-            return new StringBuilder("1 ")
-                    .append(responseDto.getCode())
-                    .append(" = ")
-                    .append(responseDto.getRates().get(0).getMid())
-                    .append(" PLN (")
-                    .append(rateItem.getEffectiveDate())
-                    .append(")")
-                    .toString();
-        } catch (Exception e) {
-            String errorMsg = "Exchange rate was not found for currency with code " + currencyCode + ".";
-            log.error(errorMsg, e);
-            return errorMsg;
+        sb.append(" (").append(rateTable.effectiveDate());
+        if (rateTable.stale()) {
+            sb.append(", stale, fetched ")
+                    .append(AgeFormatter.format(Duration.between(rateTable.fetchedAt(), Instant.now())))
+                    .append(" ago");
         }
+        sb.append(')');
     }
 }
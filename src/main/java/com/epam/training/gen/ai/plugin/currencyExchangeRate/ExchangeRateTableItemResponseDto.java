@@ -1,7 +1,5 @@
 package com.epam.training.gen.ai.plugin.currencyExchangeRate;
 
-import java.util.List;
-
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -9,10 +7,9 @@ import lombok.ToString;
 @Getter
 @Setter
 @ToString
-public class CurrencyExchangeRateResponseDto {
+public class ExchangeRateTableItemResponseDto {
 
-    private String table;
     private String currency;
     private String code;
-    private List<CurrencyExchangeItemResponseDto> rates;
+    private Double mid;
 }
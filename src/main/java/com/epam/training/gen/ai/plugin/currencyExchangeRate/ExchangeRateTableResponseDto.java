@@ -1,6 +1,7 @@
 package com.epam.training.gen.ai.plugin.currencyExchangeRate;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 
@@ -11,12 +12,13 @@ import lombok.ToString;
 @Getter
 @Setter
 @ToString
-public class CurrencyExchangeItemResponseDto {
+public class ExchangeRateTableResponseDto {
 
+    private String table;
     private String no;
 
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate effectiveDate;
 
-    private Double mid;
+    private List<ExchangeRateTableItemResponseDto> rates;
 }
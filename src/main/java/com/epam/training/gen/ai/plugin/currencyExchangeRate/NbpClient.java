@@ -1,10 +1,15 @@
 package com.epam.training.gen.ai.plugin.currencyExchangeRate;
 
-import java.util.Map;
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.epam.training.gen.ai.plugin.http.CircuitBreaker;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+import com.epam.training.gen.ai.plugin.http.PluginWebClientFactory;
+
+import reactor.core.publisher.Mono;
+
 /**
  * The National Bank of Poland web client.
  *
@@ -13,21 +18,35 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Component
 public class NbpClient {
 
+    static final String UPSTREAM_NAME = "nbp";
+
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+
+    public NbpClient(PluginWebClientFactory webClientFactory, PluginCircuitBreakers circuitBreakers,
+            @Value("${client-nbp-url}") String baseUrl) {
+
+        this.webClient = webClientFactory.create(baseUrl);
+        this.circuitBreaker = circuitBreakers.get(UPSTREAM_NAME);
+    }
 
-    public NbpClient() {
+    public CircuitBreaker getCircuitBreaker() {
 
-        this.webClient = WebClient.builder()
-                .baseUrl("https://api.nbp.pl")
-                .build();
+        return circuitBreaker;
     }
 
-    public CurrencyExchangeRateResponseDto getExchangeRate(String currencyCode) {
+    /**
+     * Gets the current table A of average exchange rates of foreign currencies.
+     *
+     * @return the current exchange rate table; fails fast while the circuit breaker of the upstream is open
+     */
+    public Mono<ExchangeRateTableResponseDto> getExchangeRateTable() {
 
         return webClient.get()
-                .uri("/api/exchangerates/rates/a/{currencyCode}?format=json", Map.of("currencyCode", currencyCode))
+                .uri("/api/exchangerates/tables/a?format=json")
                 .retrieve()
-                .bodyToMono(CurrencyExchangeRateResponseDto.class)
-                .block();
+                .bodyToFlux(ExchangeRateTableResponseDto.class)
+                .next()
+                .transform(circuitBreaker::execute);
     }
 }
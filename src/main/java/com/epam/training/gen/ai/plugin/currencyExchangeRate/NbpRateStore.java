@@ -0,0 +1,143 @@
+package com.epam.training.gen.ai.plugin.currencyExchangeRate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.plugin.http.CircuitBreakerOpenException;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory store of the NBP table A.
+ * <p>
+ * The whole table is loaded with a single request and all rate lookups are answered from memory. NBP publishes
+ * table A once per business day around noon (Warsaw time), so after the publication time the table is refreshed on
+ * every check until its effective date is today. When a refresh fails the previous table keeps being served and is
+ * marked as stale; while the circuit breaker of NBP is open refreshes fail fast, and a refresh runs in the background
+ * once it becomes half-open.
+ */
+@Slf4j
+@Component
+public class NbpRateStore {
+
+    private static final ZoneId NBP_ZONE = ZoneId.of("Europe/Warsaw");
+    private static final LocalTime PUBLICATION_TIME = LocalTime.of(12, 15);
+
+    private final NbpClient nbpClient;
+    private final Clock clock;
+    private final AtomicReference<NbpRateTable> table = new AtomicReference<>();
+    private final AtomicReference<Mono<NbpRateTable>> refreshInProgress = new AtomicReference<>();
+
+    @Autowired
+    public NbpRateStore(NbpClient nbpClient) {
+
+        this(nbpClient, Clock.system(NBP_ZONE));
+    }
+
+    NbpRateStore(NbpClient nbpClient, Clock clock) {
+
+        this.nbpClient = nbpClient;
+        this.clock = clock;
+        nbpClient.getCircuitBreaker().onHalfOpen(this::refreshInBackground);
+    }
+
+    /**
+     * Gets the current table, loading it on first use.
+     *
+     * @return the current (possibly stale) table
+     */
+    public Mono<NbpRateTable> getTable() {
+
+        NbpRateTable current = table.get();
+        return current != null ? Mono.just(current) : refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${client-nbp-refresh-check-interval:PT15M}")
+    public void refreshIfDue() {
+
+        if (isRefreshDue()) {
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * Downloads the table. Concurrent callers share one request.
+     *
+     * @return the refreshed table, or the previous one marked as stale when the download fails
+     */
+    public Mono<NbpRateTable> refresh() {
+
+        Mono<NbpRateTable> inProgress = refreshInProgress.get();
+        if (inProgress != null) {
+            return inProgress;
+        }
+
+        Mono<NbpRateTable> refresh = nbpClient.getExchangeRateTable()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("NBP returned no exchange rate table.")))
+                .map(this::toRateTable)
+                .doOnNext(refreshed -> {
+                    table.set(refreshed);
+                    refreshInProgress.set(null);
+                    log.info("NBP table {} of {} was loaded with {} rates.", refreshed.number(),
+                            refreshed.effectiveDate(), refreshed.midRates().size());
+                })
+                .onErrorResume(e -> {
+                    NbpRateTable previous = table.updateAndGet(current -> current == null ? null : current.markStale());
+                    refreshInProgress.set(null);
+                    if (previous == null) {
+                        return Mono.error(e);
+                    }
+                    if (e instanceof CircuitBreakerOpenException) {
+                        log.debug("NBP is unavailable, serving stale table of {}.", previous.effectiveDate());
+                    } else {
+                        log.warn("NBP table refresh failed, serving stale table of {}.", previous.effectiveDate(), e);
+                    }
+                    return Mono.just(previous);
+                })
+                .doOnCancel(() -> refreshInProgress.set(null))
+                .cache();
+
+        // shares a refresh registered concurrently since the check above, otherwise registers this one
+        return refreshInProgress.updateAndGet(current -> current == null ? refresh : current);
+    }
+
+    private void refreshInBackground() {
+
+        // failures with a previous table to serve are logged by the refresh itself
+        refresh().subscribe(refreshed -> { }, e -> log.warn("NBP table refresh failed, no table to serve yet.", e));
+    }
+
+    private boolean isRefreshDue() {
+
+        NbpRateTable current = table.get();
+        if (current == null || current.stale()) {
+            return true;
+        }
+
+        // NBP may publish late, so a refresh which still returned the previous table is repeated on the next check
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        return current.effectiveDate().isBefore(today)
+                && now.isAfter(today.atTime(PUBLICATION_TIME).atZone(NBP_ZONE));
+    }
+
+    private NbpRateTable toRateTable(ExchangeRateTableResponseDto responseDto) {
+
+        Map<String, Double> midRates = new HashMap<>();
+        responseDto.getRates().forEach(rate -> midRates.put(rate.getCode().toUpperCase(Locale.ROOT), rate.getMid()));
+        return new NbpRateTable(responseDto.getNo(), responseDto.getEffectiveDate(), Map.copyOf(midRates),
+                clock.instant(), false);
+    }
+}
@@ -0,0 +1,23 @@
+package com.epam.training.gen.ai.plugin.currencyExchangeRate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the NBP table A.
+ *
+ * @param number        table number (e.g. 201/A/NBP/2024)
+ * @param effectiveDate publication date of the table
+ * @param midRates      average rates in PLN by ISO 4217 currency code
+ * @param fetchedAt     time the table was downloaded
+ * @param stale         whether the last refresh attempt failed and a newer table may exist
+ */
+public record NbpRateTable(String number, LocalDate effectiveDate, Map<String, Double> midRates, Instant fetchedAt,
+                           boolean stale) {
+
+    public NbpRateTable markStale() {
+
+        return stale ? this : new NbpRateTable(number, effectiveDate, midRates, fetchedAt, true);
+    }
+}
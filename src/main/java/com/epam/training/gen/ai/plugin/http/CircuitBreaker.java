@@ -0,0 +1,214 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Count-based circuit breaker of one upstream.
+ * <p>
+ * Once the failure rate of the latest calls reaches the threshold, the breaker opens and calls fail fast with
+ * {@link CircuitBreakerOpenException}, so that callers can serve their last known good value. After the open
+ * duration the breaker becomes half-open, notifies its listeners, which refresh their data in the background, and
+ * lets a single probe call through: its success closes the breaker, its failure opens it again. Client errors other
+ * than 429 do not count as failures of the upstream.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    private static final String UPSTREAM_TAG = "upstream";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Getter
+    private final String name;
+    private final CircuitBreakerProperties properties;
+    private final boolean[] outcomes;
+    private final List<Runnable> halfOpenListeners = new CopyOnWriteArrayList<>();
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+
+    private State state = State.CLOSED;
+    /**
+     * Incremented on every transition, so that outcomes of calls admitted in a previous state are ignored.
+     */
+    private long generation;
+    private int calls;
+    private int failedCalls;
+    private boolean probeInFlight;
+
+    CircuitBreaker(String name, CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+
+        this.name = name;
+        this.properties = properties;
+        this.outcomes = new boolean[Math.max(properties.getWindowSize(), 1)];
+        Gauge.builder("plugin.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker: 0 closed, 1 open, 2 half-open")
+                .tag(UPSTREAM_TAG, name)
+                .register(meterRegistry);
+        this.successes = calls(meterRegistry, "success");
+        this.failures = calls(meterRegistry, "failure");
+        this.rejections = calls(meterRegistry, "rejected");
+    }
+
+    public synchronized State getState() {
+
+        return state;
+    }
+
+    /**
+     * Registers an action run whenever the breaker becomes half-open, e.g. a background refresh of cached data.
+     */
+    public void onHalfOpen(Runnable listener) {
+
+        halfOpenListeners.add(listener);
+    }
+
+    /**
+     * Guards the call by the breaker.
+     *
+     * @param call upstream call
+     * @return the call, or {@link CircuitBreakerOpenException} without subscribing to it when the breaker is open
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+
+        if (!properties.isEnabled()) {
+            return call;
+        }
+
+        return Mono.defer(() -> {
+            long permit = tryAcquire();
+            if (permit < 0) {
+                rejections.increment();
+                return Mono.error(new CircuitBreakerOpenException(name));
+            }
+            return call
+                    .doOnSuccess(value -> onResult(permit, false))
+                    .doOnError(e -> onResult(permit, isFailure(e)))
+                    .doOnCancel(() -> releaseProbe(permit));
+        });
+    }
+
+    static boolean isFailure(Throwable e) {
+
+        return !(e instanceof WebClientResponseException responseException)
+                || responseException.getStatusCode().is5xxServerError()
+                || responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * @return generation the call is admitted in, or -1 when it is not admitted
+     */
+    private synchronized long tryAcquire() {
+
+        return switch (state) {
+            case CLOSED -> generation;
+            case OPEN -> -1;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield -1;
+                }
+                probeInFlight = true;
+                yield generation;
+            }
+        };
+    }
+
+    private void onResult(long permit, boolean failure) {
+
+        (failure ? failures : successes).increment();
+        synchronized (this) {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                if (failure) {
+                    open();
+                } else {
+                    close();
+                }
+                return;
+            }
+
+            int index = calls % outcomes.length;
+            if (calls >= outcomes.length && outcomes[index]) {
+                failedCalls--;
+            }
+            outcomes[index] = failure;
+            calls++;
+            if (failure) {
+                failedCalls++;
+            }
+            int windowCalls = Math.min(calls, outcomes.length);
+            if (failure && windowCalls >= properties.getMinCalls()
+                    && failedCalls >= properties.getFailureRateThreshold() * windowCalls) {
+                open();
+            }
+        }
+    }
+
+    private synchronized void releaseProbe(long permit) {
+
+        if (permit == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    private void open() {
+
+        long openGeneration = transition(State.OPEN);
+        log.warn("Circuit breaker of {} is open for {}.", name, properties.getOpenDuration());
+        Schedulers.parallel().schedule(() -> halfOpen(openGeneration), properties.getOpenDuration().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void close() {
+
+        transition(State.CLOSED);
+        log.info("Circuit breaker of {} is closed.", name);
+    }
+
+    private void halfOpen(long openGeneration) {
+
+        synchronized (this) {
+            if (openGeneration != generation) {
+                return;
+            }
+            transition(State.HALF_OPEN);
+        }
+        log.info("Circuit breaker of {} is half-open.", name);
+        halfOpenListeners.forEach(Runnable::run);
+    }
+
+    private long transition(State newState) {
+
+        state = newState;
+        calls = 0;
+        failedCalls = 0;
+        probeInFlight = false;
+        return ++generation;
+    }
+
+    private Counter calls(MeterRegistry meterRegistry, String outcome) {
+
+        return Counter.builder("plugin.circuit.calls")
+                .description("Calls of the upstream by outcome; rejected calls were short-circuited by the breaker")
+                .tag(UPSTREAM_TAG, name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of calling an upstream whose circuit breaker is open.
+ */
+@Getter
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private final String upstreamName;
+
+    public CircuitBreakerOpenException(String upstreamName) {
+
+        super("Circuit breaker of " + upstreamName + " is open.");
+        this.upstreamName = upstreamName;
+    }
+}
@@ -0,0 +1,38 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "plugin-http.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Share of failed calls in the window at which the breaker opens.
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * Number of the latest calls the failure rate is computed from.
+     */
+    private int windowSize = 20;
+
+    /**
+     * Minimal number of calls in the window before the breaker may open.
+     */
+    private int minCalls = 5;
+
+    /**
+     * Time the breaker stays open before a probe call is let through.
+     */
+    private Duration openDuration = Duration.ofSeconds(30);
+}
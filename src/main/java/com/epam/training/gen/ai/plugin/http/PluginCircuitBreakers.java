@@ -0,0 +1,33 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breakers of plugin upstreams, one per upstream name.
+ */
+@Component
+public class PluginCircuitBreakers {
+
+    private final CircuitBreakerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PluginCircuitBreakers(CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CircuitBreaker get(String upstreamName) {
+
+        return circuitBreakers.computeIfAbsent(upstreamName,
+                name -> new CircuitBreaker(name, properties, meterRegistry));
+    }
+}
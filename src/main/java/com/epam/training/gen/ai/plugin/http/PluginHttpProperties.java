@@ -0,0 +1,58 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "plugin-http")
+public class PluginHttpProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximal time between sending the request and receiving the response, and between two reads of the response.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    private Duration writeTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximal number of connections per host.
+     */
+    private int maxConnections = 50;
+
+    /**
+     * Maximal time a request waits for a free pooled connection.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Idle connections are closed after this time, before servers usually close them.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Connections are closed after this time so that DNS changes are picked up.
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * Maximal size of a response body; larger responses fail instead of being buffered.
+     */
+    private DataSize maxResponseSize = DataSize.ofMegabytes(2);
+
+    /**
+     * Whether HTTP/2 is negotiated with HTTPS hosts supporting it.
+     */
+    private boolean http2 = true;
+
+    private boolean compression = true;
+}
@@ -0,0 +1,85 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Creates the web clients of plugins on one shared, tuned HTTP client.
+ * <p>
+ * All clients share a connection pool with one pool per host, keep-alive, strict connect, response and write
+ * timeouts, gzip and a response size limit; HTTP/2 is negotiated with HTTPS hosts. Besides
+ * {@code http.client.requests} of the web client, Reactor Netty meters (tagged with the remote address) record the
+ * connection and response times per host and the state of every pool; the URI tag of the latter is left out, since
+ * the former already has it.
+ */
+@Component
+public class PluginWebClientFactory implements DisposableBean {
+
+    private static final String CONNECTION_POOL_NAME = "plugins";
+    private static final String ANY_URI = "*";
+
+    private final WebClient.Builder webClientBuilder;
+    private final PluginHttpProperties properties;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+
+    @Autowired
+    public PluginWebClientFactory(WebClient.Builder webClientBuilder, PluginHttpProperties properties) {
+
+        this.webClientBuilder = webClientBuilder;
+        this.properties = properties;
+        this.connectionProvider = ConnectionProvider.builder(CONNECTION_POOL_NAME)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(properties.getResponseTimeout())
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new WriteTimeoutHandler(properties.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)))
+                .compress(properties.isCompression())
+                .metrics(true, uri -> ANY_URI);
+    }
+
+    /**
+     * Creates a web client of the base URL.
+     *
+     * @param baseUrl base URL of the upstream API
+     * @return the web client
+     */
+    public WebClient create(String baseUrl) {
+
+        HttpClient client = properties.isHttp2() && baseUrl.startsWith("https://")
+                ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                : httpClient;
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) properties.getMaxResponseSize().toBytes()))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,36 @@
+package com.epam.training.gen.ai.plugin.output;
+
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Carries the per-request tool output format through the Reactor context down to plugin functions.
+ */
+@UtilityClass
+public class ToolOutputContext {
+
+    private static final String FORMAT_KEY = ToolOutputContext.class.getName() + ".format";
+
+    /**
+     * Creates a context with the requested format.
+     *
+     * @param format requested format, {@code null} for the configured default
+     * @return context to be written to the request pipeline
+     */
+    public static Context of(ToolOutputFormat format) {
+
+        return format == null ? Context.empty() : Context.of(FORMAT_KEY, format);
+    }
+
+    public static Mono<ToolOutputFormat> currentFormat(ToolOutputProperties properties) {
+
+        return Mono.deferContextual(context -> Mono.just(currentFormat(context, properties)));
+    }
+
+    private static ToolOutputFormat currentFormat(ContextView context, ToolOutputProperties properties) {
+
+        return context.getOrDefault(FORMAT_KEY, properties.getFormat());
+    }
+}
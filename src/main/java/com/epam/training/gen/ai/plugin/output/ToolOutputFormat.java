@@ -0,0 +1,17 @@
+package com.epam.training.gen.ai.plugin.output;
+
+/**
+ * Level of detail of data returned by plugins to the model.
+ */
+public enum ToolOutputFormat {
+
+    /**
+     * Every data point (e.g. hourly temperatures).
+     */
+    HOURLY,
+
+    /**
+     * Data points aggregated per day (min/max/mean).
+     */
+    DAILY
+}
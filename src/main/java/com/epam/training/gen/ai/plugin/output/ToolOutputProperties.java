@@ -0,0 +1,21 @@
+package com.epam.training.gen.ai.plugin.output;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tool-output")
+public class ToolOutputProperties {
+
+    private ToolOutputFormat format = ToolOutputFormat.DAILY;
+
+    /**
+     * Hard limit of the estimated number of prompt tokens a single tool result may take.
+     */
+    private int tokenBudget = 600;
+}
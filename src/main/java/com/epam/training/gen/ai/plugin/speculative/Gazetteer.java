@@ -0,0 +1,120 @@
+package com.epam.training.gen.ai.plugin.speculative;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local gazetteer of countries with the coordinates of their capitals and their ISO 4217 currency codes.
+ * <p>
+ * Countries are found in a text by their names, aliases and capitals, matching whole words case- and
+ * accent-insensitively; the lookup runs in memory in microseconds.
+ */
+@Slf4j
+@Component
+public class Gazetteer {
+
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Place> placesByName = new HashMap<>();
+    private int maxNameWords = 1;
+
+    /**
+     * Country found in a text.
+     *
+     * @param country      name of the country
+     * @param capital      name of its capital
+     * @param latitude     latitude of the capital
+     * @param longitude    longitude of the capital
+     * @param currencyCode ISO 4217 code of the currency of the country
+     */
+    public record Place(String country, String capital, double latitude, double longitude, String currencyCode) {
+    }
+
+    @Autowired
+    public Gazetteer(@Value("${speculative-prefetch.gazetteer:classpath:gazetteer/capitals.csv}") Resource places)
+            throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(places.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line) || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                Place place = new Place(columns[0], columns[1], Double.parseDouble(columns[2]),
+                        Double.parseDouble(columns[3]), columns[4]);
+                addName(columns[0], place);
+                addName(columns[1], place);
+                for (String alias : StringUtils.split(columns[5], '|')) {
+                    addName(alias, place);
+                }
+            }
+        }
+        log.info("Gazetteer loaded with {} names.", placesByName.size());
+    }
+
+    /**
+     * Finds the countries mentioned in the text.
+     *
+     * @param text      user input
+     * @param maxPlaces maximal number of places returned
+     * @return distinct places in the order of their first mention
+     */
+    public List<Place> find(String text, int maxPlaces) {
+
+        if (StringUtils.isBlank(text) || maxPlaces <= 0) {
+            return List.of();
+        }
+
+        String[] words = normalize(text).split(" ");
+        Set<Place> found = new LinkedHashSet<>();
+        for (int start = 0; start < words.length && found.size() < maxPlaces; start++) {
+            // the longest name wins, e.g. "united states of america" over "america"
+            for (int length = Math.min(maxNameWords, words.length - start); length > 0; length--) {
+                Place place = placesByName.get(String.join(" ", List.of(words).subList(start, start + length)));
+                if (place != null) {
+                    found.add(place);
+                    start += length - 1;
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    private void addName(String name, Place place) {
+
+        String normalized = normalize(name);
+        if (!normalized.isEmpty()) {
+            placesByName.putIfAbsent(normalized, place);
+            maxNameWords = Math.max(maxNameWords, normalized.split(" ").length);
+        }
+    }
+
+    private static String normalize(String text) {
+
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_LETTERS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,31 @@
+package com.epam.training.gen.ai.plugin.speculative;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "speculative-prefetch")
+public class SpeculativePrefetchProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximal number of places of one input whose data is prefetched.
+     */
+    private int maxPlaces = 3;
+
+    /**
+     * Maximal difference in degrees between the coordinates of the capital and those of a forecast tool call served
+     * by the prefetched forecast.
+     */
+    private double weatherRadius = 0.3;
+
+    private Duration timeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,275 @@
+package com.epam.training.gen.ai.plugin.speculative;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.CurrencyExchangeRatePlugin;
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.NbpRateStore;
+import com.epam.training.gen.ai.plugin.speculative.Gazetteer.Place;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastCache;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastPlugin;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Speculative prefetch of plugin data while the model handles the first turn.
+ * <p>
+ * The countries mentioned in the input are looked up in the {@link Gazetteer} and the NBP table and the forecasts of
+ * their capitals are loaded concurrently with the completion request, so that the tool calls the model most likely
+ * makes are answered from the plugin caches. The prefetches of a request are kept in its Reactor context, so tool
+ * calls reported by the kernel hook only claim the matching prefetches of their own request; prefetches left
+ * unclaimed when the request completes are counted as wasted, and loads still running then are cancelled.
+ * <p>
+ * The forecasts of uncached locations near a capital warmed for the request are served from the capital's forecast,
+ * since the coordinates the model picks for a city are rarely exactly those used for warming.
+ */
+@Slf4j
+@Component
+public class SpeculativeToolPrefetch {
+
+    private static final String PREFETCHES_CONTEXT_KEY = SpeculativeToolPrefetch.class.getName() + ".prefetches";
+
+    private final Gazetteer gazetteer;
+    private final NbpRateStore nbpRateStore;
+    private final WeatherForecastCache weatherForecastCache;
+    private final SpeculativePrefetchProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SpeculativeToolPrefetch(Gazetteer gazetteer, NbpRateStore nbpRateStore,
+            WeatherForecastCache weatherForecastCache, SpeculativePrefetchProperties properties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+        this.gazetteer = gazetteer;
+        this.nbpRateStore = nbpRateStore;
+        this.weatherForecastCache = weatherForecastCache;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Prefetches the data of the places in the input while the request runs.
+     *
+     * @param input user input
+     * @return operator to be applied with {@link Mono#transform(Function)}
+     */
+    public <T> Function<Mono<T>, Mono<T>> around(String input) {
+
+        if (!properties.isEnabled()) {
+            return Function.identity();
+        }
+
+        return mono -> Mono.defer(() -> {
+            List<Prefetch> prefetches = speculate(input);
+            if (prefetches.isEmpty()) {
+                return mono;
+            }
+
+            Disposable warming = Flux.fromIterable(prefetches)
+                    .flatMap(this::warm)
+                    .subscribe();
+            return mono
+                    .doFinally(signal -> {
+                        warming.dispose();
+                        settle(prefetches);
+                    })
+                    .contextWrite(context -> context.put(PREFETCHES_CONTEXT_KEY, prefetches));
+        });
+    }
+
+    /**
+     * Claims the prefetch of the request matching a tool call requested by the model.
+     *
+     * @param context      Reactor context of the request
+     * @param functionName name of the called function
+     * @param arguments    JSON arguments of the call
+     */
+    public void onToolCall(ContextView context, String functionName, String arguments) {
+
+        List<Prefetch> prefetches = context.getOrDefault(PREFETCHES_CONTEXT_KEY, List.of());
+        if (prefetches.isEmpty()) {
+            return;
+        }
+
+        JsonNode argumentsNode;
+        try {
+            argumentsNode = objectMapper.readTree(StringUtils.defaultIfBlank(arguments, "{}"));
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        prefetches.stream()
+                .filter(prefetch -> prefetch.matches(functionName, argumentsNode, properties.getWeatherRadius()))
+                .filter(Prefetch::claim)
+                .findFirst()
+                .ifPresent(prefetch -> log.debug("Tool call {} was prefetched.", functionName));
+    }
+
+    /**
+     * Moves the uncached locations of a weather forecast call to the nearest capital warmed for the request within
+     * the weather radius.
+     *
+     * @param context    Reactor context of the request
+     * @param latitudes  latitudes of the locations, replaced in place
+     * @param longitudes longitudes of the locations, in the order of the latitudes, replaced in place
+     */
+    public void moveToWarmedLocations(ContextView context, double[] latitudes, double[] longitudes) {
+
+        List<Prefetch> prefetches = context.getOrDefault(PREFETCHES_CONTEXT_KEY, List.of());
+        if (prefetches.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < latitudes.length; i++) {
+            double latitude = latitudes[i];
+            double longitude = longitudes[i];
+            if (weatherForecastCache.isCached(latitude, longitude)) {
+                continue;
+            }
+            int index = i;
+            prefetches.stream()
+                    .filter(prefetch -> prefetch.warmsForecastNear(latitude, longitude, properties.getWeatherRadius()))
+                    .map(prefetch -> prefetch.place)
+                    .filter(place -> weatherForecastCache.isCached(place.latitude(), place.longitude()))
+                    .min(Comparator.comparingDouble(place -> Math.hypot(place.latitude() - latitude,
+                            place.longitude() - longitude)))
+                    .ifPresent(place -> {
+                        latitudes[index] = place.latitude();
+                        longitudes[index] = place.longitude();
+                    });
+        }
+    }
+
+    private List<Prefetch> speculate(String input) {
+
+        List<Place> places = gazetteer.find(input, properties.getMaxPlaces());
+        Set<String> currencyCodes = new HashSet<>();
+        List<Prefetch> prefetches = new ArrayList<>();
+        for (Place place : places) {
+            if (!CurrencyExchangeRatePlugin.BASE_CURRENCY.equals(place.currencyCode())
+                    && currencyCodes.add(place.currencyCode())) {
+                prefetches.add(new Prefetch(CurrencyExchangeRatePlugin.GET_CURRENCY_RATE_FUNCTION, place));
+            }
+            prefetches.add(new Prefetch(WeatherForecastPlugin.GET_WEATHER_FORECAST_FUNCTION, place));
+        }
+        if (!prefetches.isEmpty()) {
+            log.info("Speculatively prefetching data of {}.", places.stream().map(Place::country).toList());
+        }
+        return prefetches;
+    }
+
+    private Mono<Void> warm(Prefetch prefetch) {
+
+        Place place = prefetch.place;
+        Mono<Void> warm = CurrencyExchangeRatePlugin.GET_CURRENCY_RATE_FUNCTION.equals(prefetch.functionName)
+                ? nbpRateStore.getTable().then()
+                : weatherForecastCache.warm(place.latitude(), place.longitude());
+        return warm.timeout(properties.getTimeout())
+                .onErrorResume(e -> {
+                    log.debug("Speculative prefetch of {} for {} failed.", prefetch.functionName, place.country(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private void settle(List<Prefetch> prefetches) {
+
+        for (Prefetch prefetch : prefetches) {
+            boolean used = prefetch.claimed.get();
+            prefetches(prefetch.functionName, used ? "used" : "wasted").increment();
+            if (!used) {
+                log.debug("Speculative prefetch of {} for {} was wasted.", prefetch.functionName,
+                        prefetch.place.country());
+            }
+        }
+    }
+
+    private Counter prefetches(String functionName, String outcome) {
+
+        return Counter.builder("plugin.speculative.prefetches")
+                .description("Speculative tool prefetches by whether the model made the prefetched tool call")
+                .tag("function", functionName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prefetch of one tool call of a request.
+     */
+    private static final class Prefetch {
+
+        private final String functionName;
+        private final Place place;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Prefetch(String functionName, Place place) {
+
+            this.functionName = functionName;
+            this.place = place;
+        }
+
+        boolean matches(String calledFunctionName, JsonNode arguments, double weatherRadius) {
+
+            boolean currencyRate = CurrencyExchangeRatePlugin.GET_CURRENCY_RATE_FUNCTION.equals(functionName);
+            if (currencyRate && CurrencyExchangeRatePlugin.GET_CURRENCY_RATES_FUNCTION.equals(calledFunctionName)) {
+                return StringUtils.containsIgnoreCase(arguments.path("currencyCodes").asText(), place.currencyCode());
+            }
+            if (!currencyRate && WeatherForecastPlugin.GET_WEATHER_FORECASTS_FUNCTION.equals(calledFunctionName)) {
+                double[] latitudes = WeatherForecastPlugin.parseCoordinates(arguments.path("latitudes").asText());
+                double[] longitudes = WeatherForecastPlugin.parseCoordinates(arguments.path("longitudes").asText());
+                if (latitudes == null || longitudes == null) {
+                    return false;
+                }
+                for (int i = 0; i < Math.min(latitudes.length, longitudes.length); i++) {
+                    if (isNear(latitudes[i], longitudes[i], weatherRadius)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (!functionName.equals(calledFunctionName)) {
+                return false;
+            }
+            if (currencyRate) {
+                return place.currencyCode().equalsIgnoreCase(arguments.path("currencyCode").asText().trim());
+            }
+            return arguments.hasNonNull("latitude") && arguments.hasNonNull("longitude")
+                    && isNear(arguments.path("latitude").asDouble(), arguments.path("longitude").asDouble(),
+                            weatherRadius);
+        }
+
+        boolean warmsForecastNear(double latitude, double longitude, double radius) {
+
+            return WeatherForecastPlugin.GET_WEATHER_FORECAST_FUNCTION.equals(functionName)
+                    && isNear(latitude, longitude, radius);
+        }
+
+        private boolean isNear(double latitude, double longitude, double radius) {
+
+            return Math.abs(latitude - place.latitude()) <= radius && Math.abs(longitude - place.longitude()) <= radius;
+        }
+
+        boolean claim() {
+
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
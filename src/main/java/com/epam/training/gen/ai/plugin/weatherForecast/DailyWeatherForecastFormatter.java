@@ -0,0 +1,98 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.Hourly;
+import com.epam.training.gen.ai.util.TokenBudget;
+
+/**
+ * Aggregates hourly temperatures into one min/max/mean entry per day.
+ * <p>
+ * A weekly forecast shrinks from 168 hourly entries to 7 daily ones, which is what most questions ("will it be
+ * warm on Sunday?") need.
+ */
+@Component
+public class DailyWeatherForecastFormatter implements WeatherForecastFormatter {
+
+    @Override
+    public ToolOutputFormat getFormat() {
+
+        return ToolOutputFormat.DAILY;
+    }
+
+    @Override
+    public String format(String city, WeatherForecastResponseDto forecast, int tokenBudget) {
+
+        Hourly hourly = forecast.getHourly();
+        long[] timePoints = hourly.getTime();
+        double[] temperatures = hourly.getTemperature2m();
+        String temperatureSymbol = forecast.getHourlyUnits().getTemperature2m();
+        ZoneId zone = WeatherForecastClient.TIME_ZONE;
+
+        StringBuilder sb = new StringBuilder("City: ")
+                .append(city)
+                .append(StringUtils.SPACE)
+                .append("Current date: ")
+                .append(LocalDate.now(zone))
+                .append(StringUtils.SPACE)
+                .append("Daily temperature (min/max/mean, ")
+                .append(temperatureSymbol)
+                .append("):");
+
+        LocalDate day = null;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < hourly.size(); i++) {
+            LocalDate pointDay = LocalDate.ofInstant(Instant.ofEpochSecond(timePoints[i]), zone);
+            if (!pointDay.equals(day)) {
+                appendDay(sb, day, min, max, sum, count);
+                day = pointDay;
+                min = Double.POSITIVE_INFINITY;
+                max = Double.NEGATIVE_INFINITY;
+                sum = 0;
+                count = 0;
+            }
+
+            double temperature = temperatures[i];
+            if (!Double.isNaN(temperature)) {
+                min = Math.min(min, temperature);
+                max = Math.max(max, temperature);
+                sum += temperature;
+                count++;
+            }
+        }
+        appendDay(sb, day, min, max, sum, count);
+
+        return TokenBudget.truncate(sb.toString(), tokenBudget);
+    }
+
+    private static void appendDay(StringBuilder sb, LocalDate day, double min, double max, double sum, int count) {
+
+        if (day == null || count == 0) {
+            return;
+        }
+
+        sb.append(StringUtils.SPACE)
+                .append(day)
+                .append(": ")
+                .append(round(min))
+                .append("/")
+                .append(round(max))
+                .append("/")
+                .append(round(sum / count))
+                .append(";");
+    }
+
+    private static double round(double value) {
+
+        return Math.round(value * 10) / 10.0;
+    }
+}
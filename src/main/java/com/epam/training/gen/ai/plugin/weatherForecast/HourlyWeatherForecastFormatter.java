@@ -0,0 +1,68 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.Hourly;
+import com.epam.training.gen.ai.util.TokenBudget;
+
+/**
+ * Lists temperature for every forecast hour; stops adding hours once the token budget is reached.
+ */
+@Component
+public class HourlyWeatherForecastFormatter implements WeatherForecastFormatter {
+
+    @Override
+    public ToolOutputFormat getFormat() {
+
+        return ToolOutputFormat.HOURLY;
+    }
+
+    @Override
+    public String format(String city, WeatherForecastResponseDto forecast, int tokenBudget) {
+
+        Hourly hourly = forecast.getHourly();
+        long[] timePoints = hourly.getTime();
+        double[] temperatures = hourly.getTemperature2m();
+        String temperatureSymbol = forecast.getHourlyUnits().getTemperature2m();
+        ZoneRules zoneRules = WeatherForecastClient.TIME_ZONE.getRules();
+        int maxChars = TokenBudget.maxChars(tokenBudget) - TokenBudget.TRUNCATION_MARK.length();
+
+        StringBuilder sb = new StringBuilder("City: ")
+                .append(city)
+                .append(StringUtils.SPACE)
+                .append("Current date: ")
+                .append(LocalDate.now(WeatherForecastClient.TIME_ZONE))
+                .append(StringUtils.SPACE);
+
+        for (int i = 0; i < hourly.size(); i++) {
+            int entryStart = sb.length();
+            long epochSecond = timePoints[i];
+            ZoneOffset offset = zoneRules.getOffset(Instant.ofEpochSecond(epochSecond));
+
+            sb.append("Time: ")
+                    .append(LocalDateTime.ofEpochSecond(epochSecond, 0, offset))
+                    .append(StringUtils.SPACE)
+                    .append("temperature: ")
+                    .append(temperatures[i])
+                    .append(temperatureSymbol)
+                    .append(";")
+                    .append(StringUtils.SPACE);
+
+            if (sb.length() > maxChars) {
+                // the previous entry ends with a space, which the mark starts with
+                sb.setLength(entryStart - 1);
+                return sb.append(TokenBudget.TRUNCATION_MARK).toString();
+            }
+        }
+
+        return sb.toString();
+    }
+}
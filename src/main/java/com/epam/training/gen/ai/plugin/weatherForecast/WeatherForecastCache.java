@@ -0,0 +1,290 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Cache of Open-Meteo forecasts keyed by a quantized grid cell.
+ * <p>
+ * Coordinates produced by the model for the same city differ slightly between calls, so they are snapped to a grid
+ * of {@code client-open-meteo-cache-cell-size} degrees and the forecast of the cell center is requested. Hourly
+ * forecasts change on the hour, therefore entries expire at the next full hour. Concurrent requests for the same
+ * cell share a single upstream call, and the uncached cells of a multi-location request are loaded with one call.
+ * <p>
+ * The last good forecast of every cell is kept for {@code client-open-meteo-cache-stale-max-age} and served, marked as
+ * stale, while Open-Meteo fails or its circuit breaker is open. Once the breaker becomes half-open, the forecast of the
+ * last failed cell is refreshed in the background.
+ */
+@Slf4j
+@Component
+public class WeatherForecastCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "weatherForecast";
+
+    private final WeatherForecastClient weatherForecastClient;
+    private final double cellSize;
+    private final Duration staleMaxAge;
+    private final Clock clock;
+    private final Map<GridCell, CachedForecast> forecasts = new ConcurrentHashMap<>();
+    private final Map<GridCell, WeatherForecastSnapshot> lastGoodForecasts = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private volatile Instant lastReport;
+    private volatile long upstreamCallsAtLastReport;
+    private volatile GridCell lastFailedCell;
+
+    @Autowired
+    public WeatherForecastCache(WeatherForecastClient weatherForecastClient,
+            @Value("${client-open-meteo-cache-cell-size:0.05}") double cellSize,
+            @Value("${client-open-meteo-cache-stale-max-age:PT24H}") Duration staleMaxAge) {
+
+        this(weatherForecastClient, cellSize, staleMaxAge, Clock.systemUTC());
+    }
+
+    WeatherForecastCache(WeatherForecastClient weatherForecastClient, double cellSize, Duration staleMaxAge,
+            Clock clock) {
+
+        this.weatherForecastClient = weatherForecastClient;
+        this.cellSize = cellSize;
+        this.staleMaxAge = staleMaxAge;
+        this.clock = clock;
+        this.lastReport = clock.instant();
+        weatherForecastClient.getCircuitBreaker().onHalfOpen(this::refreshLastFailedCell);
+    }
+
+    public Mono<WeatherForecastSnapshot> getForecast(double latitude, double longitude) {
+
+        requests.incrementAndGet();
+        return lookup(GridCell.of(latitude, longitude, cellSize), true, null);
+    }
+
+    public boolean isCached(double latitude, double longitude) {
+
+        return isCached(GridCell.of(latitude, longitude, cellSize));
+    }
+
+    /**
+     * Gets the forecasts of several locations; the cells not cached yet are loaded with a single upstream call.
+     *
+     * @param latitudes  latitudes of the locations
+     * @param longitudes longitudes of the locations, in the order of the latitudes
+     * @return forecasts in the order of the locations, each one failing on its own
+     */
+    public List<Mono<WeatherForecastSnapshot>> getForecasts(double[] latitudes, double[] longitudes) {
+
+        requests.addAndGet(latitudes.length);
+        List<GridCell> batchCells = new ArrayList<>();
+        // the entries are visible to concurrent requests before all the cells to load are collected, so the call
+        // waits for the complete list of cells
+        Sinks.One<List<GridCell>> collectedCells = Sinks.one();
+        Mono<List<WeatherForecastResponseDto>> batch = collectedCells.asMono()
+                .flatMap(cells -> {
+                    upstreamCalls.incrementAndGet();
+                    double[] batchLatitudes = new double[cells.size()];
+                    double[] batchLongitudes = new double[cells.size()];
+                    for (int i = 0; i < cells.size(); i++) {
+                        batchLatitudes[i] = cells.get(i).latitude(cellSize);
+                        batchLongitudes[i] = cells.get(i).longitude(cellSize);
+                    }
+                    return weatherForecastClient.getWeatherForecasts(batchLatitudes, batchLongitudes);
+                })
+                .cache();
+
+        List<Mono<WeatherForecastSnapshot>> forecastsOfLocations = new ArrayList<>(latitudes.length);
+        try {
+            for (int i = 0; i < latitudes.length; i++) {
+                forecastsOfLocations.add(lookup(GridCell.of(latitudes[i], longitudes[i], cellSize), true, cell -> {
+                    int index = batchCells.size();
+                    batchCells.add(cell);
+                    return batch.mapNotNull(responses -> index < responses.size() ? responses.get(index) : null);
+                }));
+            }
+        } finally {
+            collectedCells.tryEmitValue(List.copyOf(batchCells));
+        }
+        return forecastsOfLocations;
+    }
+
+    /**
+     * Loads the forecast of the location ahead of a likely request for it.
+     *
+     * @param latitude  latitude of the location
+     * @param longitude longitude of the location
+     * @return completion of the load
+     */
+    public Mono<Void> warm(double latitude, double longitude) {
+
+        return lookup(GridCell.of(latitude, longitude, cellSize), false, null).then();
+    }
+
+    public long getRequestCount() {
+
+        return requests.get();
+    }
+
+    public long getHitCount() {
+
+        return hits.get();
+    }
+
+    public long getUpstreamCallCount() {
+
+        return upstreamCalls.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, cache -> cache.getRequestCount() - cache.getHitCount())
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", forecasts, Map::size)
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    /**
+     * Removes expired cells and reports the hit ratio and upstream call rate since the previous report.
+     */
+    @Scheduled(fixedDelayString = "${client-open-meteo-cache-report-interval:PT5M}")
+    public void evictExpiredAndReport() {
+
+        Instant now = clock.instant();
+        forecasts.values().removeIf(cachedForecast -> !cachedForecast.expiresAt().isAfter(now));
+        lastGoodForecasts.values().removeIf(snapshot -> snapshot.fetchedAt().plus(staleMaxAge).isBefore(now));
+
+        long totalRequests = requests.get();
+        long totalUpstreamCalls = upstreamCalls.get();
+        double minutes = Math.max(Duration.between(lastReport, now).toMillis() / 60_000.0, 1e-3);
+        log.info("Weather forecast cache: {} cells, hit ratio {}, upstream calls {} ({} per minute).",
+                forecasts.size(),
+                totalRequests == 0 ? 0 : String.format("%.3f", (double) hits.get() / totalRequests),
+                totalUpstreamCalls,
+                String.format("%.2f", (totalUpstreamCalls - upstreamCallsAtLastReport) / minutes));
+        lastReport = now;
+        upstreamCallsAtLastReport = totalUpstreamCalls;
+    }
+
+    private boolean isCached(GridCell cell) {
+
+        CachedForecast cachedForecast = forecasts.get(cell);
+        return cachedForecast != null && cachedForecast.expiresAt().isAfter(clock.instant());
+    }
+
+    /**
+     * Gets the cached forecast of the cell or creates it.
+     *
+     * @param firstCall creates the first upstream call of a new entry; {@code null} for a single-location call
+     */
+    private Mono<WeatherForecastSnapshot> lookup(GridCell cell, boolean countHit,
+            Function<GridCell, Mono<WeatherForecastResponseDto>> firstCall) {
+
+        Instant now = clock.instant();
+        CachedForecast cachedForecast = forecasts.compute(cell, (key, current) -> {
+            if (current != null && current.expiresAt().isAfter(now)) {
+                if (countHit) {
+                    hits.incrementAndGet();
+                }
+                return current;
+            }
+            Instant expiresAt = now.truncatedTo(ChronoUnit.HOURS).plus(Duration.ofHours(1));
+            return new CachedForecast(fetch(key, Duration.between(now, expiresAt),
+                    firstCall == null ? null : firstCall.apply(key)), expiresAt);
+        });
+        return cachedForecast.forecast();
+    }
+
+    /**
+     * Creates a shared upstream call; failures and stale fallbacks are not cached so the next request for the cell
+     * retries with a single-location call.
+     */
+    private Mono<WeatherForecastSnapshot> fetch(GridCell cell, Duration ttl,
+            Mono<WeatherForecastResponseDto> firstCall) {
+
+        AtomicReference<Mono<WeatherForecastResponseDto>> pendingFirstCall = new AtomicReference<>(firstCall);
+        return Mono.defer(() -> {
+                    Mono<WeatherForecastResponseDto> call = pendingFirstCall.getAndSet(null);
+                    if (call != null) {
+                        return call;
+                    }
+                    upstreamCalls.incrementAndGet();
+                    return weatherForecastClient.getWeatherForecast(cell.latitude(cellSize), cell.longitude(cellSize));
+                })
+                .map(forecast -> new WeatherForecastSnapshot(forecast, clock.instant(), false))
+                .doOnNext(snapshot -> lastGoodForecasts.put(cell, snapshot))
+                .onErrorResume(e -> {
+                    lastFailedCell = cell;
+                    WeatherForecastSnapshot lastGood = lastGoodForecasts.get(cell);
+                    if (lastGood == null) {
+                        return Mono.error(e);
+                    }
+                    log.debug("Open-Meteo forecast of {} failed, serving forecast fetched at {}.", cell,
+                            lastGood.fetchedAt(), e);
+                    return Mono.just(lastGood.markStale());
+                })
+                .cache(snapshot -> snapshot.stale() ? Duration.ZERO : ttl, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private void refreshLastFailedCell() {
+
+        GridCell cell = lastFailedCell;
+        if (cell != null) {
+            lookup(cell, false, null).subscribe(snapshot -> { }, e -> { });
+        }
+    }
+
+    /**
+     * Cell of the quantized latitude/longitude grid.
+     */
+    record GridCell(long latitudeIndex, long longitudeIndex) {
+
+        static GridCell of(double latitude, double longitude, double cellSize) {
+
+            return new GridCell(Math.round(latitude / cellSize), Math.round(longitude / cellSize));
+        }
+
+        double latitude(double cellSize) {
+
+            return round(latitudeIndex * cellSize);
+        }
+
+        double longitude(double cellSize) {
+
+            return round(longitudeIndex * cellSize);
+        }
+
+        private static double round(double coordinate) {
+
+            return Math.round(coordinate * 10_000) / 10_000.0;
+        }
+    }
+
+    private record CachedForecast(Mono<WeatherForecastSnapshot> forecast, Instant expiresAt) {
+    }
+}
@@ -1,7 +1,20 @@
 package com.epam.training.gen.ai.plugin.weatherForecast;
 
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+
+import com.epam.training.gen.ai.plugin.http.CircuitBreaker;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+import com.epam.training.gen.ai.plugin.http.PluginWebClientFactory;
+
+import reactor.core.publisher.Mono;
 
 /**
  * Weather forecast web client.
@@ -11,28 +24,73 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Component
 public class WeatherForecastClient {
 
+    /**
+     * Time zone the forecast is requested in and rendered for.
+     */
+    static final ZoneId TIME_ZONE = ZoneId.of("CET");
+
+    static final String UPSTREAM_NAME = "open-meteo";
+
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
 
-    public WeatherForecastClient() {
+    public WeatherForecastClient(PluginWebClientFactory webClientFactory, PluginCircuitBreakers circuitBreakers,
+            @Value("${client-open-meteo-url}") String baseUrl) {
 
-        this.webClient = WebClient.builder()
-                .baseUrl("https://api.open-meteo.com")
-                .build();
+        this.webClient = webClientFactory.create(baseUrl);
+        this.circuitBreaker = circuitBreakers.get(UPSTREAM_NAME);
     }
 
-    public WeatherForecastResponseDto getWeatherForecast(Double latitude, Double longitude) {
+    public CircuitBreaker getCircuitBreaker() {
+
+        return circuitBreaker;
+    }
+
+    public Mono<WeatherForecastResponseDto> getWeatherForecast(Double latitude, Double longitude) {
 
         return webClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/v1/forecast")
-                        .queryParam("latitude", latitude)
-                        .queryParam("longitude", longitude)
-                        .queryParam("hourly", "temperature_2m")
-                        .queryParam("format", "json")
-                        .queryParam("timeformat", "unixtime")
-                        .queryParam("timezone", "CET")
-                        .build())
+                .uri(uriBuilder -> forecastUri(uriBuilder, latitude, longitude))
                 .retrieve()
                 .bodyToMono(WeatherForecastResponseDto.class)
-                .block();
+                .transform(circuitBreaker::execute);
+    }
+
+    /**
+     * Gets the forecasts of several locations with one request.
+     *
+     * @param latitudes  latitudes of the locations
+     * @param longitudes longitudes of the locations, in the order of the latitudes
+     * @return forecasts in the order of the locations
+     */
+    public Mono<List<WeatherForecastResponseDto>> getWeatherForecasts(double[] latitudes, double[] longitudes) {
+
+        return webClient.get()
+                .uri(uriBuilder -> forecastUri(uriBuilder, join(latitudes), join(longitudes)))
+                .retrieve()
+                // several locations are returned as an array, decoded element by element
+                .bodyToFlux(WeatherForecastResponseDto.class)
+                .collectList()
+                .transform(circuitBreaker::execute);
+    }
+
+    private static URI forecastUri(UriBuilder uriBuilder, Object latitude, Object longitude) {
+
+        return uriBuilder.path("/v1/forecast")
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("hourly", "temperature_2m")
+                .queryParam("format", "json")
+                .queryParam("timeformat", "unixtime")
+                .queryParam("timezone", TIME_ZONE.getId())
+                .build();
+    }
+
+    private static String join(double[] coordinates) {
+
+        StringJoiner joiner = new StringJoiner(",");
+        for (double coordinate : coordinates) {
+            joiner.add(String.valueOf(coordinate));
+        }
+        return joiner.toString();
     }
 }
@@ -0,0 +1,135 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.Hourly;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.HourlyUnits;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Streaming deserializer of Open-Meteo forecast responses.
+ * <p>
+ * Reads the token stream directly into primitive arrays without materializing boxed lists or a JSON tree. Unknown
+ * fields are skipped, {@code null} objects and arrays are read as missing ones.
+ */
+public class WeatherForecastDeserializer extends StdDeserializer<WeatherForecastResponseDto> {
+
+    private static final int INITIAL_CAPACITY = 192;
+
+    public WeatherForecastDeserializer() {
+
+        super(WeatherForecastResponseDto.class);
+    }
+
+    @Override
+    public WeatherForecastResponseDto deserialize(JsonParser parser, DeserializationContext context)
+            throws IOException {
+
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT, context);
+        WeatherForecastResponseDto responseDto = new WeatherForecastResponseDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (fieldName) {
+                case "latitude" -> responseDto.setLatitude(parser.getValueAsDouble());
+                case "longitude" -> responseDto.setLongitude(parser.getValueAsDouble());
+                case "generationtime_ms" -> responseDto.setGenerationtimeMs(parser.getValueAsDouble());
+                case "utc_offset_seconds" -> responseDto.setUtcOffsetSeconds(parser.getValueAsInt());
+                case "timezone" -> responseDto.setTimezone(parser.getValueAsString());
+                case "timezone_abbreviation" -> responseDto.setTimezoneAbbreviation(parser.getValueAsString());
+                case "elevation" -> responseDto.setElevation(parser.getValueAsDouble());
+                case "hourly_units" -> responseDto.setHourlyUnits(readHourlyUnits(parser, valueToken, context));
+                case "hourly" -> responseDto.setHourly(readHourly(parser, valueToken, context));
+                default -> parser.skipChildren();
+            }
+        }
+        return responseDto;
+    }
+
+    private HourlyUnits readHourlyUnits(JsonParser parser, JsonToken token, DeserializationContext context)
+            throws IOException {
+
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, token, JsonToken.START_OBJECT, context);
+        HourlyUnits hourlyUnits = new HourlyUnits();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "time" -> hourlyUnits.setTime(parser.getValueAsString());
+                case "temperature_2m" -> hourlyUnits.setTemperature2m(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return hourlyUnits;
+    }
+
+    private Hourly readHourly(JsonParser parser, JsonToken token, DeserializationContext context) throws IOException {
+
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, token, JsonToken.START_OBJECT, context);
+        Hourly hourly = new Hourly();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (fieldName) {
+                case "time" -> hourly.setTime(readLongs(parser, valueToken, context));
+                case "temperature_2m" -> hourly.setTemperature2m(readDoubles(parser, valueToken, context));
+                default -> parser.skipChildren();
+            }
+        }
+        return hourly;
+    }
+
+    private long[] readLongs(JsonParser parser, JsonToken token, DeserializationContext context) throws IOException {
+
+        if (token == JsonToken.VALUE_NULL) {
+            return new long[0];
+        }
+        expect(parser, token, JsonToken.START_ARRAY, context);
+        long[] values = new long[INITIAL_CAPACITY];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = parser.getValueAsLong();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private double[] readDoubles(JsonParser parser, JsonToken token, DeserializationContext context)
+            throws IOException {
+
+        if (token == JsonToken.VALUE_NULL) {
+            return new double[0];
+        }
+        expect(parser, token, JsonToken.START_ARRAY, context);
+        double[] values = new double[INITIAL_CAPACITY];
+        int size = 0;
+        JsonToken valueToken;
+        while ((valueToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = valueToken == JsonToken.VALUE_NULL ? Double.NaN : parser.getValueAsDouble();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private void expect(JsonParser parser, JsonToken actual, JsonToken expected, DeserializationContext context)
+            throws IOException {
+
+        if (actual != expected) {
+            context.reportWrongTokenException(this, expected, "Unexpected token in Open-Meteo response.");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+
+/**
+ * Renders a forecast as text returned to the model.
+ */
+public interface WeatherForecastFormatter {
+
+    ToolOutputFormat getFormat();
+
+    /**
+     * Formats the forecast within the token budget.
+     *
+     * @param city        name of the city
+     * @param forecast    forecast with at least one hourly point
+     * @param tokenBudget maximal estimated number of prompt tokens of the result
+     * @return forecast text
+     */
+    String format(String city, WeatherForecastResponseDto forecast, int tokenBudget);
+}
@@ -1,41 +1,79 @@
 package com.epam.training.gen.ai.plugin.weatherForecast;
 
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.util.CollectionUtils;
 
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.ToolCallPrefetcher;
+import com.epam.training.gen.ai.plugin.output.ToolOutputContext;
+import com.epam.training.gen.ai.plugin.output.ToolOutputFormat;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
 import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.Hourly;
+import com.epam.training.gen.ai.util.AgeFormatter;
+import com.epam.training.gen.ai.util.PayloadLogSampler;
+import com.epam.training.gen.ai.util.TokenBudget;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.microsoft.semantickernel.semanticfunctions.annotations.DefineKernelFunction;
 import com.microsoft.semantickernel.semanticfunctions.annotations.KernelFunctionParameter;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
-public class WeatherForecastPlugin {
+public class WeatherForecastPlugin implements ToolCallPrefetcher {
 
-    private final WeatherForecastClient weatherForecastClient;
+    public static final String GET_WEATHER_FORECAST_FUNCTION = "getWeatherForecast";
+    public static final String GET_WEATHER_FORECASTS_FUNCTION = "getWeatherForecasts";
 
-    @Autowired
-    public WeatherForecastPlugin(WeatherForecastClient weatherForecastClient) {
+    private final WeatherForecastCache weatherForecastCache;
+    private final SpeculativeToolPrefetch speculativeToolPrefetch;
+    private final PayloadLogSampler responseLogSampler;
+    private final ToolOutputProperties toolOutputProperties;
+    private final LlmMetrics llmMetrics;
+    private final Map<ToolOutputFormat, WeatherForecastFormatter> formatters = new EnumMap<>(ToolOutputFormat.class);
+    private final int maxLocations;
 
-        this.weatherForecastClient = weatherForecastClient;
+    @Autowired
+    public WeatherForecastPlugin(WeatherForecastCache weatherForecastCache,
+            SpeculativeToolPrefetch speculativeToolPrefetch, ToolOutputProperties toolOutputProperties,
+            List<WeatherForecastFormatter> formatters, LlmMetrics llmMetrics,
+            @Value("${client-open-meteo-log-sample-every:20}") int logSampleEvery,
+            @Value("${client-open-meteo-log-max-length:1000}") int logMaxLength,
+            @Value("${client-open-meteo-max-locations:10}") int maxLocations) {
+
+        this.weatherForecastCache = weatherForecastCache;
+        this.speculativeToolPrefetch = speculativeToolPrefetch;
+        this.responseLogSampler = new PayloadLogSampler(log, logSampleEvery, logMaxLength);
+        this.toolOutputProperties = toolOutputProperties;
+        this.llmMetrics = llmMetrics;
+        this.maxLocations = maxLocations;
+        formatters.forEach(formatter -> this.formatters.put(formatter.getFormat(), formatter));
+        for (ToolOutputFormat format : ToolOutputFormat.values()) {
+            if (!this.formatters.containsKey(format)) {
+                throw new IllegalStateException("No weather forecast formatter for " + format + " format.");
+            }
+        }
     }
 
-    @DefineKernelFunction(name = "getWeatherForecast",
+    @DefineKernelFunction(name = GET_WEATHER_FORECAST_FUNCTION,
             description = "Get weather forecast by city's geographical latitude and longitude. Use country's capital geographical coordinates if city's name is not specified",
-            returnDescription = "Air temperature at certain points in time",
+            returnDescription = "Air temperature at certain points in time or aggregated per day (min/max/mean)",
             returnType = "java.lang.String"
     )
-    public String getWeatherForecast(
+    public Mono<String> getWeatherForecast(
             @KernelFunctionParameter(description = "Name of the city",
                     name = "city") String city,
             @KernelFunctionParameter(description = "City's latitude in decimal format. Geographical WGS84 coordinates of the location are used.",
@@ -45,50 +83,173 @@ public class WeatherForecastPlugin {
 
         log.info("City: {}, latitude: {}, longitude: {}.", city, latitude, longitude);
         if (latitude == null || longitude == null) {
-            return MessageFormat.format("Weather forecast was not found for {0} with latitude: {1} and longitude: {2}.",
-                    city, latitude, longitude);
+            return Mono.just(MessageFormat.format(
+                    "Weather forecast was not found for {0} with latitude: {1} and longitude: {2}.",
+                    city, latitude, longitude));
+        }
+
+        return ToolOutputContext.currentFormat(toolOutputProperties)
+                .zipWith(getForecast(latitude, longitude))
+                .map(formatAndForecast -> format(city, formatAndForecast.getT2(), formatAndForecast.getT1(),
+                        toolOutputProperties.getTokenBudget()))
+                .transform(llmMetrics.timeToolCall(GET_WEATHER_FORECAST_FUNCTION))
+                .onErrorResume(e -> {
+                    String errorMsg = MessageFormat.format(
+                            "Weather forecast was not found for {0} with latitude: {1} and longitude: {2}.",
+                            city, latitude, longitude);
+                    log.error(errorMsg, e);
+                    return Mono.just(errorMsg);
+                });
+    }
+
+    /**
+     * Gets the forecasts of several cities with one Open-Meteo request for the ones not cached yet. Every city gets
+     * an equal share of the token budget.
+     */
+    @DefineKernelFunction(name = GET_WEATHER_FORECASTS_FUNCTION,
+            description = "Get weather forecasts of several cities at once by their geographical latitudes and longitudes. Use it instead of several getWeatherForecast calls",
+            returnDescription = "Compact forecast of every city, one per line",
+            returnType = "java.lang.String"
+    )
+    public Mono<String> getWeatherForecasts(
+            @KernelFunctionParameter(description = "Semicolon-separated names of the cities",
+                    name = "cities") String cities,
+            @KernelFunctionParameter(description = "Comma-separated latitudes of the cities in decimal format, in the order of the cities",
+                    name = "latitudes") String latitudes,
+            @KernelFunctionParameter(description = "Comma-separated longitudes of the cities in decimal format, in the order of the cities",
+                    name = "longitudes") String longitudes) {
+
+        log.info("Cities: {}, latitudes: {}, longitudes: {}.", cities, latitudes, longitudes);
+        double[] cityLatitudes = parseCoordinates(latitudes);
+        double[] cityLongitudes = parseCoordinates(longitudes);
+        String[] cityNames = splitCities(cities, cityLatitudes == null ? 0 : cityLatitudes.length);
+        if (cityNames.length == 0 || cityLatitudes == null || cityLongitudes == null
+                || cityLatitudes.length != cityNames.length || cityLongitudes.length != cityNames.length) {
+            return Mono.just(MessageFormat.format(
+                    "Weather forecasts were not found for {0} with latitudes: {1} and longitudes: {2}. Give one "
+                            + "latitude and one longitude per city.", cities, latitudes, longitudes));
+        }
+        if (cityNames.length > maxLocations) {
+            return Mono.just("At most " + maxLocations + " cities can be requested at once.");
+        }
+
+        int tokenBudget = toolOutputProperties.getTokenBudget() / cityNames.length;
+        return getForecasts(cityLatitudes, cityLongitudes)
+                .zipWith(ToolOutputContext.currentFormat(toolOutputProperties))
+                .flatMap(forecastsAndFormat -> Flux.range(0, cityNames.length)
+                        .flatMapSequential(i -> {
+                            String city = cityNames[i].trim();
+                            return forecastsAndFormat.getT1().get(i)
+                                    .map(snapshot -> format(city, snapshot, forecastsAndFormat.getT2(), tokenBudget))
+                                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("No results.")))
+                                    .onErrorResume(e -> {
+                                        log.warn("Weather forecast was not found for {}.", city, e);
+                                        return Mono.just("Weather forecast was not found for " + city + ".");
+                                    });
+                        })
+                        .collect(Collectors.joining("\n")))
+                .transform(llmMetrics.timeToolCall(GET_WEATHER_FORECASTS_FUNCTION));
+    }
+
+    @Override
+    public Mono<Void> prefetch(String functionName, JsonNode arguments) {
+
+        if (GET_WEATHER_FORECASTS_FUNCTION.equals(functionName)) {
+            double[] latitudes = parseCoordinates(arguments.path("latitudes").asText());
+            double[] longitudes = parseCoordinates(arguments.path("longitudes").asText());
+            // the call itself is rejected beyond the location limit, so there is nothing to load for it
+            return latitudes == null || longitudes == null || latitudes.length != longitudes.length
+                    || latitudes.length > maxLocations
+                    ? Mono.empty()
+                    : getForecasts(latitudes, longitudes).flatMapMany(Flux::merge).then();
+        }
+        if (!GET_WEATHER_FORECAST_FUNCTION.equals(functionName)
+                || !arguments.hasNonNull("latitude") || !arguments.hasNonNull("longitude")) {
+            return Mono.empty();
+        }
+
+        return getForecast(arguments.get("latitude").asDouble(), arguments.get("longitude").asDouble()).then();
+    }
+
+    /**
+     * Gets the forecast, served from the capital warmed for the request when the location is not cached.
+     */
+    private Mono<WeatherForecastSnapshot> getForecast(double latitude, double longitude) {
+
+        return Mono.deferContextual(context -> {
+            double[] latitudes = {latitude};
+            double[] longitudes = {longitude};
+            speculativeToolPrefetch.moveToWarmedLocations(context, latitudes, longitudes);
+            return weatherForecastCache.getForecast(latitudes[0], longitudes[0]);
+        });
+    }
+
+    private Mono<List<Mono<WeatherForecastSnapshot>>> getForecasts(double[] latitudes, double[] longitudes) {
+
+        return Mono.deferContextual(context -> {
+            double[] forecastLatitudes = latitudes.clone();
+            double[] forecastLongitudes = longitudes.clone();
+            speculativeToolPrefetch.moveToWarmedLocations(context, forecastLatitudes, forecastLongitudes);
+            return Mono.just(weatherForecastCache.getForecasts(forecastLatitudes, forecastLongitudes));
+        });
+    }
+
+    /**
+     * Splits the city names on semicolons, since a name may contain commas (e.g. "Washington, D.C."). Names
+     * separated by commas are accepted as well when that matches the number of coordinates.
+     */
+    static String[] splitCities(String cities, int coordinateCount) {
+
+        String[] cityNames = StringUtils.split(StringUtils.defaultString(cities), ';');
+        if (cityNames.length != coordinateCount) {
+            String[] commaSeparated = StringUtils.split(StringUtils.defaultString(cities), ',');
+            if (commaSeparated.length == coordinateCount) {
+                return commaSeparated;
+            }
         }
+        return cityNames;
+    }
+
+    /**
+     * Parses comma-separated coordinates.
+     *
+     * @return the coordinates, {@code null} when one of them is not a number
+     */
+    public static double[] parseCoordinates(String coordinates) {
 
+        String[] values = StringUtils.split(StringUtils.defaultString(coordinates), ',');
+        double[] parsed = new double[values.length];
         try {
-            WeatherForecastResponseDto responseDto = weatherForecastClient.getWeatherForecast(latitude, longitude);
-            log.info("Open-meteo REST response: {}", responseDto);
-
-            Hourly hourly = responseDto.getHourly();
-            if (!CollectionUtils.isEmpty(hourly.getTime())) {
-                List<Long> timePoints = hourly.getTime();
-                List<Double> temperatures = hourly.getTemperature2m();
-                String temperatureSymbol = responseDto.getHourlyUnits().getTemperature2m();
-                StringBuilder sb = new StringBuilder("City: ")
-                        .append(city)
-                        .append(StringUtils.SPACE)
-                        .append("Current date: ")
-                        .append(LocalDate.now())
-                        .append(StringUtils.SPACE);
-
-                for (int i = 0; i < timePoints.size(); i++) {
-                    Instant instant = Instant.ofEpochSecond(timePoints.get(i));
-                    LocalDateTime localDateTime = instant.atZone(ZoneId.of("CET")).toLocalDateTime();
-
-                    sb.append("Time: ")
-                            .append(localDateTime)
-                            .append(StringUtils.SPACE)
-                            .append("temperature: ")
-                            .append(temperatures.get(i))
-                            .append(temperatureSymbol)
-                            .append(";")
-                            .append(StringUtils.SPACE);
-                }
-
-                return sb.toString();
+            for (int i = 0; i < values.length; i++) {
+                parsed[i] = Double.parseDouble(values[i].trim());
             }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return parsed;
+    }
+
+    private String format(String city, WeatherForecastSnapshot snapshot, ToolOutputFormat format, int tokenBudget) {
 
+        WeatherForecastResponseDto responseDto = snapshot.forecast();
+        responseLogSampler.log("Open-meteo REST response: {}", responseDto::toString);
+
+        Hourly hourly = responseDto.getHourly();
+        if (hourly == null || hourly.size() == 0) {
             throw new IllegalStateException("No results.");
-        } catch (Exception e) {
-            String errorMsg = MessageFormat.format(
-                    "Weather forecast was not found for {0} with latitude: {1} and longitude: {2}.",
-                    city, latitude, longitude);
-            log.error(errorMsg, e);
-            return errorMsg;
         }
+
+        String staleNote = snapshot.stale() ? staleNote(snapshot) : "";
+        String output = formatters.get(format).format(city, responseDto,
+                tokenBudget - TokenBudget.estimateTokens(staleNote)) + staleNote;
+        log.debug("Weather forecast output: format: {}, points: {}, chars: {}, estimated tokens: {}.",
+                format, hourly.size(), output.length(), TokenBudget.estimateTokens(output));
+        return output;
+    }
+
+    private static String staleNote(WeatherForecastSnapshot snapshot) {
+
+        return "\n(Open-Meteo is unavailable, the forecast was fetched "
+                + AgeFormatter.format(Duration.between(snapshot.fetchedAt(), Instant.now())) + " ago.)";
     }
 }
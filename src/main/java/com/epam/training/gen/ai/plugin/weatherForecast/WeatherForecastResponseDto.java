@@ -1,34 +1,36 @@
 package com.epam.training.gen.ai.plugin.weatherForecast;
 
-import java.util.List;
-
-import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import lombok.Data;
-
+import lombok.ToString;
+
+/**
+ * Open-Meteo forecast response.
+ * <p>
+ * Hourly values are stored column-wise in primitive arrays and filled by {@link WeatherForecastDeserializer}, so a
+ * weekly forecast takes two arrays instead of ~340 boxed values.
+ */
 @Data
+@JsonDeserialize(using = WeatherForecastDeserializer.class)
 public class WeatherForecastResponseDto {
 
     private double latitude;
 
     private double longitude;
 
-    @JsonAlias("generationtime_ms")
     private double generationtimeMs;
 
-    @JsonAlias("utc_offset_seconds")
     private int utcOffsetSeconds;
 
     private String timezone;
 
-    @JsonAlias("timezone_abbreviation")
     private String timezoneAbbreviation;
 
     private double elevation;
 
-    @JsonAlias("hourly_units")
-
     private HourlyUnits hourlyUnits;
+
     private Hourly hourly;
 
     @Data
@@ -36,16 +38,28 @@ public class WeatherForecastResponseDto {
 
         private String time;
 
-        @JsonAlias("temperature_2m")
         private String temperature2m;
     }
 
     @Data
     public static class Hourly {
 
-        private List<Long> time;
+        /**
+         * Time points in epoch seconds.
+         */
+        @ToString.Exclude
+        private long[] time = new long[0];
+
+        /**
+         * Temperatures at the corresponding time points; missing values are {@link Double#NaN}.
+         */
+        @ToString.Exclude
+        private double[] temperature2m = new double[0];
+
+        @ToString.Include(name = "points")
+        public int size() {
 
-        @JsonAlias("temperature_2m")
-        private List<Double> temperature2m;
+            return Math.min(time.length, temperature2m.length);
+        }
     }
-}
\ No newline at end of file
+}
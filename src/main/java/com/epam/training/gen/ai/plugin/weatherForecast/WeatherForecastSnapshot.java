@@ -0,0 +1,18 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import java.time.Instant;
+
+/**
+ * Forecast served by the cache.
+ *
+ * @param forecast  Open-Meteo response
+ * @param fetchedAt time the forecast was downloaded
+ * @param stale     whether Open-Meteo is unavailable and an outdated forecast is served instead
+ */
+public record WeatherForecastSnapshot(WeatherForecastResponseDto forecast, Instant fetchedAt, boolean stale) {
+
+    public WeatherForecastSnapshot markStale() {
+
+        return stale ? this : new WeatherForecastSnapshot(forecast, fetchedAt, true);
+    }
+}
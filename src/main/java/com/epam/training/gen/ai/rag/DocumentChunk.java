@@ -0,0 +1,26 @@
+package com.epam.training.gen.ai.rag;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Chunk of an ingested document.
+ *
+ * @param source      path of the document relative to the documents directory
+ * @param fingerprint fingerprint of the document content the chunk was cut from
+ * @param index       zero-based position of the chunk in the document
+ * @param text        text of the chunk
+ * @param last        whether it is the last chunk of the document
+ */
+public record DocumentChunk(String source, String fingerprint, int index, String text, boolean last) {
+
+    /**
+     * Gets the point id of the chunk; it is stable, so that re-ingesting a document overwrites its chunks.
+     *
+     * @return name-based UUID of the source and index
+     */
+    public UUID id() {
+
+        return UUID.nameUUIDFromBytes((source + "#" + index).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,233 @@
+package com.epam.training.gen.ai.rag;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.epam.training.gen.ai.config.rag.RagProperties;
+import com.epam.training.gen.ai.service.EmbeddingService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Ingests the documents of {@code rag.documents-path} into the {@link DocumentStore}.
+ * <p>
+ * The pipeline reads documents → cuts them into chunks → embeds batches of chunks → upserts batches of embedded
+ * chunks. Every stage runs with bounded concurrency and requests only as many items as it can process, so documents
+ * are streamed and at most a few batches of chunks are held in memory. Batches may span documents; the stages keep
+ * the order of chunks, so a document is recorded in the {@link IngestionManifest} once its last chunk is stored.
+ * Documents are fingerprinted by their content, the embedding model and the chunking settings: unchanged ones are
+ * skipped, changed ones are replaced, and the chunks of removed ones are deleted.
+ */
+@Slf4j
+@Service
+public class DocumentIngestionService {
+
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final RagProperties properties;
+    private final DocumentStore documentStore;
+    private final IngestionManifest manifest;
+    private final EmbeddingService embeddingService;
+    private final TextChunker chunker;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public DocumentIngestionService(RagProperties properties, DocumentStore documentStore, IngestionManifest manifest,
+            EmbeddingService embeddingService) {
+
+        this.properties = properties;
+        this.documentStore = documentStore;
+        this.manifest = manifest;
+        this.embeddingService = embeddingService;
+        this.chunker = new TextChunker(properties.getChunkSize(), properties.getChunkOverlap());
+    }
+
+    /**
+     * Ingests the new and changed documents and removes the chunks of deleted ones.
+     * <p>
+     * A failed run can be repeated; it resumes with the documents that were not completely stored.
+     *
+     * @return report of the run, or {@link IngestionInProgressException} if another run has not finished yet
+     */
+    public Mono<IngestionReport> ingest() {
+
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IngestionInProgressException());
+            }
+
+            long startNanos = System.nanoTime();
+            Path root = Path.of(properties.getDocumentsPath());
+            Run run = new Run();
+            return listDocuments(root)
+                    .flatMapSequential(file -> readDocument(root, file, run), properties.getFileConcurrency(),
+                            properties.getEmbeddingBatchSize())
+                    .buffer(properties.getEmbeddingBatchSize())
+                    .flatMapSequential(this::embed, properties.getEmbeddingConcurrency(), 1)
+                    .flatMapIterable(Function.identity())
+                    .buffer(properties.getUpsertBatchSize())
+                    .flatMapSequential(this::upsert, properties.getUpsertConcurrency(), 1)
+                    .flatMapIterable(Function.identity())
+                    .doOnNext(chunk -> {
+                        run.chunks.incrementAndGet();
+                        if (chunk.last()) {
+                            complete(chunk.source(), chunk.fingerprint(), run);
+                        }
+                    })
+                    .then(Mono.defer(() -> removeMissing(run)))
+                    .then(Mono.fromSupplier(() -> run.toReport(startNanos)))
+                    .doOnNext(report -> log.info("Ingested documents of {}: {}.", root, report))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private Flux<Path> listDocuments(Path root) {
+
+        if (!Files.isDirectory(root)) {
+            return Flux.error(new IllegalStateException("Documents directory " + root + " does not exist."));
+        }
+
+        return Flux.using(() -> Files.walk(root), Flux::fromStream, Stream::close)
+                .filter(Files::isRegularFile)
+                .filter(file -> properties.getFileExtensions().contains(
+                        StringUtils.substringAfterLast(file.getFileName().toString(), ".").toLowerCase(Locale.ROOT)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Flux<DocumentChunk> readDocument(Path root, Path file, Run run) {
+
+        String source = StringUtils.replaceChars(root.relativize(file).toString(), '\\', '/');
+        run.sources.add(source);
+        return Mono.fromCallable(() -> fingerprint(file))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(fingerprint -> {
+                    if (manifest.contains(source, fingerprint)) {
+                        run.unchanged.incrementAndGet();
+                        return Flux.empty();
+                    }
+
+                    log.debug("Ingesting document {}.", source);
+                    // chunks of a previous version may outnumber the new ones, so they are not just overwritten
+                    return documentStore.deleteSource(source)
+                            .thenMany(chunker.chunk(() -> new BufferedReader(
+                                            new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)))
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .index()
+                            // a one-chunk look-ahead tells the last chunk of the document
+                            .buffer(2, 1)
+                            .map(window -> new DocumentChunk(source, fingerprint, window.get(0).getT1().intValue(),
+                                    window.get(0).getT2(), window.size() == 1))
+                            .switchIfEmpty(Mono.fromRunnable(() -> complete(source, fingerprint, run)));
+                });
+    }
+
+    private Mono<List<EmbeddedChunk>> embed(List<DocumentChunk> chunks) {
+
+        return embeddingService.embed(chunks.stream().map(DocumentChunk::text).toList())
+                .retryWhen(Retry.backoff(properties.getMaxRetries(), RETRY_BACKOFF))
+                .map(vectors -> {
+                    List<EmbeddedChunk> embeddedChunks = new ArrayList<>(chunks.size());
+                    for (int i = 0; i < chunks.size(); i++) {
+                        embeddedChunks.add(new EmbeddedChunk(chunks.get(i), vectors.get(i)));
+                    }
+                    return embeddedChunks;
+                });
+    }
+
+    private Mono<List<DocumentChunk>> upsert(List<EmbeddedChunk> embeddedChunks) {
+
+        List<DocumentChunk> chunks = embeddedChunks.stream().map(EmbeddedChunk::chunk).toList();
+        List<float[]> vectors = embeddedChunks.stream().map(EmbeddedChunk::vector).toList();
+        return Mono.defer(() -> documentStore.upsert(chunks, vectors))
+                .retryWhen(Retry.backoff(properties.getMaxRetries(), RETRY_BACKOFF))
+                .thenReturn(chunks);
+    }
+
+    private void complete(String source, String fingerprint, Run run) {
+
+        manifest.record(source, fingerprint);
+        run.ingested.incrementAndGet();
+        log.debug("Document {} was ingested.", source);
+    }
+
+    private Mono<Void> removeMissing(Run run) {
+
+        return Flux.fromIterable(manifest.getSources())
+                .filter(source -> !run.sources.contains(source))
+                .concatMap(source -> documentStore.deleteSource(source)
+                        .then(Mono.fromRunnable(() -> {
+                            manifest.remove(source);
+                            run.removed.incrementAndGet();
+                            log.debug("Document {} was removed.", source);
+                        })))
+                .then();
+    }
+
+    /**
+     * Hashes the settings the chunks depend on and the content, reading the file in blocks.
+     */
+    private String fingerprint(Path file) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((embeddingService.getModelName() + "|" + properties.getChunkSize() + "|"
+                + properties.getChunkOverlap() + "|").getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private record EmbeddedChunk(DocumentChunk chunk, float[] vector) {
+    }
+
+    private static final class Run {
+
+        private final Set<String> sources = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger ingested = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private final AtomicInteger removed = new AtomicInteger();
+        private final AtomicLong chunks = new AtomicLong();
+
+        IngestionReport toReport(long startNanos) {
+
+            return new IngestionReport(ingested.get(), unchanged.get(), removed.get(), chunks.get(),
+                    Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.epam.training.gen.ai.rag;
+
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.rag.RagProperties;
+import com.epam.training.gen.ai.service.EmbeddingService;
+import com.epam.training.gen.ai.util.TokenBudget;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Retrieves the ingested chunks relevant to the user's input for the prompt.
+ * <p>
+ * The input is embedded and the {@code rag.top-k} most similar chunks with at least {@code rag.min-score} similarity
+ * are rendered into a context of at most {@code rag.context-token-budget} tokens. Failures and timeouts of the
+ * embedding model or the store never fail the request, the prompt is sent without documents instead.
+ */
+@Slf4j
+@Component
+public class DocumentRetriever {
+
+    private static final String CONTEXT_HEADER = "Answer using the following document excerpts when they are relevant "
+            + "to the user's question, and name the documents you used.";
+
+    private final RagProperties properties;
+    private final DocumentStore documentStore;
+    private final EmbeddingService embeddingService;
+
+    @Autowired
+    public DocumentRetriever(RagProperties properties, DocumentStore documentStore,
+            EmbeddingService embeddingService) {
+
+        this.properties = properties;
+        this.documentStore = documentStore;
+        this.embeddingService = embeddingService;
+    }
+
+    /**
+     * Gets the context of the input.
+     *
+     * @param input user input
+     * @return the excerpts relevant to the input, empty string if retrieval is disabled or nothing is relevant
+     */
+    public Mono<String> retrieveContext(String input) {
+
+        if (!properties.isEnabled() || StringUtils.isBlank(input)) {
+            return Mono.just(StringUtils.EMPTY);
+        }
+
+        return embeddingService.embed(input)
+                .flatMap(vector -> documentStore.search(vector, properties.getTopK(), properties.getMinScore()))
+                .map(this::render)
+                .timeout(properties.getTimeout())
+                .onErrorResume(e -> {
+                    log.warn("Document retrieval failed, the prompt is sent without documents.", e);
+                    return Mono.just(StringUtils.EMPTY);
+                });
+    }
+
+    private String render(List<RetrievedChunk> chunks) {
+
+        if (chunks.isEmpty()) {
+            return StringUtils.EMPTY;
+        }
+
+        int remainingChars = TokenBudget.maxChars(properties.getContextTokenBudget()) - CONTEXT_HEADER.length();
+        StringBuilder context = new StringBuilder(CONTEXT_HEADER);
+        for (RetrievedChunk chunk : chunks) {
+            String excerpt = "\n\n[" + chunk.source() + "]\n" + chunk.text();
+            if (excerpt.length() > remainingChars) {
+                break;
+            }
+            context.append(excerpt);
+            remainingChars -= excerpt.length();
+        }
+        log.debug("Retrieved {} chunks, {} characters of context.", chunks.size(), context.length());
+        return context.length() == CONTEXT_HEADER.length() ? StringUtils.EMPTY : context.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.epam.training.gen.ai.rag;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Vector store of document chunks.
+ */
+public interface DocumentStore {
+
+    /**
+     * Inserts or replaces a batch of chunks.
+     *
+     * @param chunks  chunks
+     * @param vectors embeddings of the chunks, in the same order
+     * @return completion signal
+     */
+    Mono<Void> upsert(List<DocumentChunk> chunks, List<float[]> vectors);
+
+    /**
+     * Deletes all chunks of a document.
+     *
+     * @param source path of the document
+     * @return completion signal
+     */
+    Mono<Void> deleteSource(String source);
+
+    /**
+     * Finds the chunks most similar to the query.
+     *
+     * @param vector   query embedding
+     * @param limit    maximal number of chunks
+     * @param minScore minimal cosine similarity
+     * @return chunks by descending similarity, empty when nothing was ingested yet
+     */
+    Mono<List<RetrievedChunk>> search(float[] vector, int limit, double minScore);
+}
@@ -0,0 +1,62 @@
+package com.epam.training.gen.ai.rag;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.epam.training.gen.ai.util.VectorUtils;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory {@link DocumentStore} doing a linear cosine-similarity scan.
+ * <p>
+ * Intended for local runs and tests; chunks are lost on restart, so the ingestion manifest is not persisted with it.
+ */
+public class InMemoryDocumentStore implements DocumentStore {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> upsert(List<DocumentChunk> chunks, List<float[]> vectors) {
+
+        return Mono.fromRunnable(() -> {
+            for (int i = 0; i < chunks.size(); i++) {
+                DocumentChunk chunk = chunks.get(i);
+                entries.put(chunk.id(), new Entry(chunk.source(), chunk.text(),
+                        VectorUtils.normalize(vectors.get(i))));
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteSource(String source) {
+
+        return Mono.fromRunnable(() -> entries.values().removeIf(entry -> entry.source().equals(source)));
+    }
+
+    @Override
+    public Mono<List<RetrievedChunk>> search(float[] vector, int limit, double minScore) {
+
+        return Mono.fromSupplier(() -> {
+            float[] normalized = VectorUtils.normalize(vector);
+            return entries.values().stream()
+                    .map(entry -> new RetrievedChunk(entry.source(), entry.text(),
+                            VectorUtils.dot(normalized, entry.vector())))
+                    .filter(chunk -> chunk.score() >= minScore)
+                    .sorted(Comparator.comparingDouble(RetrievedChunk::score).reversed())
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    public int size() {
+
+        return entries.size();
+    }
+
+    private record Entry(String source, String text, float[] vector) {
+    }
+}
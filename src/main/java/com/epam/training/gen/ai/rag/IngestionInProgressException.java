@@ -0,0 +1,12 @@
+package com.epam.training.gen.ai.rag;
+
+/**
+ * Thrown when an ingestion is requested while another one is running.
+ */
+public class IngestionInProgressException extends RuntimeException {
+
+    public IngestionInProgressException() {
+
+        super("Document ingestion is already running.");
+    }
+}
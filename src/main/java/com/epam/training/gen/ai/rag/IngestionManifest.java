@@ -0,0 +1,115 @@
+package com.epam.training.gen.ai.rag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fingerprints of the documents whose chunks are all in the {@link DocumentStore}.
+ * <p>
+ * A document is recorded only after its last chunk was stored, so an interrupted ingestion resumes with the
+ * documents it did not complete, and documents whose fingerprint did not change are skipped. The manifest is an
+ * append-only log of {@code fingerprint<TAB>source} lines ({@code -} as the fingerprint of a removed document),
+ * compacted when it is opened; without a file it is kept in memory only.
+ */
+@Slf4j
+public class IngestionManifest {
+
+    private static final String REMOVED = "-";
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the manifest, creating the file if it does not exist.
+     *
+     * @param file manifest file, {@code null} for an in-memory manifest
+     * @throws IOException if the file cannot be read or compacted
+     */
+    public IngestionManifest(Path file) throws IOException {
+
+        this.file = file;
+        if (file == null) {
+            return;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    apply(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        }
+        compact();
+        log.info("Ingestion manifest {} opened with {} documents.", file, fingerprints.size());
+    }
+
+    public boolean contains(String source, String fingerprint) {
+
+        return fingerprint.equals(fingerprints.get(source));
+    }
+
+    public Set<String> getSources() {
+
+        return Set.copyOf(fingerprints.keySet());
+    }
+
+    public void record(String source, String fingerprint) {
+
+        append(source, fingerprint);
+    }
+
+    public void remove(String source) {
+
+        append(source, REMOVED);
+    }
+
+    private synchronized void append(String source, String fingerprint) {
+
+        apply(source, fingerprint);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.writeString(file, fingerprint + SEPARATOR + source + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update ingestion manifest " + file + ".", e);
+        }
+    }
+
+    private void apply(String source, String fingerprint) {
+
+        if (REMOVED.equals(fingerprint)) {
+            fingerprints.remove(source);
+        } else {
+            fingerprints.put(source, fingerprint);
+        }
+    }
+
+    private void compact() throws IOException {
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        List<String> lines = fingerprints.entrySet().stream()
+                .map(entry -> entry.getValue() + SEPARATOR + entry.getKey())
+                .toList();
+        Files.write(compacted, lines, StandardCharsets.UTF_8);
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,14 @@
+package com.epam.training.gen.ai.rag;
+
+/**
+ * Outcome of an ingestion run.
+ *
+ * @param ingestedDocuments  new or changed documents that were chunked and stored
+ * @param unchangedDocuments documents skipped because their fingerprint did not change
+ * @param removedDocuments   documents no longer present whose chunks were deleted
+ * @param chunks             stored chunks
+ * @param durationMillis     duration of the run
+ */
+public record IngestionReport(int ingestedDocuments, int unchangedDocuments, int removedDocuments, long chunks,
+        long durationMillis) {
+}
@@ -0,0 +1,141 @@
+package com.epam.training.gen.ai.rag;
+
+import static io.qdrant.client.ConditionFactory.matchKeyword;
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static io.qdrant.client.VectorsFactory.vectors;
+import static io.qdrant.client.WithPayloadSelectorFactory.enable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.epam.training.gen.ai.util.FutureUtils;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.PayloadSchemaType;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.Filter;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Qdrant backed {@link DocumentStore}.
+ * <p>
+ * Chunks are kept in one cosine collection, created with a keyword index of the source on the first upsert. Every
+ * batch is written by a single gRPC upsert request.
+ */
+@Slf4j
+public class QdrantDocumentStore implements DocumentStore {
+
+    private static final String SOURCE_PAYLOAD = "source";
+    private static final String INDEX_PAYLOAD = "index";
+    private static final String TEXT_PAYLOAD = "text";
+
+    private final QdrantClient qdrantClient;
+    private final String collectionName;
+    private final AtomicReference<Mono<Void>> collection = new AtomicReference<>();
+
+    public QdrantDocumentStore(QdrantClient qdrantClient, String collectionName) {
+
+        this.qdrantClient = qdrantClient;
+        this.collectionName = collectionName;
+    }
+
+    @Override
+    public Mono<Void> upsert(List<DocumentChunk> chunks, List<float[]> vectors) {
+
+        List<PointStruct> points = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunk chunk = chunks.get(i);
+            points.add(PointStruct.newBuilder()
+                    .setId(id(chunk.id()))
+                    .setVectors(vectors(vectors.get(i)))
+                    .putPayload(SOURCE_PAYLOAD, value(chunk.source()))
+                    .putPayload(INDEX_PAYLOAD, value(chunk.index()))
+                    .putPayload(TEXT_PAYLOAD, value(chunk.text()))
+                    .build());
+        }
+
+        return ensureCollection(vectors.get(0).length)
+                .then(FutureUtils.toMono(() -> qdrantClient.upsertAsync(collectionName, points)))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteSource(String source) {
+
+        Filter sourceFilter = Filter.newBuilder()
+                .addMust(matchKeyword(SOURCE_PAYLOAD, source))
+                .build();
+        return FutureUtils.toMono(() -> qdrantClient.deleteAsync(collectionName, sourceFilter))
+                .then()
+                .onErrorResume(QdrantDocumentStore::isCollectionMissing, e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<List<RetrievedChunk>> search(float[] vector, int limit, double minScore) {
+
+        List<Float> query = new ArrayList<>(vector.length);
+        for (float component : vector) {
+            query.add(component);
+        }
+        SearchPoints searchPoints = SearchPoints.newBuilder()
+                .setCollectionName(collectionName)
+                .addAllVector(query)
+                .setScoreThreshold((float) minScore)
+                .setLimit(limit)
+                .setWithPayload(enable(true))
+                .build();
+
+        return FutureUtils.toMono(() -> qdrantClient.searchAsync(searchPoints))
+                .map(points -> points.stream().map(QdrantDocumentStore::toChunk).toList())
+                .onErrorResume(QdrantDocumentStore::isCollectionMissing, e -> Mono.just(List.of()));
+    }
+
+    private Mono<Void> ensureCollection(int vectorSize) {
+
+        Mono<Void> ensured = FutureUtils.toMono(() -> qdrantClient.collectionExistsAsync(collectionName))
+                .flatMap(exists -> exists ? Mono.<Void>empty() : createCollection(vectorSize))
+                .doOnError(e -> collection.set(null))
+                .cache();
+        return collection.compareAndSet(null, ensured) ? ensured : collection.get();
+    }
+
+    private Mono<Void> createCollection(int vectorSize) {
+
+        VectorParams vectorParams = VectorParams.newBuilder()
+                .setDistance(Distance.Cosine)
+                .setSize(vectorSize)
+                .build();
+        return FutureUtils.toMono(() -> qdrantClient.createCollectionAsync(collectionName, vectorParams))
+                .then(FutureUtils.toMono(() -> qdrantClient.createPayloadIndexAsync(collectionName, SOURCE_PAYLOAD,
+                        PayloadSchemaType.Keyword, null, true, null, null)))
+                .doOnNext(result -> log.info("Qdrant collection {} was created.", collectionName))
+                .then();
+    }
+
+    private static boolean isCollectionMissing(Throwable e) {
+
+        return e instanceof StatusRuntimeException statusException
+                && statusException.getStatus().getCode() == Status.Code.NOT_FOUND;
+    }
+
+    private static RetrievedChunk toChunk(ScoredPoint point) {
+
+        return new RetrievedChunk(getString(point, SOURCE_PAYLOAD), getString(point, TEXT_PAYLOAD), point.getScore());
+    }
+
+    private static String getString(ScoredPoint point, String key) {
+
+        Value value = point.getPayloadMap().get(key);
+        return value == null ? "" : value.getStringValue();
+    }
+}
@@ -0,0 +1,11 @@
+package com.epam.training.gen.ai.rag;
+
+/**
+ * Chunk found by a similarity search.
+ *
+ * @param source path of the document
+ * @param text   text of the chunk
+ * @param score  cosine similarity to the query
+ */
+public record RetrievedChunk(String source, String text, double score) {
+}
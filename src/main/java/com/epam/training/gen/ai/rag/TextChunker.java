@@ -0,0 +1,144 @@
+package com.epam.training.gen.ai.rag;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang3.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Cuts text into overlapping chunks while reading it.
+ * <p>
+ * At most one chunk of the text is held in memory. Chunks end at the last paragraph break, line break or whitespace
+ * of their second half, so that words are not cut; the next chunk repeats the last {@code overlap} characters.
+ */
+@Slf4j
+public class TextChunker {
+
+    private final int chunkSize;
+    private final int overlap;
+
+    public TextChunker(int chunkSize, int overlap) {
+
+        if (chunkSize <= 0 || overlap < 0 || overlap >= chunkSize / 2) {
+            throw new IllegalArgumentException("Chunk overlap must be less than half of the chunk size.");
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * Reads the text lazily, a chunk per request of the subscriber.
+     *
+     * @param readerSupplier opens the text; the reader is closed when the {@link Flux} terminates or is cancelled
+     * @return non-blank chunks
+     */
+    public Flux<String> chunk(Callable<Reader> readerSupplier) {
+
+        return Flux.generate(() -> new Window(readerSupplier.call()),
+                (window, sink) -> {
+                    try {
+                        String chunk = window.next();
+                        if (chunk == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(chunk);
+                        }
+                    } catch (IOException e) {
+                        sink.error(new UncheckedIOException(e));
+                    }
+                    return window;
+                },
+                Window::close);
+    }
+
+    private final class Window {
+
+        private final Reader reader;
+        private final StringBuilder text = new StringBuilder();
+        private final char[] buffer = new char[Math.min(chunkSize, 8192)];
+        private boolean endOfInput;
+        /**
+         * Length of the text repeated from the previous chunk.
+         */
+        private int repeated;
+
+        private Window(Reader reader) {
+
+            this.reader = reader;
+        }
+
+        /**
+         * @return next non-blank chunk, {@code null} at the end of the text
+         */
+        String next() throws IOException {
+
+            while (true) {
+                fill();
+                if (endOfInput && text.length() <= repeated) {
+                    return null;
+                }
+
+                String chunk;
+                if (endOfInput) {
+                    chunk = text.toString();
+                    text.setLength(0);
+                    repeated = 0;
+                } else {
+                    int end = findEnd();
+                    chunk = text.substring(0, end);
+                    text.delete(0, end - overlap);
+                    repeated = overlap;
+                }
+                if (StringUtils.isNotBlank(chunk)) {
+                    return chunk.strip();
+                }
+            }
+        }
+
+        private void fill() throws IOException {
+
+            while (!endOfInput && text.length() < chunkSize) {
+                int read = reader.read(buffer, 0, Math.min(buffer.length, chunkSize - text.length()));
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    text.append(buffer, 0, read);
+                }
+            }
+        }
+
+        private int findEnd() {
+
+            int end = Math.min(chunkSize, text.length());
+            int minEnd = chunkSize / 2;
+            int paragraph = text.lastIndexOf("\n\n", end - 2);
+            if (paragraph >= minEnd) {
+                return paragraph + 2;
+            }
+            int line = text.lastIndexOf("\n", end - 1);
+            if (line >= minEnd) {
+                return line + 1;
+            }
+            for (int i = end - 1; i >= minEnd; i--) {
+                if (Character.isWhitespace(text.charAt(i))) {
+                    return i + 1;
+                }
+            }
+            return end;
+        }
+
+        void close() {
+
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.debug("Failed to close document reader.", e);
+            }
+        }
+    }
+}
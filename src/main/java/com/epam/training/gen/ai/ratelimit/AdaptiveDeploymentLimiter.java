@@ -0,0 +1,301 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpResponse;
+import com.epam.training.gen.ai.config.ratelimit.AdmissionProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Admission control of one deployment.
+ * <p>
+ * Combines an AIMD concurrency limit with a tokens-per-minute bucket. The limit grows by one for every limit-worth of
+ * successful requests and is multiplied by the backoff ratio when the deployment answers 429 or a request is slower
+ * than the latency threshold, at most once per round trip. Requests over the limit or the token budget wait in a
+ * FIFO queue bounded in size and waiting time; no thread is blocked while waiting. A 429 response pauses admission
+ * for the time given by its {@code Retry-After} header.
+ */
+public class AdaptiveDeploymentLimiter {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final HttpHeaderName RETRY_AFTER_MS = HttpHeaderName.fromString("retry-after-ms");
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final String deploymentName;
+    private final AdmissionProperties properties;
+    private final int tokenCapacity;
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private double availableTokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private long lastDecreaseNanos;
+    private boolean drainScheduled;
+
+    /**
+     * @param deploymentName  deployment the limiter admits requests to
+     * @param properties      limits and timeouts
+     * @param tokensPerMinute token quota of the deployment, non-positive for no token limit
+     */
+    public AdaptiveDeploymentLimiter(String deploymentName, AdmissionProperties properties, int tokensPerMinute) {
+
+        this.deploymentName = deploymentName;
+        this.properties = properties;
+        this.tokenCapacity = Math.max(tokensPerMinute, 0);
+        this.limit = Math.clamp(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit());
+        this.availableTokens = tokenCapacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+        this.lastDecreaseNanos = lastRefillNanos;
+    }
+
+    /**
+     * Waits for admission of a request.
+     *
+     * @param estimatedTokens prompt and completion tokens the request is expected to use
+     * @return permit to be released once the request terminates, or {@link AdmissionRejectedException} when the
+     * queue is full or the request waited longer than the queue timeout
+     */
+    public Mono<Permit> acquire(int estimatedTokens) {
+
+        return Mono.<Permit>create(sink -> {
+                    Waiter waiter = new Waiter(sink, tokenCapacity > 0 ? Math.min(estimatedTokens, tokenCapacity) : 0);
+                    boolean queued;
+                    synchronized (this) {
+                        queued = queue.size() < properties.getMaxQueueSize();
+                        if (queued) {
+                            queue.addLast(waiter);
+                        }
+                    }
+                    if (!queued) {
+                        sink.error(new AdmissionRejectedException(deploymentName,
+                                "Too many requests are waiting for deployment " + deploymentName + "."));
+                        return;
+                    }
+                    sink.onCancel(() -> cancel(waiter));
+                    drain();
+                })
+                .timeout(properties.getQueueTimeout(), Mono.error(() -> new AdmissionRejectedException(deploymentName,
+                        "Deployment " + deploymentName + " did not admit the request within "
+                                + properties.getQueueTimeout() + ".")));
+    }
+
+    public synchronized double getLimit() {
+
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+
+        return queue.size();
+    }
+
+    public synchronized double getAvailableTokens() {
+
+        refill(System.nanoTime());
+        return availableTokens;
+    }
+
+    /**
+     * Gets the pause requested by the deployment when the error, or one of its causes, is a 429 response.
+     *
+     * @param error        failure of a request
+     * @param defaultPause pause when the response has no {@code Retry-After} header
+     * @return the pause, {@code null} when the deployment was not overloaded
+     */
+    public static Duration getRetryAfter(Throwable error, Duration defaultPause) {
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException responseException) {
+                HttpResponse response = responseException.getResponse();
+                if (response == null || response.getStatusCode() != TOO_MANY_REQUESTS) {
+                    return null;
+                }
+                return parseRetryAfter(response.getHeaders(), defaultPause);
+            }
+        }
+        return null;
+    }
+
+    private static Duration parseRetryAfter(HttpHeaders headers, Duration defaultPause) {
+
+        long millis = NumberUtils.toLong(headers.getValue(RETRY_AFTER_MS), -1);
+        if (millis >= 0) {
+            return Duration.ofMillis(millis);
+        }
+        long seconds = NumberUtils.toLong(headers.getValue(HttpHeaderName.RETRY_AFTER), -1);
+        return seconds >= 0 ? Duration.ofSeconds(seconds) : defaultPause;
+    }
+
+    private void drain() {
+
+        List<Waiter> admitted = new ArrayList<>();
+        long delayNanos = 0;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                if (now - pausedUntilNanos < 0) {
+                    delayNanos = pausedUntilNanos - now;
+                    break;
+                }
+                Waiter waiter = queue.peekFirst();
+                if (waiter.tokens > availableTokens) {
+                    delayNanos = (long) Math.ceil((waiter.tokens - availableTokens) * NANOS_PER_MINUTE / tokenCapacity);
+                    break;
+                }
+                queue.pollFirst();
+                inFlight++;
+                availableTokens -= waiter.tokens;
+                waiter.permit = new Permit(now);
+                admitted.add(waiter);
+            }
+            if (delayNanos > 0 && !drainScheduled) {
+                drainScheduled = true;
+            } else {
+                delayNanos = 0;
+            }
+        }
+
+        if (delayNanos > 0) {
+            Schedulers.parallel().schedule(() -> {
+                synchronized (this) {
+                    drainScheduled = false;
+                }
+                drain();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+        admitted.forEach(waiter -> waiter.sink.success(waiter.permit));
+    }
+
+    private void refill(long now) {
+
+        if (tokenCapacity > 0) {
+            availableTokens = Math.min(tokenCapacity,
+                    availableTokens + (now - lastRefillNanos) * tokenCapacity / NANOS_PER_MINUTE);
+        }
+        lastRefillNanos = now;
+    }
+
+    private void cancel(Waiter waiter) {
+
+        Permit permit;
+        synchronized (this) {
+            queue.remove(waiter);
+            permit = waiter.permit;
+        }
+        // admitted concurrently with the timeout or cancellation, the permit is never delivered
+        if (permit != null) {
+            permit.cancel();
+        }
+    }
+
+    private void release(Permit permit, boolean success, Throwable error) {
+
+        Duration retryAfter = error != null ? getRetryAfter(error, properties.getDefaultRetryAfter()) : null;
+        synchronized (this) {
+            long now = System.nanoTime();
+            inFlight--;
+            if (retryAfter != null) {
+                long pausedUntil = now + retryAfter.toNanos();
+                if (pausedUntil - pausedUntilNanos > 0) {
+                    pausedUntilNanos = pausedUntil;
+                }
+                decrease(permit, now);
+            } else if (success) {
+                Duration latencyThreshold = properties.getLatencyThreshold();
+                if (latencyThreshold != null && now - permit.admittedNanos > latencyThreshold.toNanos()) {
+                    decrease(permit, now);
+                } else {
+                    limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Shrinks the limit unless it was already shrunk after the request was admitted, so that one burst of failures
+     * of requests sent at the same time counts once.
+     */
+    private void decrease(Permit permit, long now) {
+
+        if (permit.admittedNanos - lastDecreaseNanos >= 0) {
+            limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+            lastDecreaseNanos = now;
+        }
+    }
+
+    /**
+     * Admission of one request. Exactly one of the release methods should be called; further calls are ignored.
+     */
+    public final class Permit {
+
+        private final long admittedNanos;
+        private boolean released;
+
+        private Permit(long admittedNanos) {
+
+            this.admittedNanos = admittedNanos;
+        }
+
+        public void complete() {
+
+            release(true, null);
+        }
+
+        public void fail(Throwable error) {
+
+            release(false, error);
+        }
+
+        public void cancel() {
+
+            release(false, null);
+        }
+
+        private void release(boolean success, Throwable error) {
+
+            synchronized (AdaptiveDeploymentLimiter.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            AdaptiveDeploymentLimiter.this.release(this, success, error);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final int tokens;
+        private Permit permit;
+
+        private Waiter(MonoSink<Permit> sink, int tokens) {
+
+            this.sink = sink;
+            this.tokens = tokens;
+        }
+    }
+}
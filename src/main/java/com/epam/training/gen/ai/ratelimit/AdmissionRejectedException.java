@@ -0,0 +1,18 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is not admitted to a deployment because its queue is full or the request waited too long.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String deploymentName;
+
+    public AdmissionRejectedException(String deploymentName, String message) {
+
+        super(message);
+        this.deploymentName = deploymentName;
+    }
+}
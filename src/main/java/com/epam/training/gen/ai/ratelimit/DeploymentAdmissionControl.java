@@ -0,0 +1,165 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.ratelimit.AdmissionProperties;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Per-deployment admission control of LLM requests.
+ * <p>
+ * Every request waits for a permit of the {@link AdaptiveDeploymentLimiter} of its deployment, which holds it until
+ * the request terminates. Requests answered with 429 are queued again, so they wait for the pause requested by the
+ * deployment instead of being retried at once. Deployments which are not configured share one limiter.
+ */
+@Component
+public class DeploymentAdmissionControl {
+
+    private static final String DEPLOYMENT_TAG = "deployment";
+
+    private final AdmissionProperties properties;
+    private final LlmMetrics llmMetrics;
+    private final MeterRegistry meterRegistry;
+    private final int defaultMaxTokens;
+    private final Map<String, DeploymentState> deployments = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeploymentAdmissionControl(AdmissionProperties properties, LlmMetrics llmMetrics,
+            MeterRegistry meterRegistry, @Value("${client-max-tokens:256}") int defaultMaxTokens) {
+
+        this.properties = properties;
+        this.llmMetrics = llmMetrics;
+        this.meterRegistry = meterRegistry;
+        this.defaultMaxTokens = defaultMaxTokens;
+    }
+
+    /**
+     * Admits a request to the deployment.
+     *
+     * @param deploymentName deployment the request is sent to
+     * @param promptTokens   estimated tokens of the prompt
+     * @param maxTokens      maximal number of completion tokens, {@code null} for the default
+     * @return operator to be applied with {@link Mono#transform(Function)}; the source is subscribed once admitted
+     */
+    public <T> Function<Mono<T>, Mono<T>> admit(String deploymentName, int promptTokens, Integer maxTokens) {
+
+        if (!properties.isEnabled()) {
+            return Function.identity();
+        }
+        return mono -> {
+            DeploymentState state = getState(deploymentName);
+            return Mono.usingWhen(acquire(state, promptTokens, maxTokens),
+                            permit -> mono,
+                            permit -> Mono.fromRunnable(permit::complete),
+                            (permit, error) -> Mono.fromRunnable(() -> permit.fail(error)),
+                            permit -> Mono.fromRunnable(permit::cancel))
+                    .retryWhen(retryThrottled(state));
+        };
+    }
+
+    /**
+     * Admits a streamed request to the deployment; the permit is held until the stream terminates.
+     *
+     * @see #admit(String, int, Integer)
+     */
+    public <T> Function<Flux<T>, Flux<T>> admitStream(String deploymentName, int promptTokens, Integer maxTokens) {
+
+        if (!properties.isEnabled()) {
+            return Function.identity();
+        }
+        return flux -> {
+            DeploymentState state = getState(deploymentName);
+            return Flux.usingWhen(acquire(state, promptTokens, maxTokens),
+                            permit -> flux,
+                            permit -> Mono.fromRunnable(permit::complete),
+                            (permit, error) -> Mono.fromRunnable(() -> permit.fail(error)),
+                            permit -> Mono.fromRunnable(permit::cancel))
+                    .retryWhen(retryThrottled(state));
+        };
+    }
+
+    private Mono<AdaptiveDeploymentLimiter.Permit> acquire(DeploymentState state, int promptTokens,
+            Integer maxTokens) {
+
+        int estimatedTokens = promptTokens + ObjectUtils.defaultIfNull(maxTokens, defaultMaxTokens);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return state.limiter().acquire(estimatedTokens)
+                    .doOnSuccess(permit -> sample.stop(waitTimer(state.deploymentTag(), "admitted")))
+                    .doOnError(AdmissionRejectedException.class,
+                            e -> sample.stop(waitTimer(state.deploymentTag(), "rejected")));
+        });
+    }
+
+    private Retry retryThrottled(DeploymentState state) {
+
+        return Retry.max(properties.getMaxRetries())
+                .filter(error -> AdaptiveDeploymentLimiter.getRetryAfter(error, properties.getDefaultRetryAfter())
+                        != null)
+                .doBeforeRetry(signal -> state.throttled().increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private DeploymentState getState(String deploymentName) {
+
+        return deployments.computeIfAbsent(llmMetrics.deploymentTag(deploymentName), this::createState);
+    }
+
+    private DeploymentState createState(String deploymentTag) {
+
+        AdaptiveDeploymentLimiter limiter = new AdaptiveDeploymentLimiter(deploymentTag, properties,
+                properties.getTokensPerMinute().getOrDefault(deploymentTag, 0));
+        Gauge.builder("llm.admission.limit", limiter, AdaptiveDeploymentLimiter::getLimit)
+                .description("Adaptive concurrency limit of the deployment")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .register(meterRegistry);
+        Gauge.builder("llm.admission.in.flight", limiter, AdaptiveDeploymentLimiter::getInFlight)
+                .description("Admitted requests in flight")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .register(meterRegistry);
+        Gauge.builder("llm.admission.queued", limiter, AdaptiveDeploymentLimiter::getQueued)
+                .description("Requests waiting for admission")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .register(meterRegistry);
+        if (properties.getTokensPerMinute().getOrDefault(deploymentTag, 0) > 0) {
+            Gauge.builder("llm.admission.tokens.available", limiter, AdaptiveDeploymentLimiter::getAvailableTokens)
+                    .description("Tokens left in the tokens-per-minute bucket")
+                    .baseUnit("tokens")
+                    .tag(DEPLOYMENT_TAG, deploymentTag)
+                    .register(meterRegistry);
+        }
+        Counter throttled = Counter.builder("llm.admission.throttled")
+                .description("Requests answered with 429 and queued again")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .register(meterRegistry);
+        return new DeploymentState(deploymentTag, limiter, throttled);
+    }
+
+    private Timer waitTimer(String deploymentTag, String outcome) {
+
+        return Timer.builder("llm.admission.wait")
+                .description("Time requests wait for admission")
+                .tag(DEPLOYMENT_TAG, deploymentTag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record DeploymentState(String deploymentTag, AdaptiveDeploymentLimiter limiter, Counter throttled) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.batch.BatchProperties;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Request rate limiters per deployment name.
+ */
+@Component
+public class DeploymentRateLimiters {
+
+    private final BatchProperties batchProperties;
+    private final Map<String, RequestRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeploymentRateLimiters(BatchProperties batchProperties) {
+
+        this.batchProperties = batchProperties;
+    }
+
+    public Mono<Void> acquire(String deploymentName) {
+
+        return limiters.computeIfAbsent(deploymentName,
+                        name -> new RequestRateLimiter(batchProperties.getRateLimit().getOrDefault(name, 0.0)))
+                .acquire();
+    }
+}
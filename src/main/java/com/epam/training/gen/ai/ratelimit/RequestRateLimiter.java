@@ -0,0 +1,42 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking limiter spacing requests evenly to at most the given rate.
+ * <p>
+ * Each caller reserves the next free time slot and is delayed until it; no thread is blocked while waiting.
+ */
+public class RequestRateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param permitsPerSecond maximal rate, non-positive for no limit
+     */
+    public RequestRateLimiter(double permitsPerSecond) {
+
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (Duration.ofSeconds(1).toNanos() / permitsPerSecond) : 0;
+    }
+
+    /**
+     * Waits for a permit.
+     *
+     * @return completion once the request may be sent
+     */
+    public Mono<Void> acquire() {
+
+        if (intervalNanos == 0) {
+            return Mono.empty();
+        }
+
+        long now = System.nanoTime();
+        long slot = Math.max(nextFreeNanos.getAndAccumulate(now, (next, current) -> Math.max(next, current)
+                + intervalNanos), now);
+        return slot <= now ? Mono.empty() : Mono.delay(Duration.ofNanos(slot - now)).then();
+    }
+}
@@ -0,0 +1,197 @@
+package com.epam.training.gen.ai.routing;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.config.routing.RoutingProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Latency-aware routing of requests across interchangeable deployments.
+ * <p>
+ * Tracks the moving average of latency and error rate of every deployment and routes to the healthy deployment with
+ * the lowest error-weighted latency; deployments without requests yet are tried first. Requests relying on tool
+ * calling are only routed to deployments with features allowed. With hedging, a duplicate request is sent to the
+ * next best deployment once the first one is slower than its latency percentile; the first answer wins and the other
+ * request is cancelled.
+ */
+@Slf4j
+@Component
+public class DeploymentRouter {
+
+    private static final String DEPLOYMENT_TAG = "deployment";
+
+    private final RoutingProperties properties;
+    private final ModelConfiguration modelConfiguration;
+    private final MeterRegistry meterRegistry;
+    private final List<String> deploymentNames;
+    private final Map<String, DeploymentStats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeploymentRouter(RoutingProperties properties, ModelConfiguration modelConfiguration,
+            MeterRegistry meterRegistry) {
+
+        this.properties = properties;
+        this.modelConfiguration = modelConfiguration;
+        this.meterRegistry = meterRegistry;
+        this.deploymentNames = properties.getDeployments().isEmpty()
+                ? List.copyOf(modelConfiguration.getDeploymentNames())
+                : List.copyOf(properties.getDeployments());
+    }
+
+    public boolean isEnabled() {
+
+        return properties.isEnabled();
+    }
+
+    /**
+     * Chooses the deployment for a request.
+     *
+     * @param toolCalling whether the request relies on tool calling
+     * @return the best healthy deployment, or the one with the lowest error rate when none is healthy; empty when no
+     * deployment supports the request
+     */
+    public Optional<String> route(boolean toolCalling) {
+
+        return rank(toolCalling, null).findFirst()
+                .or(() -> candidates(toolCalling)
+                        .min(Comparator.comparingDouble(name -> getStats(name).getErrorRate())));
+    }
+
+    /**
+     * Invokes the request on the deployment, hedging it on the next best deployment when enabled.
+     *
+     * @param deploymentName deployment chosen by {@link #route(boolean)}
+     * @param toolCalling    whether the request relies on tool calling
+     * @param invocation     request to the given deployment; subscribed once per deployment
+     * @return the first answer
+     */
+    public <T> Mono<T> invoke(String deploymentName, boolean toolCalling, Function<String, Mono<T>> invocation) {
+
+        Mono<T> primary = invocation.apply(deploymentName).transform(record(deploymentName));
+        if (!properties.isHedging()) {
+            return primary;
+        }
+
+        Duration hedgeDelay = getStats(deploymentName).getLatencyPercentile(properties.getHedgePercentile(),
+                properties.getHedgeMinSamples());
+        Optional<String> hedgeDeploymentName = rank(toolCalling, deploymentName).findFirst();
+        if (hedgeDelay == null || hedgeDeploymentName.isEmpty()) {
+            return primary;
+        }
+
+        String secondary = hedgeDeploymentName.get();
+        Mono<T> hedge = Mono.delay(ObjectUtils.max(hedgeDelay, properties.getHedgeMinDelay()))
+                .then(Mono.defer(() -> {
+                    log.debug("Hedging request to {} on {}.", deploymentName, secondary);
+                    hedges(deploymentName, secondary).increment();
+                    return invocation.apply(secondary);
+                }))
+                .transform(record(secondary));
+        // both failed: report the error of the primary request rather than the composite one
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e);
+    }
+
+    /**
+     * Records the latency and outcome of a streamed request.
+     *
+     * @param deploymentName deployment the request is sent to
+     * @return operator to be applied with {@link Flux#transform(Function)}
+     */
+    public <T> Function<Flux<T>, Flux<T>> recordStream(String deploymentName) {
+
+        return flux -> Flux.defer(() -> {
+            DeploymentStats deploymentStats = getStats(deploymentName);
+            long startNanos = System.nanoTime();
+            return flux
+                    .doOnComplete(() -> deploymentStats.recordSuccess(System.nanoTime() - startNanos))
+                    .doOnError(e -> deploymentStats.recordError())
+                    .doOnCancel(() -> deploymentStats.recordCancelled(System.nanoTime() - startNanos));
+        });
+    }
+
+    private <T> Function<Mono<T>, Mono<T>> record(String deploymentName) {
+
+        return mono -> Mono.defer(() -> {
+            DeploymentStats deploymentStats = getStats(deploymentName);
+            long startNanos = System.nanoTime();
+            return mono
+                    .doOnSuccess(value -> deploymentStats.recordSuccess(System.nanoTime() - startNanos))
+                    .doOnError(e -> deploymentStats.recordError())
+                    .doOnCancel(() -> deploymentStats.recordCancelled(System.nanoTime() - startNanos));
+        });
+    }
+
+    /**
+     * Healthy candidates from the best to the worst.
+     */
+    private Stream<String> rank(boolean toolCalling, String excludedDeploymentName) {
+
+        return candidates(toolCalling)
+                .filter(name -> !name.equals(excludedDeploymentName))
+                .filter(name -> getStats(name).isHealthy(properties.getMaxErrorRate(), properties.getProbeInterval()))
+                .sorted(Comparator.comparingDouble(this::score));
+    }
+
+    private Stream<String> candidates(boolean toolCalling) {
+
+        return deploymentNames.stream()
+                .filter(name -> !toolCalling || modelConfiguration.isFeaturesAllowed(name));
+    }
+
+    private double score(String deploymentName) {
+
+        DeploymentStats deploymentStats = getStats(deploymentName);
+        return deploymentStats.getLatencyNanos() * (1 + deploymentStats.getErrorRate());
+    }
+
+    private DeploymentStats getStats(String deploymentName) {
+
+        return stats.computeIfAbsent(deploymentName, this::createStats);
+    }
+
+    private DeploymentStats createStats(String deploymentName) {
+
+        DeploymentStats deploymentStats = new DeploymentStats(properties.getEwmaWeight(),
+                properties.getLatencyWindow());
+        Gauge.builder("llm.routing.latency", deploymentStats, value -> value.getLatencyNanos() / 1e9)
+                .description("Moving average of the latency of the deployment")
+                .baseUnit("seconds")
+                .tag(DEPLOYMENT_TAG, deploymentName)
+                .register(meterRegistry);
+        Gauge.builder("llm.routing.error.rate", deploymentStats, DeploymentStats::getErrorRate)
+                .description("Moving average of the error rate of the deployment")
+                .tag(DEPLOYMENT_TAG, deploymentName)
+                .register(meterRegistry);
+        return deploymentStats;
+    }
+
+    private Counter hedges(String deploymentName, String hedgeDeploymentName) {
+
+        return Counter.builder("llm.routing.hedges")
+                .description("Requests duplicated to a second deployment")
+                .tag(DEPLOYMENT_TAG, deploymentName)
+                .tag("hedge.deployment", hedgeDeploymentName)
+                .register(meterRegistry);
+    }
+}
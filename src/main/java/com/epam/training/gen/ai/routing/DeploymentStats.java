@@ -0,0 +1,105 @@
+package com.epam.training.gen.ai.routing;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Moving averages of latency and error rate of one deployment, and a window of its latest latencies.
+ */
+class DeploymentStats {
+
+    private final double ewmaWeight;
+    private final long[] latencies;
+
+    private double latencyNanos;
+    private double errorRate;
+    private long samples;
+    private long successes;
+    private long lastSampleNanos;
+
+    DeploymentStats(double ewmaWeight, int latencyWindow) {
+
+        this.ewmaWeight = ewmaWeight;
+        this.latencies = new long[Math.max(latencyWindow, 1)];
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    synchronized void recordSuccess(long latencyNanos) {
+
+        latencies[(int) (successes++ % latencies.length)] = latencyNanos;
+        this.latencyNanos = successes == 1 ? latencyNanos : average(this.latencyNanos, latencyNanos);
+        recordOutcome(0);
+    }
+
+    /**
+     * Records a failed request; its latency is not recorded, so that fast failures do not attract traffic.
+     */
+    synchronized void recordError() {
+
+        recordOutcome(1);
+    }
+
+    /**
+     * Records a request cancelled after the given time, e.g. the loser of a hedged pair. Its latency is only known
+     * to be longer, so it only raises the average.
+     */
+    synchronized void recordCancelled(long elapsedNanos) {
+
+        if (successes == 0) {
+            latencyNanos = Math.max(latencyNanos, elapsedNanos);
+        } else if (elapsedNanos > latencyNanos) {
+            latencyNanos = average(latencyNanos, elapsedNanos);
+        }
+    }
+
+    synchronized double getLatencyNanos() {
+
+        return latencyNanos;
+    }
+
+    synchronized double getErrorRate() {
+
+        return errorRate;
+    }
+
+    synchronized long getSamples() {
+
+        return samples;
+    }
+
+    synchronized boolean isHealthy(double maxErrorRate, Duration probeInterval) {
+
+        return errorRate <= maxErrorRate || System.nanoTime() - lastSampleNanos >= probeInterval.toNanos();
+    }
+
+    /**
+     * Gets the latency percentile of the latest successful requests.
+     *
+     * @param percentile percentile between 0 and 100
+     * @param minSamples minimal number of latencies
+     * @return the percentile, {@code null} when there are fewer latencies
+     */
+    synchronized Duration getLatencyPercentile(double percentile, int minSamples) {
+
+        int size = (int) Math.min(successes, latencies.length);
+        if (size == 0 || size < minSamples) {
+            return null;
+        }
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return Duration.ofNanos(sorted[Math.clamp(index, 0, size - 1)]);
+    }
+
+    private void recordOutcome(double error) {
+
+        errorRate = samples == 0 ? error : average(errorRate, error);
+        samples++;
+        lastSampleNanos = System.nanoTime();
+    }
+
+    private double average(double average, double value) {
+
+        return average + ewmaWeight * (value - average);
+    }
+}
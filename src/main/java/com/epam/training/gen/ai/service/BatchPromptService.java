@@ -0,0 +1,109 @@
+package com.epam.training.gen.ai.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.epam.training.gen.ai.config.batch.BatchProperties;
+import com.epam.training.gen.ai.model.request.PromptRequestDto;
+import com.epam.training.gen.ai.model.response.BatchPromptResultDto;
+import com.epam.training.gen.ai.ratelimit.DeploymentRateLimiters;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs batches of prompts with bounded concurrency.
+ * <p>
+ * Prompts are read lazily from the request body, either a JSON array or newline-delimited JSON objects, and only as
+ * many of them as can be processed at the same time are held in memory. Results are emitted as soon as they
+ * complete, so they may come in a different order than the prompts; failures are reported per prompt.
+ */
+@Slf4j
+@Service
+public class BatchPromptService {
+
+    private final ObjectMapper objectMapper;
+    private final BatchProperties batchProperties;
+    private final DeploymentRateLimiters deploymentRateLimiters;
+
+    @Autowired
+    public BatchPromptService(ObjectMapper objectMapper, BatchProperties batchProperties,
+            DeploymentRateLimiters deploymentRateLimiters) {
+
+        this.objectMapper = objectMapper;
+        this.batchProperties = batchProperties;
+        this.deploymentRateLimiters = deploymentRateLimiters;
+    }
+
+    /**
+     * Processes the prompts of the request body.
+     *
+     * @param body           request body
+     * @param deploymentName deployment the prompts are sent to, used for rate limiting
+     * @param processor      processing of a single prompt
+     * @return results in the order of completion
+     */
+    public Flux<BatchPromptResultDto> process(InputStream body, String deploymentName,
+            Function<String, Mono<List<String>>> processor) {
+
+        // a read failure ends the batch, but prompts already being processed still complete
+        return readPrompts(body)
+                .index()
+                .map(indexedPrompt -> new BatchItem(indexedPrompt.getT1(), indexedPrompt.getT2().getInput(), null))
+                .onErrorResume(e -> {
+                    log.warn("Failed to read batch of prompts.", e);
+                    return Mono.just(new BatchItem(null, null, "Failed to read prompts: " + e.getMessage()));
+                })
+                .flatMap(item -> processItem(item, deploymentName, processor), batchProperties.getConcurrency());
+    }
+
+    private Mono<BatchPromptResultDto> processItem(BatchItem item, String deploymentName,
+            Function<String, Mono<List<String>>> processor) {
+
+        if (item.error() != null) {
+            return Mono.just(new BatchPromptResultDto(item.index(), null, item.error()));
+        }
+        if (StringUtils.isBlank(item.input())) {
+            return Mono.just(new BatchPromptResultDto(item.index(), null, "Input must not be empty."));
+        }
+
+        return deploymentRateLimiters.acquire(deploymentName)
+                .then(Mono.defer(() -> processor.apply(item.input())))
+                .map(answers -> new BatchPromptResultDto(item.index(), answers, null))
+                .onErrorResume(e -> {
+                    log.warn("Prompt {} of the batch failed.", item.index(), e);
+                    return Mono.just(new BatchPromptResultDto(item.index(), null, e.getMessage()));
+                });
+    }
+
+    private Flux<PromptRequestDto> readPrompts(InputStream body) {
+
+        return Flux.using(
+                        () -> objectMapper.readerFor(PromptRequestDto.class).<PromptRequestDto>readValues(body),
+                        iterator -> Flux.fromIterable(() -> iterator),
+                        BatchPromptService::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static void close(MappingIterator<PromptRequestDto> iterator) {
+
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            log.debug("Failed to close batch input.", e);
+        }
+    }
+
+    private record BatchItem(Long index, String input, String error) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.epam.training.gen.ai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.models.EmbeddingItem;
+import com.azure.ai.openai.models.EmbeddingsOptions;
+import com.epam.training.gen.ai.cache.EmbeddingCache;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class for generating text embeddings using Azure OpenAI.
+ * <p>
+ * Vectors are returned as primitive {@code float[]} in the same order as the input texts. Texts already embedded by
+ * the deployment are taken from the {@link EmbeddingCache}; only the others are sent to the model, in one request.
+ */
+@Service
+public class EmbeddingService {
+
+    private final OpenAIAsyncClient aiAsyncClient;
+    private final String embeddingDeploymentName;
+    private final EmbeddingCache embeddingCache;
+
+    @Autowired
+    public EmbeddingService(OpenAIAsyncClient aiAsyncClient,
+            @Value("${client-openai-embedding-deployment-name}") String embeddingDeploymentName,
+            EmbeddingCache embeddingCache) {
+
+        this.aiAsyncClient = aiAsyncClient;
+        this.embeddingDeploymentName = embeddingDeploymentName;
+        this.embeddingCache = embeddingCache;
+    }
+
+    public String getModelName() {
+
+        return embeddingDeploymentName;
+    }
+
+    public Mono<float[]> embed(String text) {
+
+        return embed(List.of(text)).map(vectors -> vectors.get(0));
+    }
+
+    public Mono<List<float[]>> embed(List<String> texts) {
+
+        return Mono.defer(() -> {
+            List<float[]> vectors = embeddingCache.getAll(embeddingDeploymentName, texts);
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < vectors.size(); i++) {
+                if (vectors.get(i) == null) {
+                    missing.add(i);
+                }
+            }
+            if (missing.isEmpty()) {
+                return Mono.just(vectors);
+            }
+
+            List<String> missingTexts = missing.stream().map(texts::get).toList();
+            return request(missingTexts).map(embedded -> {
+                embeddingCache.putAll(embeddingDeploymentName, missingTexts, embedded);
+                for (int i = 0; i < missing.size(); i++) {
+                    vectors.set(missing.get(i), embedded.get(i));
+                }
+                return vectors;
+            });
+        });
+    }
+
+    private Mono<List<float[]>> request(List<String> texts) {
+
+        return aiAsyncClient.getEmbeddings(embeddingDeploymentName, new EmbeddingsOptions(texts))
+                .map(embeddings -> embeddings.getData().stream()
+                        .sorted((first, second) -> Integer.compare(first.getPromptIndex(), second.getPromptIndex()))
+                        .map(EmbeddingService::toArray)
+                        .toList());
+    }
+
+    private static float[] toArray(EmbeddingItem item) {
+
+        List<Float> embedding = item.getEmbedding();
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i);
+        }
+        return vector;
+    }
+}
@@ -3,8 +3,15 @@ package com.epam.training.gen.ai.service;
 import com.azure.ai.openai.OpenAIAsyncClient;
 import com.azure.ai.openai.models.ChatCompletionsOptions;
 import com.azure.ai.openai.models.ChatRequestUserMessage;
+import com.epam.training.gen.ai.cache.CompletionCache;
+import com.epam.training.gen.ai.cache.CompletionCacheKey;
+import com.epam.training.gen.ai.cache.SemanticResponseCache;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.ratelimit.DeploymentAdmissionControl;
+import com.epam.training.gen.ai.util.TokenBudget;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,31 +30,80 @@ import java.util.List;
 @Service
 public class OpenAIService {
 
+    private static final String OPEN_AI_CACHE_NAMESPACE = "openai";
+
     private final OpenAIAsyncClient aiAsyncClient;
     private final String deploymentOrModelName;
+    private final double defaultTemperature;
+    private final int defaultMaxTokens;
+    private final SemanticResponseCache semanticResponseCache;
+    private final CompletionCache completionCache;
+    private final LlmMetrics llmMetrics;
+    private final DeploymentAdmissionControl admissionControl;
 
     @Autowired
     public OpenAIService(OpenAIAsyncClient aiAsyncClient,
-            @Value("${client-openai-deployment-name}") String deploymentOrModelName) {
+            @Value("${client-openai-deployment-name}") String deploymentOrModelName,
+            @Value("${client-sk-temperature:1.0}") double defaultTemperature,
+            @Value("${client-max-tokens:256}") int defaultMaxTokens, SemanticResponseCache semanticResponseCache,
+            CompletionCache completionCache, LlmMetrics llmMetrics, DeploymentAdmissionControl admissionControl) {
 
         this.aiAsyncClient = aiAsyncClient;
         this.deploymentOrModelName = deploymentOrModelName;
+        this.defaultTemperature = defaultTemperature;
+        this.defaultMaxTokens = defaultMaxTokens;
+        this.semanticResponseCache = semanticResponseCache;
+        this.completionCache = completionCache;
+        this.llmMetrics = llmMetrics;
+        this.admissionControl = admissionControl;
+    }
+
+    public String getDeploymentName() {
+
+        return deploymentOrModelName;
+    }
+
+    /**
+     * Generates chat completions for the input.
+     * <p>
+     * Missing settings are replaced with the same defaults as for Semantic Kernel requests, so the cache key describes
+     * the request actually sent.
+     *
+     * @param input       the user's input
+     * @param temperature sampling temperature, {@code null} for the deployment default
+     * @param maxTokens   maximal number of completion tokens, {@code null} for the deployment default
+     * @return answers of the model
+     */
+    public Mono<List<String>> getChatCompletions(String input, Double temperature, Integer maxTokens) {
+
+        double effectiveTemperature = temperature == null ? defaultTemperature : temperature;
+        int effectiveMaxTokens = maxTokens == null ? defaultMaxTokens : maxTokens;
+        CompletionCacheKey completionCacheKey = new CompletionCacheKey(deploymentOrModelName, effectiveTemperature,
+                effectiveMaxTokens, CompletionCacheKey.hash(List.of(input)), OPEN_AI_CACHE_NAMESPACE);
+        String cacheScope = semanticResponseCache.scope(OPEN_AI_CACHE_NAMESPACE, deploymentOrModelName,
+                effectiveTemperature);
+
+        return completionCache.getOrCompute(completionCacheKey,
+                () -> semanticResponseCache.getOrCompute(cacheScope, input,
+                        () -> requestChatCompletions(input, effectiveTemperature, effectiveMaxTokens)));
     }
 
-    public List<String> getChatCompletions(String input) {
+    private Mono<List<String>> requestChatCompletions(String input, Double temperature, Integer maxTokens) {
 
-        var completions = aiAsyncClient
+        return aiAsyncClient
                 .getChatCompletions(
                         deploymentOrModelName,
                         new ChatCompletionsOptions(
-                                List.of(new ChatRequestUserMessage(input))))
-                .block();
-        var messages = completions.getChoices().stream()
-                .map(c -> c.getMessage().getContent())
-                .toList();
-
-        log.info(messages.toString());
-
-        return messages;
+                                List.of(new ChatRequestUserMessage(input)))
+                                .setTemperature(temperature)
+                                .setMaxTokens(maxTokens))
+                .transform(llmMetrics.timeRequest(deploymentOrModelName, OPEN_AI_CACHE_NAMESPACE))
+                .transform(admissionControl.admit(deploymentOrModelName, TokenBudget.estimateTokens(input),
+                        maxTokens))
+                .doOnNext(completions -> llmMetrics.recordTokenUsage(deploymentOrModelName, completions.getUsage()))
+                .map(completions -> completions.getChoices().stream()
+                        .map(c -> c.getMessage().getContent())
+                        .toList())
+                .doOnNext(messages -> log.info(messages.toString()));
     }
 }
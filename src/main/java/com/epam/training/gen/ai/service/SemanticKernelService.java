@@ -1,33 +1,49 @@
 package com.epam.training.gen.ai.service;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.aop.scope.ScopedObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 
-import com.azure.ai.openai.OpenAIAsyncClient;
+import com.epam.training.gen.ai.cache.CompletionCache;
+import com.epam.training.gen.ai.cache.CompletionCacheKey;
+import com.epam.training.gen.ai.cache.SemanticResponseCache;
 import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.history.ChatHistoryCompactor;
+import com.epam.training.gen.ai.history.ChatTurn;
+import com.epam.training.gen.ai.history.Conversation;
+import com.epam.training.gen.ai.kernel.KernelRegistry;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.ToolCallPrefetchHook;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
+import com.epam.training.gen.ai.rag.DocumentRetriever;
+import com.epam.training.gen.ai.ratelimit.DeploymentAdmissionControl;
+import com.epam.training.gen.ai.routing.DeploymentRouter;
+import com.epam.training.gen.ai.util.TokenBudget;
 import com.microsoft.semantickernel.Kernel;
-import com.microsoft.semantickernel.aiservices.openai.chatcompletion.OpenAIChatCompletion;
 import com.microsoft.semantickernel.orchestration.FunctionResult;
 import com.microsoft.semantickernel.orchestration.InvocationContext;
 import com.microsoft.semantickernel.orchestration.InvocationReturnMode;
 import com.microsoft.semantickernel.orchestration.PromptExecutionSettings;
 import com.microsoft.semantickernel.orchestration.ToolCallBehavior;
 import com.microsoft.semantickernel.plugin.KernelPlugin;
-import com.microsoft.semantickernel.semanticfunctions.KernelFunction;
 import com.microsoft.semantickernel.semanticfunctions.KernelFunctionArguments;
+import com.microsoft.semantickernel.services.ServiceNotFoundException;
 import com.microsoft.semantickernel.services.chatcompletion.ChatCompletionService;
 import com.microsoft.semantickernel.services.chatcompletion.ChatHistory;
+import com.microsoft.semantickernel.services.chatcompletion.StreamingChatContent;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Service
@@ -35,6 +51,7 @@ public class SemanticKernelService {
 
     private static final String SIMPLE_KERNEL_PREFIX = "simple";
     private static final String CURRENCY_EXCHANGE_KERNEL_PREFIX = "currencyExchange";
+    private static final String STREAM_OPERATION_SUFFIX = "-stream";
 
     @Value("${client-openai-deployment-name}")
     private String defaultDeploymentName;
@@ -46,110 +63,363 @@ public class SemanticKernelService {
     private int defaultMaxTokens;
 
     private final ModelConfiguration modelConfiguration;
-    private final OpenAIAsyncClient openAIAsyncClient;
-    private final KernelPlugin kernelPlugin;
-    private final KernelPlugin currencyExchangeRateKernelPlugin;
-    private final KernelPlugin weatherForecastKernelPlugin;
-    private final ChatHistory chatHistory;
-    private final Map<String, Kernel> kernelMap = new ConcurrentHashMap<>();
+    private final KernelRegistry kernelRegistry;
+    private final Conversation conversation;
+    private final ChatHistoryCompactor chatHistoryCompactor;
+    private final SemanticResponseCache semanticResponseCache;
+    private final CompletionCache completionCache;
+    private final LlmMetrics llmMetrics;
+    private final DeploymentAdmissionControl admissionControl;
+    private final DeploymentRouter deploymentRouter;
+    private final SpeculativeToolPrefetch speculativeToolPrefetch;
+    private final ToolCallPrefetchHook toolCallPrefetchHook;
+    private final DocumentRetriever documentRetriever;
 
     @Autowired
-    public SemanticKernelService(ModelConfiguration modelConfiguration, OpenAIAsyncClient openAIAsyncClient,
+    public SemanticKernelService(ModelConfiguration modelConfiguration, KernelRegistry kernelRegistry,
             KernelPlugin currencyExchangeRateKernelPlugin, KernelPlugin weatherForecastKernelPlugin,
-            KernelPlugin kernelPlugin, ChatHistory chatHistory) {
+            KernelPlugin kernelPlugin, Conversation conversation, ChatHistoryCompactor chatHistoryCompactor,
+            SemanticResponseCache semanticResponseCache, CompletionCache completionCache, LlmMetrics llmMetrics,
+            DeploymentAdmissionControl admissionControl, DeploymentRouter deploymentRouter,
+            SpeculativeToolPrefetch speculativeToolPrefetch, ToolCallPrefetchHook toolCallPrefetchHook,
+            DocumentRetriever documentRetriever) {
 
         this.modelConfiguration = modelConfiguration;
-        this.openAIAsyncClient = openAIAsyncClient;
-        this.kernelPlugin = kernelPlugin;
-        this.currencyExchangeRateKernelPlugin = currencyExchangeRateKernelPlugin;
-        this.weatherForecastKernelPlugin = weatherForecastKernelPlugin;
-        this.chatHistory = chatHistory;
+        this.kernelRegistry = kernelRegistry;
+        this.conversation = conversation;
+        this.chatHistoryCompactor = chatHistoryCompactor;
+        this.semanticResponseCache = semanticResponseCache;
+        this.completionCache = completionCache;
+        this.llmMetrics = llmMetrics;
+        this.admissionControl = admissionControl;
+        this.deploymentRouter = deploymentRouter;
+        this.speculativeToolPrefetch = speculativeToolPrefetch;
+        this.toolCallPrefetchHook = toolCallPrefetchHook;
+        this.documentRetriever = documentRetriever;
+
+        kernelRegistry.registerPluginSet(SIMPLE_KERNEL_PREFIX, List.of(kernelPlugin));
+        kernelRegistry.registerPluginSet(CURRENCY_EXCHANGE_KERNEL_PREFIX,
+                List.of(currencyExchangeRateKernelPlugin, weatherForecastKernelPlugin));
     }
 
-    public String processWithHistory(String input, String deploymentName, Double temperature, Integer maxTokens) {
+    public Mono<String> processWithHistory(String input, String deploymentName, Double temperature,
+            Integer maxTokens) {
 
-        return processOnKernelWithHistory(Collections.singletonList(kernelPlugin), SIMPLE_KERNEL_PREFIX, input,
-                deploymentName, temperature,
-                maxTokens);
+        return processOnKernelWithHistory(SIMPLE_KERNEL_PREFIX, currentConversation(), input, deploymentName,
+                temperature, maxTokens);
     }
 
-    public String getCommonInfoAboutPlace(String input, String deploymentName, Double temperature, Integer maxTokens) {
+    /**
+     * Processes a standalone prompt, neither using nor updating the conversation of the current request.
+     */
+    public Mono<String> processWithoutHistory(String input, String deploymentName, Double temperature,
+            Integer maxTokens) {
 
-        return processOnKernelWithHistory(List.of(currencyExchangeRateKernelPlugin, weatherForecastKernelPlugin),
-                CURRENCY_EXCHANGE_KERNEL_PREFIX, input, deploymentName, temperature, maxTokens);
+        return processOnKernelWithHistory(SIMPLE_KERNEL_PREFIX, new Conversation(), input, deploymentName,
+                temperature, maxTokens);
     }
 
-    private String processOnKernelWithHistory(List<KernelPlugin> kernelPlugins, String kernelPrefix, String input,
-            String deploymentName, Double temperature, Integer maxTokens) {
+    public String resolveDeploymentName(String deploymentName) {
+
+        return StringUtils.defaultIfBlank(deploymentName, defaultDeploymentName);
+    }
 
-        deploymentName = StringUtils.defaultIfBlank(deploymentName, defaultDeploymentName);
-        InvocationContext invocationContext = buildInvocationContext(deploymentName, temperature, maxTokens);
-        Kernel kernel = getKernel(deploymentName, kernelPlugins, kernelPrefix);
-        log.info("Deployment name: {}, temperature: {}, max tokens: {}.", deploymentName, temperature, maxTokens);
+    private boolean isRouted(String deploymentName) {
 
-        FunctionResult<String> response = kernel.invokeAsync(getChat())
-                .withArguments(getKernelFunctionArguments(input, chatHistory))
-                .withInvocationContext(invocationContext)
-                .block();
+        return StringUtils.isBlank(deploymentName) && deploymentRouter.isEnabled();
+    }
 
-        chatHistory.addUserMessage(input);
+    /**
+     * Selects the deployment of a request: the requested one, otherwise the routed one when routing is enabled,
+     * otherwise the default one.
+     */
+    private String selectDeploymentName(String kernelPrefix, String deploymentName) {
 
-        String assistantMessage = response.getResult();
-        chatHistory.addAssistantMessage(assistantMessage);
-        log.info("AI answer: {}", assistantMessage);
-        return assistantMessage;
+        if (isRouted(deploymentName)) {
+            return deploymentRouter.route(requiresToolCalling(kernelPrefix)).orElse(defaultDeploymentName);
+        }
+        return resolveDeploymentName(deploymentName);
     }
 
     /**
-     * Creates a kernel function for generating a chat response using a predefined prompt template.
-     * <p>
-     * The template includes the chat history and the user's message as variables.
-     *
-     * @return a {@link KernelFunction} for handling chat-based AI interactions
+     * Requests to the place information plugins are answered by tool calls, so they may only be routed to
+     * deployments with features allowed.
      */
+    private static boolean requiresToolCalling(String kernelPrefix) {
 
-    private KernelFunction<String> getChat() {
+        return CURRENCY_EXCHANGE_KERNEL_PREFIX.equals(kernelPrefix);
+    }
 
-        return KernelFunction.<String>createFromPrompt("""
-                        {{$chatHistory}}
-                        <message role="user">{{$input}}</message>""")
-                .build();
+    /**
+     * Answers of the place information plugins are built from current exchange rates and forecasts, so they must not
+     * be served from the semantic response cache or the completion cache for the whole cache TTL.
+     */
+    private static boolean usesLiveData(String kernelPrefix) {
+
+        return CURRENCY_EXCHANGE_KERNEL_PREFIX.equals(kernelPrefix);
     }
 
-    private Kernel getKernel(String deploymentName, List<KernelPlugin> kernelPlugins, String kernelPrefix) {
+    public Mono<String> getCommonInfoAboutPlace(String input, String deploymentName, Double temperature,
+            Integer maxTokens) {
 
-        String kernelKey = kernelPrefix + "_" + deploymentName;
-        return kernelMap.computeIfAbsent(kernelKey, (v) -> {
-            ChatCompletionService chatCompletionService = OpenAIChatCompletion.builder()
-                    .withModelId(deploymentName)
-                    .withOpenAIAsyncClient(openAIAsyncClient)
-                    .build();
+        return processOnKernelWithHistory(CURRENCY_EXCHANGE_KERNEL_PREFIX, currentConversation(), input,
+                deploymentName, temperature, maxTokens)
+                .transform(speculativeToolPrefetch.around(input));
+    }
 
-            Kernel.Builder kernelBuilder = Kernel.builder()
-                    .withAIService(ChatCompletionService.class, chatCompletionService);
+    public Flux<String> streamWithHistory(String input, String deploymentName, Double temperature,
+            Integer maxTokens) {
 
-            if (!CollectionUtils.isEmpty(kernelPlugins)) {
-                kernelPlugins.forEach(kernelBuilder::withPlugin);
-            }
+        return streamOnKernelWithHistory(SIMPLE_KERNEL_PREFIX, input, deploymentName, temperature, maxTokens);
+    }
 
-            return kernelBuilder.build();
-        });
+    public Flux<String> streamCommonInfoAboutPlace(String input, String deploymentName, Double temperature,
+            Integer maxTokens) {
+
+        return streamOnKernelWithHistory(CURRENCY_EXCHANGE_KERNEL_PREFIX, input, deploymentName, temperature,
+                maxTokens);
     }
 
+    /**
+     * Invokes the chat function on the kernel without blocking the calling thread.
+     * <p>
+     * The conversation of the request must be resolved on the calling (request) thread because the invocation
+     * completes on a reactor thread where the request scope is not available. The document excerpts relevant to the
+     * input are retrieved while the history is compacted and sent as a system message. With routing enabled, requests
+     * without a deployment name are sent to the deployment chosen by the {@link DeploymentRouter}, possibly hedged on
+     * a second one; only the winning answer is added to the conversation.
+     */
+    private Mono<String> processOnKernelWithHistory(String kernelPrefix, Conversation sessionConversation,
+            String input, String deploymentName, Double temperature, Integer maxTokens) {
+
+        boolean routed = isRouted(deploymentName);
+        String resolvedDeploymentName = selectDeploymentName(kernelPrefix, deploymentName);
+        log.info("Deployment name: {}{}, temperature: {}, max tokens: {}.", resolvedDeploymentName,
+                routed ? " (routed)" : StringUtils.EMPTY, temperature, maxTokens);
+
+        Mono<ChatHistory> documents = documentRetriever.retrieveContext(input)
+                .map(SemanticKernelService::toDocuments)
+                .cache();
+        Function<String, Mono<List<String>>> answer = name -> answerOn(name, kernelPrefix, sessionConversation,
+                documents, input, temperature, maxTokens);
+        Mono<List<String>> answers = routed
+                ? deploymentRouter.invoke(resolvedDeploymentName, requiresToolCalling(kernelPrefix), answer)
+                : answer.apply(resolvedDeploymentName);
+        return answers
+                .map(result -> result.get(0))
+                .doOnNext(assistantMessage -> {
+                    sessionConversation.addTurn(new ChatTurn(input, assistantMessage));
+                    log.info("AI answer: {}", assistantMessage);
+                });
+    }
 
     /**
-     * Creates the kernel function arguments with the user prompt and chat history.
+     * Answers the input on one deployment.
+     * <p>
+     * The history is compacted to the token budget of the deployment, and the answer is looked up in and stored to
+     * the caches under that deployment, so that a hedged answer is only served to requests for the deployment that
+     * produced it. Answers are looked up in the exact-match completion cache. Prompts without preceding history and
+     * without retrieved documents depend on the input only, so unless they are answered from live plugin data they
+     * also go through the semantic response cache, which is keyed by the input.
+     */
+    private Mono<List<String>> answerOn(String deploymentName, String kernelPrefix, Conversation sessionConversation,
+            Mono<ChatHistory> retrievedDocuments, String input, Double temperature, Integer maxTokens) {
+
+        Double effectiveTemperature = ObjectUtils.defaultIfNull(temperature, defaultTemperature);
+        return Mono.zip(chatHistoryCompactor.compact(sessionConversation, deploymentName), retrievedDocuments)
+                .flatMap(historyAndDocuments -> {
+                    ChatHistory history = historyAndDocuments.getT1();
+                    ChatHistory documents = historyAndDocuments.getT2();
+                    Mono<List<String>> kernelInvocation = invokeKernel(kernelPrefix, deploymentName, history,
+                            documents, input, temperature, maxTokens);
+
+                    if (usesLiveData(kernelPrefix)) {
+                        return kernelInvocation;
+                    }
+
+                    Mono<List<String>> invocation = kernelInvocation;
+                    if (history.getMessages().isEmpty() && documents.getMessages().isEmpty()) {
+                        String cacheScope = semanticResponseCache.scope(kernelPrefix, deploymentName,
+                                effectiveTemperature);
+                        invocation = semanticResponseCache.getOrCompute(cacheScope, input, () -> kernelInvocation);
+                    }
+
+                    CompletionCacheKey completionCacheKey = new CompletionCacheKey(deploymentName,
+                            effectiveTemperature, ObjectUtils.defaultIfNull(maxTokens, defaultMaxTokens),
+                            hashPrompt(history, documents, input),
+                            getPluginSet(kernelRegistry.getPlugins(kernelPrefix)));
+                    Mono<List<String>> cachedInvocation = invocation;
+                    return completionCache.getOrCompute(completionCacheKey, () -> cachedInvocation);
+                });
+    }
+
+    private Mono<List<String>> invokeKernel(String kernelPrefix, String deploymentName, ChatHistory history,
+            ChatHistory documents, String input, Double temperature, Integer maxTokens) {
+
+        Kernel kernel = kernelRegistry.getKernel(kernelPrefix, deploymentName);
+        return invokeChatFunction(kernel, history, documents, input, deploymentName, temperature, maxTokens)
+                .map(response -> List.of(response.getResult()))
+                .transform(llmMetrics.timeRequest(deploymentName, kernelPrefix))
+                .transform(admissionControl.admit(deploymentName, estimatePromptTokens(history, documents, input),
+                        maxTokens));
+    }
+
+    /**
+     * Streams the assistant answer chunk by chunk as the model produces it.
+     * <p>
+     * The conversation is resolved on the calling (request) thread because the stream completes on a
+     * reactor thread where the request scope is not available. The full assistant message is appended to the
+     * conversation once the stream completes. Semantic Kernel cannot auto-invoke tools on a streaming completion, so
+     * for deployments with tool calling enabled the answer is produced by a regular invocation and emitted as a
+     * single chunk.
+     */
+    private Flux<String> streamOnKernelWithHistory(String kernelPrefix, String input, String deploymentName,
+            Double temperature, Integer maxTokens) {
+
+        boolean routed = isRouted(deploymentName);
+        String resolvedDeploymentName = selectDeploymentName(kernelPrefix, deploymentName);
+        Conversation sessionConversation = currentConversation();
+        Kernel kernel = kernelRegistry.getKernel(kernelPrefix, resolvedDeploymentName);
+        log.info("Streaming. Deployment name: {}{}, temperature: {}, max tokens: {}.", resolvedDeploymentName,
+                routed ? " (routed)" : StringUtils.EMPTY, temperature, maxTokens);
+
+        StringBuilder answer = new StringBuilder();
+        return Mono.zip(chatHistoryCompactor.compact(sessionConversation, resolvedDeploymentName),
+                        documentRetriever.retrieveContext(input).map(SemanticKernelService::toDocuments))
+                .flatMapMany(historyAndDocuments -> {
+                    ChatHistory history = historyAndDocuments.getT1();
+                    ChatHistory documents = historyAndDocuments.getT2();
+                    // estimated before the streaming path adds the input to the history
+                    int promptTokens = estimatePromptTokens(history, documents, input);
+                    Flux<String> stream = streamOnKernel(kernel, history, documents, input, resolvedDeploymentName,
+                            temperature, maxTokens)
+                            .transform(llmMetrics.timeStream(resolvedDeploymentName,
+                                    kernelPrefix + STREAM_OPERATION_SUFFIX))
+                            .transform(admissionControl.admitStream(resolvedDeploymentName, promptTokens, maxTokens));
+                    return routed ? stream.transform(deploymentRouter.recordStream(resolvedDeploymentName)) : stream;
+                })
+                .doOnNext(answer::append)
+                .doOnComplete(() -> {
+                    sessionConversation.addTurn(new ChatTurn(input, answer.toString()));
+                    log.info("AI answer: {}", answer);
+                });
+    }
+
+    private Flux<String> streamOnKernel(Kernel kernel, ChatHistory history, ChatHistory documents, String input,
+            String deploymentName, Double temperature, Integer maxTokens) {
+
+        if (modelConfiguration.isFeaturesAllowed(deploymentName)) {
+            return invokeChatFunction(kernel, history, documents, input, deploymentName, temperature, maxTokens)
+                    .map(FunctionResult::getResult)
+                    .flux();
+        }
+
+        documents.forEach(history::addMessage);
+        history.addUserMessage(input);
+        try {
+            return kernel.getService(ChatCompletionService.class)
+                    .getStreamingChatMessageContentsAsync(history, kernel,
+                            buildStreamingInvocationContext(temperature, maxTokens))
+                    .map(StreamingChatContent::getContent)
+                    .filter(StringUtils::isNotEmpty);
+        } catch (ServiceNotFoundException e) {
+            return Flux.error(e);
+        }
+    }
+
+    /**
+     * Invokes the chat function; the tool calls the model requests are prefetched while the invocation runs.
+     */
+    private Mono<FunctionResult<String>> invokeChatFunction(Kernel kernel, ChatHistory history, ChatHistory documents,
+            String input, String deploymentName, Double temperature, Integer maxTokens) {
+
+        return toolCallPrefetchHook.invoke(() -> kernel.invokeAsync(kernelRegistry.getChatFunction())
+                .withArguments(getKernelFunctionArguments(input, history, documents))
+                .withInvocationContext(buildInvocationContext(deploymentName, temperature, maxTokens)));
+    }
+
+    /**
+     * Creates the kernel function arguments with the user prompt, chat history and retrieved documents.
      *
      * @param input       the user's input
      * @param chatHistory the current chat history
+     * @param documents   system message with the retrieved document excerpts, empty if there are none
      * @return a {@link KernelFunctionArguments} instance containing the variables for the AI model
      */
 
-    private KernelFunctionArguments getKernelFunctionArguments(String input, ChatHistory chatHistory) {
+    private KernelFunctionArguments getKernelFunctionArguments(String input, ChatHistory chatHistory,
+            ChatHistory documents) {
 
         return KernelFunctionArguments.builder()
                 .withVariable("input", input)
                 .withVariable("chatHistory", chatHistory)
+                .withVariable("documents", documents)
+                .build();
+    }
+
+    /**
+     * Wraps the retrieved context into a history, so that the prompt template renders it as an escaped system
+     * message, or renders nothing when it is empty.
+     */
+    private static ChatHistory toDocuments(String context) {
+
+        ChatHistory documents = new ChatHistory();
+        if (StringUtils.isNotEmpty(context)) {
+            documents.addSystemMessage(context);
+        }
+        return documents;
+    }
+
+    private static String hashPrompt(ChatHistory history, ChatHistory documents, String input) {
+
+        List<String> promptParts = new ArrayList<>();
+        history.forEach(message -> {
+            promptParts.add(String.valueOf(message.getAuthorRole()));
+            promptParts.add(message.getContent());
+        });
+        documents.forEach(message -> promptParts.add(message.getContent()));
+        promptParts.add(input);
+        return CompletionCacheKey.hash(promptParts);
+    }
+
+    private static int estimatePromptTokens(ChatHistory history, ChatHistory documents, String input) {
+
+        return Stream.concat(history.getMessages().stream(), documents.getMessages().stream())
+                .mapToInt(message -> TokenBudget.estimateTokens(StringUtils.defaultString(message.getContent())))
+                .sum() + TokenBudget.estimateTokens(input);
+    }
+
+    private static String getPluginSet(List<KernelPlugin> kernelPlugins) {
+
+        return kernelPlugins.stream()
+                .map(KernelPlugin::getName)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Resolves the conversation of the current request, unwrapping the scoped proxy so that the returned instance
+     * stays usable outside the request thread.
+     *
+     * @return the {@link Conversation} of the current request
+     */
+    private Conversation currentConversation() {
+
+        return conversation instanceof ScopedObject scopedObject
+                ? (Conversation) scopedObject.getTargetObject()
+                : conversation;
+    }
+
+    private InvocationContext buildStreamingInvocationContext(Double temperature, Integer maxTokens) {
+
+        PromptExecutionSettings promptExecutionSettings = PromptExecutionSettings.builder()
+                .withTemperature(ObjectUtils.defaultIfNull(temperature, defaultTemperature))
+                .withMaxTokens(ObjectUtils.defaultIfNull(maxTokens, defaultMaxTokens))
+                .build();
+
+        return InvocationContext.builder()
+                .withReturnMode(InvocationReturnMode.NEW_MESSAGES_ONLY)
+                .withPromptExecutionSettings(promptExecutionSettings)
                 .build();
     }
 
@@ -0,0 +1,27 @@
+package com.epam.training.gen.ai.util;
+
+import java.time.Duration;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Renders the age of cached upstream data in tool results, e.g. {@code 5 min}.
+ */
+@UtilityClass
+public class AgeFormatter {
+
+    public static String format(Duration age) {
+
+        long seconds = Math.max(age.toSeconds(), 0);
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        if (seconds < 3_600) {
+            return seconds / 60 + " min";
+        }
+        if (seconds < 86_400) {
+            return seconds / 3_600 + " h";
+        }
+        return seconds / 86_400 + " d";
+    }
+}
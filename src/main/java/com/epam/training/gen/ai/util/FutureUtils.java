@@ -0,0 +1,47 @@
+package com.epam.training.gen.ai.util;
+
+import java.util.function.Supplier;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bridges {@link ListenableFuture} based clients (e.g. Qdrant gRPC client) to Reactor.
+ */
+@UtilityClass
+public class FutureUtils {
+
+    /**
+     * Creates a {@link Mono} that starts the future on subscription and cancels it when the subscriber cancels.
+     *
+     * @param futureSupplier supplier that starts the asynchronous operation
+     * @param <T>            result type
+     * @return a lazy {@link Mono} completing with the future result
+     */
+    public static <T> Mono<T> toMono(Supplier<ListenableFuture<T>> futureSupplier) {
+
+        return Mono.create(sink -> {
+            ListenableFuture<T> future = futureSupplier.get();
+            sink.onCancel(() -> future.cancel(false));
+            Futures.addCallback(future, new FutureCallback<>() {
+
+                @Override
+                public void onSuccess(T result) {
+
+                    sink.success(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+
+                    sink.error(t);
+                }
+            }, MoreExecutors.directExecutor());
+        });
+    }
+}
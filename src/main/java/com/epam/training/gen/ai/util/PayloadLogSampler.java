@@ -0,0 +1,39 @@
+package com.epam.training.gen.ai.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+/**
+ * Logs large payloads only for every n-th call and caps their length.
+ * <p>
+ * The payload is rendered lazily, so skipped calls do not pay for {@code toString()}.
+ */
+public class PayloadLogSampler {
+
+    /**
+     * The shortest length {@link StringUtils#abbreviate(String, int)} accepts: one character and the ellipsis.
+     */
+    private static final int MIN_MAX_LENGTH = 4;
+
+    private final Logger logger;
+    private final int sampleEvery;
+    private final int maxLength;
+    private final AtomicLong counter = new AtomicLong();
+
+    public PayloadLogSampler(Logger logger, int sampleEvery, int maxLength) {
+
+        this.logger = logger;
+        this.sampleEvery = Math.max(sampleEvery, 1);
+        this.maxLength = Math.max(maxLength, MIN_MAX_LENGTH);
+    }
+
+    public void log(String message, Supplier<?> payload) {
+
+        if (logger.isInfoEnabled() && counter.getAndIncrement() % sampleEvery == 0) {
+            logger.info(message, StringUtils.abbreviate(String.valueOf(payload.get()), maxLength));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.epam.training.gen.ai.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Rough prompt token accounting.
+ * <p>
+ * Uses the common approximation of four characters per token, which is close enough for English text and numbers
+ * to keep prompt parts within a budget without running a tokenizer.
+ */
+@UtilityClass
+public class TokenBudget {
+
+    public static final String TRUNCATION_MARK = " ...(truncated)";
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    public static int estimateTokens(CharSequence text) {
+
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public static int maxChars(int tokenBudget) {
+
+        return Math.max(tokenBudget, 0) * CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Cuts the text to the budget, preferring the last entry separator ({@code ;}) before the limit.
+     *
+     * @param text        tool result
+     * @param tokenBudget maximal number of tokens
+     * @return the text itself when it fits, otherwise its truncated prefix with {@link #TRUNCATION_MARK}
+     */
+    public static String truncate(String text, int tokenBudget) {
+
+        int maxChars = maxChars(tokenBudget);
+        if (text.length() <= maxChars) {
+            return text;
+        }
+
+        int limit = Math.max(maxChars - TRUNCATION_MARK.length(), 0);
+        int separator = text.lastIndexOf(';', limit - 1);
+        int end = separator > 0 ? separator + 1 : limit;
+        return text.substring(0, end) + TRUNCATION_MARK;
+    }
+}
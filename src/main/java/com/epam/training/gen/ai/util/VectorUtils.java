@@ -0,0 +1,44 @@
+package com.epam.training.gen.ai.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Cosine similarity helpers of the in-memory vector stores.
+ */
+@UtilityClass
+public class VectorUtils {
+
+    /**
+     * Scales the vector to unit length, so that the dot product of normalized vectors is their cosine similarity.
+     *
+     * @param vector vector
+     * @return new normalized vector, all zeros for a zero vector
+     */
+    public static float[] normalize(float[] vector) {
+
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    /**
+     * @return dot product, -1 for vectors of different dimensions
+     */
+    public static double dot(float[] first, float[] second) {
+
+        if (first.length != second.length) {
+            return -1;
+        }
+        double result = 0;
+        for (int i = 0; i < first.length; i++) {
+            result += first[i] * second[i];
+        }
+        return result;
+    }
+}
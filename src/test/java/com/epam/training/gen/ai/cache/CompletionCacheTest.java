@@ -0,0 +1,109 @@
+package com.epam.training.gen.ai.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.epam.training.gen.ai.config.cache.CompletionCacheProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class CompletionCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-11-20T10:15:00Z");
+
+    private final CompletionCacheProperties properties = new CompletionCacheProperties();
+    private final Clock clock = mock(Clock.class);
+    private final List<String> requestedPrompts = new ArrayList<>();
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondMaxSize() {
+
+        // an entry of a 100 character answer takes 592 estimated bytes, so two of them fit
+        properties.setMaxSize(DataSize.ofBytes(1_300));
+        when(clock.instant()).thenReturn(NOW);
+        CompletionCache completionCache = new CompletionCache(properties, clock);
+
+        get(completionCache, "first");
+        get(completionCache, "second");
+        get(completionCache, "first");
+        get(completionCache, "third");
+        get(completionCache, "first");
+        get(completionCache, "second");
+
+        assertThat(requestedPrompts).containsExactly("first", "second", "third", "second");
+        assertThat(completionCache.getHitCount()).isEqualTo(2);
+        assertThat(completionCache.getEvictionCount()).isEqualTo(2);
+        assertThat(completionCache.getSizeInBytes()).isLessThanOrEqualTo(1_300);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+
+        properties.setTtl(Duration.ofMinutes(30));
+        when(clock.instant()).thenReturn(NOW);
+        CompletionCache completionCache = new CompletionCache(properties, clock);
+
+        get(completionCache, "prompt");
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(29)));
+        get(completionCache, "prompt");
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(31)));
+        get(completionCache, "prompt");
+
+        assertThat(requestedPrompts).containsExactly("prompt", "prompt");
+        assertThat(completionCache.getHitCount()).isEqualTo(1);
+        assertThat(completionCache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneRequest() {
+
+        when(clock.instant()).thenReturn(NOW);
+        CompletionCache completionCache = new CompletionCache(properties, clock);
+        Sinks.One<List<String>> answer = Sinks.one();
+        AtomicInteger requests = new AtomicInteger();
+        CompletionCacheKey key = key("prompt");
+
+        Mono<List<String>> first = completionCache.getOrCompute(key, () -> {
+            requests.incrementAndGet();
+            return answer.asMono();
+        });
+        Mono<List<String>> second = completionCache.getOrCompute(key, () -> {
+            requests.incrementAndGet();
+            return answer.asMono();
+        });
+        List<List<String>> answers = new ArrayList<>();
+        first.subscribe(answers::add);
+        second.subscribe(answers::add);
+        answer.tryEmitValue(List.of("answer"));
+
+        assertThat(answers).containsExactly(List.of("answer"), List.of("answer"));
+        assertThat(requests).hasValue(1);
+        assertThat(completionCache.getOrCompute(key, () -> Mono.error(new IllegalStateException())).block())
+                .containsExactly("answer");
+    }
+
+    private void get(CompletionCache completionCache, String prompt) {
+
+        completionCache.getOrCompute(key(prompt), () -> {
+            requestedPrompts.add(prompt);
+            return Mono.just(List.of("a".repeat(100)));
+        }).block();
+    }
+
+    private static CompletionCacheKey key(String prompt) {
+
+        return new CompletionCacheKey("gpt", 0.0, 256, CompletionCacheKey.hash(List.of(prompt)), "p");
+    }
+}
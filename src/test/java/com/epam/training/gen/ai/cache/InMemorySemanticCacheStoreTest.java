@@ -0,0 +1,47 @@
+package com.epam.training.gen.ai.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InMemorySemanticCacheStoreTest {
+
+    private static final String SCOPE = "semantic_cache_openai_gpt-35-turbo_default";
+
+    private final InMemorySemanticCacheStore store = new InMemorySemanticCacheStore(2);
+
+    @Test
+    void findNearestReturnsAnswersOfSimilarPrompt() {
+
+        store.put(SCOPE, new float[] {1f, 0f, 0f}, List.of("EUR = 4.27 PLN"), Duration.ofMinutes(1)).block();
+
+        assertThat(store.findNearest(SCOPE, new float[] {0.99f, 0.05f, 0f}, 0.95).block())
+                .containsExactly("EUR = 4.27 PLN");
+    }
+
+    @Test
+    void findNearestIgnoresDissimilarPromptsAndOtherScopes() {
+
+        store.put(SCOPE, new float[] {1f, 0f, 0f}, List.of("EUR = 4.27 PLN"), Duration.ofMinutes(1)).block();
+
+        assertThat(store.findNearest(SCOPE, new float[] {0f, 1f, 0f}, 0.95).block()).isNull();
+        assertThat(store.findNearest("other", new float[] {1f, 0f, 0f}, 0.95).block()).isNull();
+    }
+
+    @Test
+    void expiredAndOverflowingEntriesAreDropped() {
+
+        store.put(SCOPE, new float[] {1f, 0f, 0f}, List.of("expired"), Duration.ZERO.minusSeconds(1)).block();
+        assertThat(store.findNearest(SCOPE, new float[] {1f, 0f, 0f}, 0.95).block()).isNull();
+
+        store.put(SCOPE, new float[] {0f, 1f, 0f}, List.of("first"), Duration.ofMinutes(1)).block();
+        store.put(SCOPE, new float[] {0f, 0f, 1f}, List.of("second"), Duration.ofMinutes(1)).block();
+        store.put(SCOPE, new float[] {1f, 1f, 0f}, List.of("third"), Duration.ofMinutes(1)).block();
+
+        assertThat(store.findNearest(SCOPE, new float[] {0f, 1f, 0f}, 0.95).block()).isNull();
+        assertThat(store.findNearest(SCOPE, new float[] {0f, 0f, 1f}, 0.95).block()).containsExactly("second");
+    }
+}
@@ -0,0 +1,66 @@
+package com.epam.training.gen.ai.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileEmbeddingCacheTest {
+
+    private static final String MODEL = "text-embedding-ada-002";
+    private static final int DIMENSION = 8;
+    // a few records per segment, so that records roll over to new segments
+    private static final int SEGMENT_SIZE = 128;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresVectorsAfterReopening() throws Exception {
+
+        Path file = directory.resolve("embeddings.bin");
+        List<String> texts = IntStream.range(0, 100).mapToObj(i -> "text " + i).toList();
+        List<float[]> vectors = texts.stream().map(MappedFileEmbeddingCacheTest::vector).toList();
+
+        // the index starts with room for a single vector and grows
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, SEGMENT_SIZE, 1)) {
+            cache.putAll(MODEL, texts, vectors);
+            cache.putAll(MODEL, texts.subList(0, 10), vectors.subList(0, 10));
+
+            assertThat(cache.size()).isEqualTo(100);
+        }
+
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(file, SEGMENT_SIZE, 1)) {
+            assertThat(cache.size()).isEqualTo(100);
+            assertThat(cache.getAll(MODEL, texts)).containsExactlyElementsOf(vectors);
+        }
+    }
+
+    @Test
+    void addressesVectorsByModelAndContent() throws Exception {
+
+        try (MappedFileEmbeddingCache cache =
+                new MappedFileEmbeddingCache(directory.resolve("embeddings.bin"), SEGMENT_SIZE, 16)) {
+            cache.putAll(MODEL, List.of("cached"), List.of(vector("cached")));
+
+            List<float[]> found = cache.getAll(MODEL, List.of("missing", "cached", "Cached"));
+            List<float[]> otherModel = cache.getAll("text-embedding-3-small", List.of("cached"));
+
+            assertThat(found).containsExactly(null, vector("cached"), null);
+            assertThat(otherModel).containsOnlyNulls();
+        }
+    }
+
+    private static float[] vector(String text) {
+
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (text.hashCode() % 1000 + i) / 1000f;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,58 @@
+package com.epam.training.gen.ai.config.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.epam.training.gen.ai.history.ChatSessionStore;
+
+class ChatSessionConfigurationTest {
+
+    private final ChatSessionConfiguration configuration = new ChatSessionConfiguration();
+
+    private final ChatSessionStore chatSessionStore = mock(ChatSessionStore.class);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void issuesNewIdForClientChosenId() {
+
+        request.addHeader(ChatSessionConfiguration.CONVERSATION_ID_HEADER, "chat-of-another-user");
+
+        configuration.conversation(chatSessionStore, request, response);
+
+        String issuedId = response.getHeader(ChatSessionConfiguration.CONVERSATION_ID_HEADER);
+        assertThat(ChatSessionConfiguration.isIssuedId(issuedId)).isTrue();
+        verify(chatSessionStore).getConversation(issuedId);
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void keepsIssuedId() {
+
+        String issuedId = UUID.randomUUID().toString();
+        request.addHeader(ChatSessionConfiguration.CONVERSATION_ID_HEADER, issuedId);
+
+        configuration.conversation(chatSessionStore, request, response);
+
+        verify(chatSessionStore).getConversation(issuedId);
+        assertThat(response.getHeader(ChatSessionConfiguration.CONVERSATION_ID_HEADER)).isNull();
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void fallsBackToSessionWithoutHeader() {
+
+        configuration.conversation(chatSessionStore, request, response);
+
+        verify(chatSessionStore).getConversation(request.getSession(false).getId());
+    }
+}
@@ -0,0 +1,142 @@
+package com.epam.training.gen.ai.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.models.ChatChoice;
+import com.azure.ai.openai.models.ChatCompletions;
+import com.azure.ai.openai.models.ChatCompletionsOptions;
+import com.azure.ai.openai.models.ChatResponseMessage;
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.config.history.ChatHistoryProperties;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.microsoft.semantickernel.services.chatcompletion.AuthorRole;
+import com.microsoft.semantickernel.services.chatcompletion.ChatHistory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class ChatHistoryCompactorTest {
+
+    private static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    private final OpenAIAsyncClient openAIAsyncClient = mock(OpenAIAsyncClient.class);
+    private final ChatHistoryProperties properties = new ChatHistoryProperties();
+    private final ChatHistoryCompactor compactor =
+            new ChatHistoryCompactor(openAIAsyncClient, properties, llmMetrics(), DEPLOYMENT_NAME);
+
+    @Test
+    void keepsShortConversationVerbatim() {
+
+        Conversation conversation = conversationOf(3);
+
+        ChatHistory history = compactor.compact(conversation, DEPLOYMENT_NAME).block();
+
+        assertThat(history.getMessages()).hasSize(6);
+        verify(openAIAsyncClient, never()).getChatCompletions(any(), any(ChatCompletionsOptions.class));
+    }
+
+    @Test
+    void foldsOldestTurnsIntoSummary() {
+
+        ChatCompletions completions = completionsOf("User asked about questions 0-3.");
+        when(openAIAsyncClient.getChatCompletions(eq(DEPLOYMENT_NAME), any(ChatCompletionsOptions.class)))
+                .thenReturn(Mono.just(completions));
+        Conversation conversation = conversationOf(10);
+
+        ChatHistory history = compactor.compact(conversation, DEPLOYMENT_NAME).block();
+
+        assertThat(history.getMessages()).hasSize(1 + 2 * properties.getKeepTurns());
+        assertThat(history.getMessages().get(0).getAuthorRole()).isEqualTo(AuthorRole.SYSTEM);
+        assertThat(history.getMessages().get(0).getContent()).endsWith("User asked about questions 0-3.");
+        assertThat(history.getMessages().get(1).getContent()).isEqualTo("question 4");
+
+        ConversationSnapshot snapshot = conversation.snapshot();
+        assertThat(snapshot.foldedTurns()).isEqualTo(4);
+        assertThat(snapshot.turns()).hasSize(properties.getKeepTurns());
+    }
+
+    @Test
+    void fallsBackToSlidingWindowWithinTokenBudget() {
+
+        when(openAIAsyncClient.getChatCompletions(eq(DEPLOYMENT_NAME), any(ChatCompletionsOptions.class)))
+                .thenReturn(Mono.error(new IllegalStateException("Service unavailable")));
+        properties.getTokenBudget().put(DEPLOYMENT_NAME, 10);
+        Conversation conversation = conversationOf(10);
+
+        ChatHistory history = compactor.compact(conversation, DEPLOYMENT_NAME).block();
+
+        assertThat(history.getMessages()).hasSize(4);
+        assertThat(history.getMessages().get(0).getContent()).isEqualTo("question 8");
+        assertThat(conversation.snapshot().turns()).hasSize(10);
+    }
+
+    @Test
+    void sendsLatestTurnsAndBacksOffAfterFailedFold() {
+
+        when(openAIAsyncClient.getChatCompletions(eq(DEPLOYMENT_NAME), any(ChatCompletionsOptions.class)))
+                .thenReturn(Mono.error(new IllegalStateException("Service unavailable")));
+        Clock clock = mock(Clock.class);
+        Instant failedAt = Instant.parse("2024-11-20T10:00:00Z");
+        when(clock.instant()).thenReturn(failedAt);
+        ChatHistoryCompactor compactor =
+                new ChatHistoryCompactor(openAIAsyncClient, properties, llmMetrics(), DEPLOYMENT_NAME, clock);
+        Conversation conversation = conversationOf(10);
+
+        ChatHistory history = compactor.compact(conversation, DEPLOYMENT_NAME).block();
+        when(clock.instant()).thenReturn(failedAt.plus(properties.getFoldRetryDelay()).minusSeconds(1));
+        compactor.compact(conversation, DEPLOYMENT_NAME).block();
+
+        assertThat(history.getMessages()).hasSize(2 * properties.getKeepTurns());
+        assertThat(history.getMessages().get(0).getContent()).isEqualTo("question 4");
+        verify(openAIAsyncClient).getChatCompletions(eq(DEPLOYMENT_NAME), any(ChatCompletionsOptions.class));
+
+        when(clock.instant()).thenReturn(failedAt.plus(properties.getFoldRetryDelay()));
+        compactor.compact(conversation, DEPLOYMENT_NAME).block();
+
+        verify(openAIAsyncClient, times(2)).getChatCompletions(eq(DEPLOYMENT_NAME), any(ChatCompletionsOptions.class));
+        assertThat(conversation.snapshot().turns()).hasSize(10);
+    }
+
+    private static Conversation conversationOf(int turns) {
+
+        Conversation conversation = new Conversation();
+        for (int i = 0; i < turns; i++) {
+            conversation.addTurn(new ChatTurn("question " + i, "answer " + i));
+        }
+        return conversation;
+    }
+
+    private static ChatCompletions completionsOf(String content) {
+
+        ChatResponseMessage message = mock(ChatResponseMessage.class);
+        when(message.getContent()).thenReturn(content);
+        ChatChoice choice = mock(ChatChoice.class);
+        when(choice.getMessage()).thenReturn(message);
+        ChatCompletions completions = mock(ChatCompletions.class);
+        when(completions.getChoices()).thenReturn(List.of(choice));
+        return completions;
+    }
+
+    private static LlmMetrics llmMetrics() {
+
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(Map.of());
+        modelConfiguration.setDefaultDeploymentName(DEPLOYMENT_NAME);
+        return new LlmMetrics(new SimpleMeterRegistry(), modelConfiguration);
+    }
+}
@@ -0,0 +1,122 @@
+package com.epam.training.gen.ai.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileChatSessionStoreTest {
+
+    private static final int SEGMENT_SIZE = 256;
+    private static final long MAX_SIZE = 4 * SEGMENT_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresConversationsAfterReopening() throws Exception {
+
+        Path file = directory.resolve("chat-sessions.log");
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            Conversation first = store.getConversation("first");
+            Conversation second = store.getConversation("second");
+            for (int i = 0; i < 5; i++) {
+                first.addTurn(new ChatTurn("question " + i, "answer " + i));
+                second.addTurn(new ChatTurn("вопрос " + i, "ответ " + i));
+            }
+            first.fold(first.snapshot(), 3, "Questions 0-2 were answered.");
+            first.addTurn(new ChatTurn("question 5", "answer 5"));
+        }
+
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            ConversationSnapshot first = store.getConversation("first").snapshot();
+            assertThat(first.summary()).isEqualTo("Questions 0-2 were answered.");
+            assertThat(first.foldedTurns()).isEqualTo(3);
+            assertThat(first.turns()).extracting(ChatTurn::userMessage)
+                    .containsExactly("question 3", "question 4", "question 5");
+
+            ConversationSnapshot second = store.getConversation("second").snapshot();
+            assertThat(second.summary()).isNull();
+            assertThat(second.turns()).hasSize(5);
+            assertThat(second.turns().get(4)).isEqualTo(new ChatTurn("вопрос 4", "ответ 4"));
+
+            assertThat(store.getConversation("unknown").snapshot().isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void storesTurnsWithoutAnswer() throws Exception {
+
+        Path file = directory.resolve("chat-sessions.log");
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            Conversation conversation = store.getConversation("id");
+            conversation.addTurn(new ChatTurn("question", null));
+            conversation.fold(conversation.snapshot(), 0, null);
+        }
+
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            assertThat(store.getConversation("id").snapshot().turns()).containsExactly(new ChatTurn("question", null));
+        }
+    }
+
+    @Test
+    void reloadsEvictedConversationLazily() throws Exception {
+
+        try (MappedFileChatSessionStore store =
+                new MappedFileChatSessionStore(directory.resolve("chat-sessions.log"), SEGMENT_SIZE, MAX_SIZE)) {
+            Conversation conversation = store.getConversation("id");
+            conversation.addTurn(new ChatTurn("question", "answer"));
+
+            assertThat(store.evictIdle(Duration.ZERO)).isEqualTo(1);
+            Conversation reloaded = store.getConversation("id");
+
+            assertThat(reloaded).isNotSameAs(conversation);
+            assertThat(reloaded.snapshot().turns()).containsExactly(new ChatTurn("question", "answer"));
+            assertThat(store.evictIdle(Duration.ofMinutes(1))).isZero();
+            assertThat(store.getConversation("id")).isSameAs(reloaded);
+        }
+    }
+
+    @Test
+    void compactsFileWhenMaxSizeIsReached() throws Exception {
+
+        Path file = directory.resolve("chat-sessions.log");
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            Conversation conversation = store.getConversation("id");
+            // far more records than fit into the file, while only the latest turns are kept
+            for (int i = 0; i < 100; i++) {
+                conversation.addTurn(new ChatTurn("question " + i, "answer " + i));
+                conversation.fold(conversation.snapshot(), 1, "Questions 0-" + i + " were answered.");
+            }
+            conversation.addTurn(new ChatTurn("question 100", "answer 100"));
+        }
+
+        assertThat(Files.size(file)).isLessThanOrEqualTo(MAX_SIZE);
+        try (MappedFileChatSessionStore store = new MappedFileChatSessionStore(file, SEGMENT_SIZE, MAX_SIZE)) {
+            ConversationSnapshot snapshot = store.getConversation("id").snapshot();
+            assertThat(snapshot.summary()).isEqualTo("Questions 0-99 were answered.");
+            assertThat(snapshot.foldedTurns()).isEqualTo(100);
+            assertThat(snapshot.turns()).containsExactly(new ChatTurn("question 100", "answer 100"));
+        }
+    }
+
+    @Test
+    void rejectsTurnWhenConversationsDoNotFitAfterCompaction() throws Exception {
+
+        try (MappedFileChatSessionStore store =
+                new MappedFileChatSessionStore(directory.resolve("chat-sessions.log"), SEGMENT_SIZE, MAX_SIZE)) {
+            Conversation conversation = store.getConversation("id");
+
+            assertThatThrownBy(() -> {
+                for (int i = 0; i < 100; i++) {
+                    conversation.addTurn(new ChatTurn("question " + i, "answer " + i));
+                }
+            }).isInstanceOf(IllegalStateException.class).hasMessageContaining("chat-session.file-max-size");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.epam.training.gen.ai.kernel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.microsoft.semantickernel.semanticfunctions.KernelFunction;
+
+class KernelRegistryTest {
+
+    private static final String TEMPLATE = """
+            {{$chatHistory}}
+            <message role="user">{{$input}}</message>""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recompilesChatTemplateOnlyWhenChanged() throws Exception {
+
+        Path template = Files.writeString(directory.resolve("chat.prompt"), TEMPLATE);
+        KernelRegistry kernelRegistry = new KernelRegistry(new ModelConfiguration(), null, null,
+                new FileSystemResource(template));
+        KernelFunction<String> compiled = kernelRegistry.getChatFunction();
+
+        kernelRegistry.reloadChanged();
+        assertThat(kernelRegistry.getChatFunction()).isSameAs(compiled);
+
+        Files.writeString(template, "<message role=\"system\">Be brief.</message>\n" + TEMPLATE);
+        assertThat(template.toFile().setLastModified(template.toFile().lastModified() + 1000)).isTrue();
+        kernelRegistry.reloadChanged();
+        assertThat(kernelRegistry.getChatFunction()).isNotSameAs(compiled);
+    }
+}
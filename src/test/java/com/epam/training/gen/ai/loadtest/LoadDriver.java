@@ -0,0 +1,154 @@
+package com.epam.training.gen.ai.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator.
+ * <p>
+ * Each of {@code concurrency} virtual threads sends the next request as soon as the previous one completes, so the
+ * offered load adapts to the latency of the application. Every request is a new HTTP session, i.e. a new
+ * conversation.
+ */
+public class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final URI baseUri;
+    private final int concurrency;
+    private final HttpClient httpClient;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LoadDriver(URI baseUri, int concurrency) {
+
+        this.baseUri = baseUri;
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public LoadResult run(LoadScenario scenario, Duration duration) throws InterruptedException {
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + duration.toNanos();
+        List<Worker> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker(scenario, deadlineNanos);
+                workers.add(worker);
+                futures.add(executor.submit(worker::run));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed.", e.getCause());
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        long requests = 0;
+        long errors = 0;
+        int successes = 0;
+        for (Worker worker : workers) {
+            requests += worker.requests;
+            errors += worker.errors;
+            successes += worker.latencies.size();
+        }
+        long[] latencies = new long[successes];
+        long[] firstByteLatencies = new long[successes];
+        int offset = 0;
+        for (Worker worker : workers) {
+            for (int i = 0; i < worker.latencies.size(); i++, offset++) {
+                latencies[offset] = worker.latencies.get(i);
+                firstByteLatencies[offset] = worker.firstByteLatencies.get(i);
+            }
+        }
+        Arrays.sort(latencies);
+        Arrays.sort(firstByteLatencies);
+        return new LoadResult(scenario.name(), requests, errors, elapsed, latencies, firstByteLatencies);
+    }
+
+    private HttpRequest buildRequest(LoadScenario scenario) {
+
+        String body;
+        if (scenario.batchSize() > 0) {
+            List<String> prompts = new ArrayList<>();
+            for (int i = 0; i < scenario.batchSize(); i++) {
+                prompts.add(buildPrompt(scenario));
+            }
+            body = "[" + String.join(",", prompts) + "]";
+        } else {
+            body = buildPrompt(scenario);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(scenario.path()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        scenario.headers().forEach(request::header);
+        return request.build();
+    }
+
+    private String buildPrompt(LoadScenario scenario) {
+
+        return "{\"input\":\"" + scenario.prompt() + " #" + sequence.incrementAndGet() + "\"}";
+    }
+
+    private final class Worker {
+
+        private final LoadScenario scenario;
+        private final long deadlineNanos;
+        private final List<Long> latencies = new ArrayList<>();
+        private final List<Long> firstByteLatencies = new ArrayList<>();
+        private long requests;
+        private long errors;
+
+        private Worker(LoadScenario scenario, long deadlineNanos) {
+
+            this.scenario = scenario;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private void run() {
+
+            while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+                long startNanos = System.nanoTime();
+                requests++;
+                try {
+                    HttpResponse<InputStream> response = httpClient.send(buildRequest(scenario),
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream body = response.body()) {
+                        int firstByte = body.read();
+                        long firstByteNanos = System.nanoTime() - startNanos;
+                        body.transferTo(OutputStream.nullOutputStream());
+                        if (response.statusCode() / 100 != 2 || firstByte < 0) {
+                            errors++;
+                            continue;
+                        }
+                        firstByteLatencies.add(firstByteNanos);
+                        latencies.add(System.nanoTime() - startNanos);
+                    }
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.epam.training.gen.ai.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one {@link LoadScenario}.
+ *
+ * @param scenario           name of the scenario
+ * @param requests           completed requests including failed ones
+ * @param errors             requests failed with an I/O error or a non-2xx status
+ * @param elapsed            duration of the run
+ * @param latencies          sorted latencies of successful requests in nanoseconds
+ * @param firstByteLatencies sorted times to the first response byte of successful requests in nanoseconds
+ */
+public record LoadResult(String scenario, long requests, long errors, Duration elapsed, long[] latencies,
+        long[] firstByteLatencies) {
+
+    public double throughput() {
+
+        return requests / (elapsed.toNanos() / 1e9);
+    }
+
+    public Duration latency(double percentile) {
+
+        return percentile(latencies, percentile);
+    }
+
+    public Duration firstByteLatency(double percentile) {
+
+        return percentile(firstByteLatencies, percentile);
+    }
+
+    private static Duration percentile(long[] sortedNanos, double percentile) {
+
+        if (sortedNanos.length == 0) {
+            return Duration.ZERO;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+        return Duration.ofNanos(sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))]);
+    }
+}
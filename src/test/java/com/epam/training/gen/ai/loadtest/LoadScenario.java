@@ -0,0 +1,25 @@
+package com.epam.training.gen.ai.loadtest;
+
+import java.util.Map;
+
+/**
+ * Endpoint driven by the {@link LoadDriver}.
+ *
+ * @param name      name shown in the report
+ * @param path      path of the endpoint
+ * @param prompt    prompt sent as the request input; a sequence number is appended to bypass the caches
+ * @param batchSize number of prompts sent as a JSON array to a batch endpoint, 0 to send a single prompt
+ * @param headers   additional request headers
+ */
+public record LoadScenario(String name, String path, String prompt, int batchSize, Map<String, String> headers) {
+
+    public LoadScenario(String name, String path, String prompt) {
+
+        this(name, path, prompt, 0, Map.of());
+    }
+
+    public LoadScenario(String name, String path, String prompt, int batchSize) {
+
+        this(name, path, prompt, batchSize, Map.of());
+    }
+}
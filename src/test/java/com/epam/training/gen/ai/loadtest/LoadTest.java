@@ -0,0 +1,118 @@
+package com.epam.training.gen.ai.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.epam.training.gen.ai.GenAiTrainingApplication;
+import com.epam.training.gen.ai.mock.LatencyDistribution;
+import com.epam.training.gen.ai.mock.MockRoute;
+import com.epam.training.gen.ai.mock.MockUpstreamServer;
+import com.epam.training.gen.ai.mock.RouteBehavior;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Offline end-to-end load test of the prompt endpoints.
+ * <p>
+ * Starts the {@link MockUpstreamServer} and the application with the {@code mock} profile on free ports, drives each
+ * scenario with {@link LoadDriver} after a warm-up and prints throughput, latency percentiles and the prompt tokens
+ * sent to the model per successful request. Settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.concurrency} - concurrent clients (16), twice the Tomcat threads of the {@code mock}
+ *     profile, so that requests only scale if the request path does not hold a thread while waiting;</li>
+ *     <li>{@code loadtest.duration}, {@code loadtest.warmup} - measured and warm-up time per scenario (PT20S, PT5S);
+ *     </li>
+ *     <li>{@code loadtest.scenarios} - comma-separated scenario names (all);</li>
+ *     <li>{@code loadtest.chat-latency-median}, {@code loadtest.chat-latency-p99} - chat completion latency
+ *     (PT0.4S, PT1.5S);</li>
+ *     <li>{@code loadtest.error-rate}, {@code loadtest.error-status} - injected chat completion errors (0, 503).</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    // prompts per batch request, as many as batch.concurrency processes at a time
+    private static final int BATCH_SIZE = 8;
+    private static final String PLACE_PROMPT =
+            "Could you provide currency exchange rate for The Netherlands and weather for 5 days?";
+    private static final List<LoadScenario> SCENARIOS = List.of(
+            new LoadScenario("open-ai", "/prompt/open-ai/send", "What is the semantic kernel?"),
+            new LoadScenario("sk", "/prompt/sk/send", "What is the semantic kernel?"),
+            new LoadScenario("sk-tools", "/prompt/sk/place/commonInfo", PLACE_PROMPT),
+            new LoadScenario("sk-tools-hourly", "/prompt/sk/place/commonInfo", PLACE_PROMPT, 0,
+                    Map.of("toolOutputFormat", "HOURLY")),
+            new LoadScenario("sk-stream", "/prompt/sk/send/stream", "What is the semantic kernel?"),
+            new LoadScenario("batch", "/prompt/open-ai/batch", "What is the semantic kernel?", BATCH_SIZE));
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+        List<String> scenarioNames = List.of(System.getProperty("loadtest.scenarios",
+                String.join(",", SCENARIOS.stream().map(LoadScenario::name).toList())).split(","));
+        LatencyDistribution chatLatency = new LatencyDistribution(
+                Duration.parse(System.getProperty("loadtest.chat-latency-median", "PT0.4S")),
+                Duration.parse(System.getProperty("loadtest.chat-latency-p99", "PT1.5S")));
+        double errorRate = Double.parseDouble(System.getProperty("loadtest.error-rate", "0"));
+        int errorStatus = Integer.getInteger("loadtest.error-status", 503);
+
+        try (MockUpstreamServer mockUpstreamServer = MockUpstreamServer.start(0)) {
+            mockUpstreamServer.setBehavior(MockRoute.CHAT_COMPLETIONS,
+                    new RouteBehavior(chatLatency, errorRate, errorStatus));
+            String mockUri = mockUpstreamServer.getBaseUri().toString();
+
+            List<String> applicationArgs = new ArrayList<>(List.of(args));
+            applicationArgs.addAll(List.of("--server.port=0", "--client-openai-endpoint=" + mockUri,
+                    "--client-nbp-url=" + mockUri, "--client-open-meteo-url=" + mockUri));
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GenAiTrainingApplication.class)
+                    .profiles("mock")
+                    .run(applicationArgs.toArray(String[]::new))) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                String serverThreads = context.getEnvironment().getProperty("server.tomcat.threads.max", "200");
+                LoadDriver loadDriver = new LoadDriver(URI.create("http://localhost:" + port), concurrency);
+
+                StringBuilder report = new StringBuilder(String.format("%nConcurrency %d, %s Tomcat threads, "
+                                + "%s per scenario, chat completion latency %s (p50) / %s (p99), error rate %s%n%n",
+                        concurrency, serverThreads, duration, chatLatency.median(), chatLatency.p99(), errorRate))
+                        .append(String.format("%-15s %9s %7s %9s %9s %9s %9s %11s%n", "scenario", "requests",
+                                "errors", "req/s", "p50 ms", "p99 ms", "ttfb p50", "prompt tok"));
+                for (LoadScenario scenario : SCENARIOS) {
+                    if (!scenarioNames.contains(scenario.name())) {
+                        continue;
+                    }
+                    loadDriver.run(scenario, warmup);
+                    double promptTokensBefore = promptTokens(meterRegistry);
+                    LoadResult result = loadDriver.run(scenario, duration);
+                    double promptTokens = promptTokens(meterRegistry) - promptTokensBefore;
+                    report.append(String.format("%-15s %9d %7d %9.1f %9d %9d %9d %11.0f%n", result.scenario(),
+                            result.requests(), result.errors(), result.throughput(), result.latency(50).toMillis(),
+                            result.latency(99).toMillis(), result.firstByteLatency(50).toMillis(),
+                            promptTokens / Math.max(result.requests() - result.errors(), 1)));
+                }
+                System.out.println(report);
+            }
+        }
+    }
+
+    /**
+     * Sums the prompt tokens of all chat completions reported by the model so far.
+     */
+    private static double promptTokens(MeterRegistry meterRegistry) {
+
+        return meterRegistry.find("llm.tokens").tag("type", "prompt").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
@@ -0,0 +1,57 @@
+package com.epam.training.gen.ai.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class LlmMetricsTest {
+
+    private static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmMetrics llmMetrics = new LlmMetrics(meterRegistry, modelConfiguration());
+
+    @Test
+    void timesRequestsWithBoundedDeploymentTag() {
+
+        Mono.just("answer").transform(llmMetrics.timeRequest(DEPLOYMENT_NAME, "simple")).block();
+        Mono<String> failed = Mono.<String>error(new IllegalStateException("Service unavailable"))
+                .transform(llmMetrics.timeRequest("user-supplied-deployment", "simple"));
+        assertThatThrownBy(failed::block).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("llm.requests")
+                .tags("deployment", DEPLOYMENT_NAME, "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("llm.requests")
+                .tags("deployment", LlmMetrics.OTHER_DEPLOYMENT, "outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("llm.requests.active").longTaskTimer().activeTasks()).isZero();
+    }
+
+    @Test
+    void recordsTimeToFirstTokenOncePerStream() {
+
+        Flux.just("The", " term", " semantic")
+                .transform(llmMetrics.timeStream(DEPLOYMENT_NAME, "simple-stream"))
+                .blockLast();
+
+        assertThat(meterRegistry.get("llm.time.to.first.token").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("llm.requests").tag("operation", "simple-stream").timer().count())
+                .isEqualTo(1);
+    }
+
+    private static ModelConfiguration modelConfiguration() {
+
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(Map.of());
+        modelConfiguration.setDefaultDeploymentName(DEPLOYMENT_NAME);
+        return modelConfiguration;
+    }
+}
@@ -0,0 +1,41 @@
+package com.epam.training.gen.ai.mock;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Log-normal latency distribution defined by its median and 99th percentile.
+ *
+ * @param median median latency
+ * @param p99    99th percentile latency, not lower than the median
+ */
+public record LatencyDistribution(Duration median, Duration p99) {
+
+    public static final LatencyDistribution NONE = fixed(Duration.ZERO);
+
+    /**
+     * Standard normal quantile of the 99th percentile.
+     */
+    private static final double Z_99 = 2.326;
+
+    public LatencyDistribution {
+
+        if (median.isNegative() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("Expected 0 <= median <= p99, got " + median + " and " + p99 + ".");
+        }
+    }
+
+    public static LatencyDistribution fixed(Duration latency) {
+
+        return new LatencyDistribution(latency, latency);
+    }
+
+    public Duration sample(RandomGenerator random) {
+
+        if (median.isZero() || median.equals(p99)) {
+            return median;
+        }
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        return Duration.ofNanos(Math.round(median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+    }
+}
@@ -0,0 +1,26 @@
+package com.epam.training.gen.ai.mock;
+
+import java.time.Duration;
+
+/**
+ * Upstream endpoints served by {@link MockUpstreamServer}, with their default behavior.
+ */
+public enum MockRoute {
+
+    CHAT_COMPLETIONS(RouteBehavior.of(Duration.ofMillis(400), Duration.ofMillis(1500))),
+    EMBEDDINGS(RouteBehavior.of(Duration.ofMillis(40), Duration.ofMillis(150))),
+    NBP_RATES(RouteBehavior.of(Duration.ofMillis(80), Duration.ofMillis(300))),
+    OPEN_METEO_FORECAST(RouteBehavior.of(Duration.ofMillis(100), Duration.ofMillis(400)));
+
+    private final RouteBehavior defaultBehavior;
+
+    MockRoute(RouteBehavior defaultBehavior) {
+
+        this.defaultBehavior = defaultBehavior;
+    }
+
+    public RouteBehavior getDefaultBehavior() {
+
+        return defaultBehavior;
+    }
+}
@@ -0,0 +1,441 @@
+package com.epam.training.gen.ai.mock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Offline stand-in for Azure OpenAI, NBP and Open-Meteo.
+ * <p>
+ * Speaks enough of each protocol for the application clients: Azure OpenAI chat completions (plain, with tool calls
+ * and streamed as server-sent events) and embeddings, NBP table A and Open-Meteo hourly forecasts. Each
+ * {@link MockRoute} has a configurable latency distribution and error rate; requests are served on virtual threads,
+ * so latency does not limit throughput.
+ * <p>
+ * The model asks for every offered {@code getCurrencyRate} and {@code getWeatherForecast} tool when the last message
+ * comes from the user, and answers with the tool results once they are sent back.
+ */
+public class MockUpstreamServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8090;
+
+    private static final Pattern OPEN_AI_PATH =
+            Pattern.compile("/openai/deployments/([^/]+)/(chat/completions|embeddings)");
+    private static final String CURRENCY_RATE_FUNCTION = "getCurrencyRate";
+    private static final String WEATHER_FORECAST_FUNCTION = "getWeatherForecast";
+    private static final int EMBEDDING_DIMENSIONS = 1536;
+    private static final int FORECAST_HOURS = 168;
+    private static final String[] ANSWER_WORDS = ("The semantic kernel is the core meaning of a text and the "
+            + "central ideas, concepts and key information that give the text its overall meaning").split(" ");
+    private static final String[] CURRENCY_CODES = {"THB", "USD", "AUD", "HKD", "CAD", "NZD", "SGD", "EUR", "HUF",
+            "CHF", "GBP", "UAH", "JPY", "CZK", "DKK", "ISK", "NOK", "SEK", "RON", "BGN", "TRY", "ILS", "CLP", "PHP",
+            "MXN", "ZAR", "BRL", "MYR", "IDR", "INR", "KRW", "CNY", "XDR"};
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<MockRoute, RouteBehavior> behaviors = new EnumMap<>(MockRoute.class);
+    private final Map<MockRoute, AtomicLong> requestCounts = new EnumMap<>(MockRoute.class);
+    private volatile LatencyDistribution streamChunkInterval =
+            new LatencyDistribution(Duration.ofMillis(20), Duration.ofMillis(60));
+    private volatile int answerWords = 60;
+
+    private MockUpstreamServer(int port) throws IOException {
+
+        for (MockRoute route : MockRoute.values()) {
+            behaviors.put(route, route.getDefaultBehavior());
+            requestCounts.put(route, new AtomicLong());
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param port port to listen on, {@code 0} for a free one
+     * @return the started server
+     */
+    public static MockUpstreamServer start(int port) throws IOException {
+
+        MockUpstreamServer mockUpstreamServer = new MockUpstreamServer(port);
+        mockUpstreamServer.server.start();
+        return mockUpstreamServer;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        MockUpstreamServer mockUpstreamServer = start(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+        System.out.println("Mock upstream server is listening on " + mockUpstreamServer.getBaseUri());
+    }
+
+    public URI getBaseUri() {
+
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public synchronized void setBehavior(MockRoute route, RouteBehavior behavior) {
+
+        behaviors.put(route, behavior);
+    }
+
+    public synchronized RouteBehavior getBehavior(MockRoute route) {
+
+        return behaviors.get(route);
+    }
+
+    /**
+     * Sets the delay between chunks of streamed chat completions.
+     */
+    public void setStreamChunkInterval(LatencyDistribution streamChunkInterval) {
+
+        this.streamChunkInterval = streamChunkInterval;
+    }
+
+    /**
+     * Sets the length of generated answers.
+     */
+    public void setAnswerWords(int answerWords) {
+
+        this.answerWords = answerWords;
+    }
+
+    public long getRequestCount(MockRoute route) {
+
+        return requestCounts.get(route).get();
+    }
+
+    @Override
+    public void close() {
+
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            Matcher openAIPath = OPEN_AI_PATH.matcher(path);
+            MockRoute route;
+            if (openAIPath.matches()) {
+                route = "embeddings".equals(openAIPath.group(2)) ? MockRoute.EMBEDDINGS : MockRoute.CHAT_COMPLETIONS;
+            } else if (path.startsWith("/api/exchangerates/tables/")) {
+                route = MockRoute.NBP_RATES;
+            } else if (path.equals("/v1/forecast")) {
+                route = MockRoute.OPEN_METEO_FORECAST;
+            } else {
+                sendJson(exchange, 404, error("NotFound", "Unknown path " + path));
+                return;
+            }
+
+            requestCounts.get(route).incrementAndGet();
+            RouteBehavior behavior = getBehavior(route);
+            sleep(behavior.latency().sample(ThreadLocalRandom.current()));
+            if (ThreadLocalRandom.current().nextDouble() < behavior.errorRate()) {
+                sendError(exchange, behavior.errorStatus());
+                return;
+            }
+
+            switch (route) {
+                case CHAT_COMPLETIONS -> chatCompletions(exchange, openAIPath.group(1));
+                case EMBEDDINGS -> embeddings(exchange, openAIPath.group(1));
+                case NBP_RATES -> sendJson(exchange, 200, exchangeRateTables());
+                case OPEN_METEO_FORECAST -> sendJson(exchange, 200, weatherForecast(exchange.getRequestURI()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void chatCompletions(HttpExchange exchange, String deploymentName)
+            throws IOException, InterruptedException {
+
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        List<JsonNode> messages = new ArrayList<>();
+        request.path("messages").forEach(messages::add);
+        JsonNode lastMessage = messages.isEmpty() ? objectMapper.createObjectNode() : messages.get(messages.size() - 1);
+        int promptTokens = estimateTokens(request.path("messages").toString());
+
+        if (request.path("stream").asBoolean()) {
+            streamChatCompletion(exchange, deploymentName, answer(messages).split(" "));
+            return;
+        }
+
+        ObjectNode message = objectMapper.createObjectNode().put("role", "assistant");
+        String finishReason = "stop";
+        ArrayNode toolCalls = "user".equals(lastMessage.path("role").asText())
+                ? toolCalls(request.path("tools"))
+                : objectMapper.createArrayNode();
+        if (toolCalls.isEmpty()) {
+            message.put("content", answer(messages));
+        } else {
+            message.putNull("content");
+            message.set("tool_calls", toolCalls);
+            finishReason = "tool_calls";
+        }
+
+        ObjectNode response = completion(deploymentName, "chat.completion");
+        response.putArray("choices").addObject()
+                .put("index", 0)
+                .put("finish_reason", finishReason)
+                .set("message", message);
+        int completionTokens = estimateTokens(message.toString());
+        response.putObject("usage")
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+        sendJson(exchange, 200, response);
+    }
+
+    private void streamChatCompletion(HttpExchange exchange, String deploymentName, String[] words)
+            throws IOException, InterruptedException {
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        for (int i = 0; i <= words.length; i++) {
+            ObjectNode chunk = completion(deploymentName, "chat.completion.chunk");
+            ObjectNode choice = chunk.putArray("choices").addObject().put("index", 0);
+            ObjectNode delta = choice.putObject("delta");
+            if (i < words.length) {
+                if (i == 0) {
+                    delta.put("role", "assistant");
+                }
+                delta.put("content", i == 0 ? words[i] : " " + words[i]);
+                choice.putNull("finish_reason");
+            } else {
+                choice.put("finish_reason", "stop");
+            }
+            body.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            sleep(streamChunkInterval.sample(ThreadLocalRandom.current()));
+        }
+        body.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ArrayNode toolCalls(JsonNode tools) {
+
+        ArrayNode toolCalls = objectMapper.createArrayNode();
+        for (JsonNode tool : tools) {
+            String name = tool.path("function").path("name").asText();
+            String arguments;
+            if (name.endsWith(CURRENCY_RATE_FUNCTION)) {
+                arguments = "{\"currencyCode\":\"EUR\"}";
+            } else if (name.endsWith(WEATHER_FORECAST_FUNCTION)) {
+                arguments = "{\"city\":\"Amsterdam\",\"latitude\":52.37,\"longitude\":4.89}";
+            } else {
+                continue;
+            }
+            toolCalls.addObject()
+                    .put("id", "call_" + UUID.randomUUID().toString().replace("-", ""))
+                    .put("type", "function")
+                    .putObject("function")
+                    .put("name", name)
+                    .put("arguments", arguments);
+        }
+        return toolCalls;
+    }
+
+    /**
+     * Answers with the tool results sent after the last user message, or with generated text.
+     */
+    private String answer(List<JsonNode> messages) {
+
+        List<String> toolResults = new ArrayList<>();
+        for (int i = messages.size() - 1; i >= 0 && !"user".equals(messages.get(i).path("role").asText()); i--) {
+            if ("tool".equals(messages.get(i).path("role").asText())) {
+                toolResults.add(0, messages.get(i).path("content").asText());
+            }
+        }
+        if (!toolResults.isEmpty()) {
+            return "Here is what I found: " + String.join(" ", toolResults);
+        }
+
+        StringBuilder answer = new StringBuilder();
+        for (int i = 0; i < answerWords; i++) {
+            answer.append(i == 0 ? "" : " ").append(ANSWER_WORDS[i % ANSWER_WORDS.length]);
+        }
+        return answer.toString();
+    }
+
+    private void embeddings(HttpExchange exchange, String deploymentName) throws IOException {
+
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        List<String> inputs = new ArrayList<>();
+        if (request.path("input").isArray()) {
+            request.path("input").forEach(input -> inputs.add(input.asText()));
+        } else {
+            inputs.add(request.path("input").asText());
+        }
+        boolean base64 = "base64".equals(request.path("encoding_format").asText());
+
+        ObjectNode response = objectMapper.createObjectNode()
+                .put("object", "list")
+                .put("model", deploymentName);
+        ArrayNode data = response.putArray("data");
+        int promptTokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            float[] vector = embedding(inputs.get(i));
+            ObjectNode item = data.addObject()
+                    .put("object", "embedding")
+                    .put("index", i);
+            if (base64) {
+                ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.asFloatBuffer().put(vector);
+                item.put("embedding", Base64.getEncoder().encodeToString(buffer.array()));
+            } else {
+                ArrayNode embedding = item.putArray("embedding");
+                for (float value : vector) {
+                    embedding.add(value);
+                }
+            }
+            promptTokens += estimateTokens(inputs.get(i));
+        }
+        response.putObject("usage")
+                .put("prompt_tokens", promptTokens)
+                .put("total_tokens", promptTokens);
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * Creates a deterministic unit vector of the text, so that equal texts have equal embeddings.
+     */
+    private static float[] embedding(String text) {
+
+        Random random = new Random(text.hashCode());
+        float[] vector = new float[EMBEDDING_DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (vector[i] / Math.sqrt(norm));
+        }
+        return vector;
+    }
+
+    private ArrayNode exchangeRateTables() {
+
+        ArrayNode tables = objectMapper.createArrayNode();
+        ObjectNode table = tables.addObject()
+                .put("table", "A")
+                .put("no", "001/A/NBP/" + LocalDate.now().getYear())
+                .put("effectiveDate", LocalDate.now().toString());
+        ArrayNode rates = table.putArray("rates");
+        for (int i = 0; i < CURRENCY_CODES.length; i++) {
+            rates.addObject()
+                    .put("currency", "currency " + CURRENCY_CODES[i])
+                    .put("code", CURRENCY_CODES[i])
+                    .put("mid", Math.round((1 + i * 0.137) * 10_000) / 10_000.0);
+        }
+        return tables;
+    }
+
+    private ObjectNode weatherForecast(URI requestUri) {
+
+        Map<String, List<String>> query = UriComponentsBuilder.fromUri(requestUri).build().getQueryParams();
+        double latitude = Double.parseDouble(query.getOrDefault("latitude", List.of("0")).get(0));
+        double longitude = Double.parseDouble(query.getOrDefault("longitude", List.of("0")).get(0));
+
+        ObjectNode response = objectMapper.createObjectNode()
+                .put("latitude", latitude)
+                .put("longitude", longitude)
+                .put("generationtime_ms", 0.05)
+                .put("utc_offset_seconds", 3600)
+                .put("timezone", "CET")
+                .put("timezone_abbreviation", "CET")
+                .put("elevation", 10.0);
+        response.putObject("hourly_units")
+                .put("time", "unixtime")
+                .put("temperature_2m", "°C");
+        ObjectNode hourly = response.putObject("hourly");
+        ArrayNode time = hourly.putArray("time");
+        ArrayNode temperature = hourly.putArray("temperature_2m");
+        long start = Instant.now().truncatedTo(ChronoUnit.DAYS).getEpochSecond();
+        for (int hour = 0; hour < FORECAST_HOURS; hour++) {
+            time.add(start + hour * 3600L);
+            temperature.add(Math.round((Math.sin(hour / 24.0 * Math.PI) * 8 + 5 - latitude / 20) * 10) / 10.0);
+        }
+        return response;
+    }
+
+    private ObjectNode completion(String deploymentName, String object) {
+
+        return objectMapper.createObjectNode()
+                .put("id", "chatcmpl-" + UUID.randomUUID())
+                .put("object", object)
+                .put("created", Instant.now().getEpochSecond())
+                .put("model", deploymentName);
+    }
+
+    private void sendError(HttpExchange exchange, int status) throws IOException {
+
+        if (status == 429) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        sendJson(exchange, status, error(String.valueOf(status), "Injected error."));
+    }
+
+    private ObjectNode error(String code, String message) {
+
+        ObjectNode error = objectMapper.createObjectNode();
+        error.putObject("error")
+                .put("code", code)
+                .put("message", message);
+        return error;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static int estimateTokens(String text) {
+
+        return Math.max(1, text.length() / 4);
+    }
+
+    private static void sleep(Duration duration) throws InterruptedException {
+
+        if (duration.isPositive()) {
+            Thread.sleep(duration);
+        }
+    }
+}
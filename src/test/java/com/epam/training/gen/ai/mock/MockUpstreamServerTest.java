@@ -0,0 +1,96 @@
+package com.epam.training.gen.ai.mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.models.ChatCompletions;
+import com.azure.ai.openai.models.ChatCompletionsFunctionToolCall;
+import com.azure.ai.openai.models.ChatCompletionsFunctionToolDefinition;
+import com.azure.ai.openai.models.ChatCompletionsFunctionToolDefinitionFunction;
+import com.azure.ai.openai.models.ChatCompletionsOptions;
+import com.azure.ai.openai.models.ChatRequestUserMessage;
+import com.azure.core.util.BinaryData;
+import com.epam.training.gen.ai.config.ai.OpenAIConfiguration;
+
+/**
+ * Checks that the Azure OpenAI client used by the application understands the mock protocol.
+ */
+class MockUpstreamServerTest {
+
+    private static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    private MockUpstreamServer server;
+    private OpenAIAsyncClient openAIAsyncClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        server = MockUpstreamServer.start(0);
+        for (MockRoute route : MockRoute.values()) {
+            server.setBehavior(route, new RouteBehavior(LatencyDistribution.NONE, 0, 500));
+        }
+        server.setStreamChunkInterval(LatencyDistribution.NONE);
+        server.setAnswerWords(5);
+        openAIAsyncClient = new OpenAIConfiguration().openAIAsyncClient("mock", server.getBaseUri().toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        server.close();
+    }
+
+    @Test
+    void answersAndStreamsChatCompletions() {
+
+        ChatCompletionsOptions options = new ChatCompletionsOptions(
+                List.of(new ChatRequestUserMessage("What is the semantic kernel?")));
+
+        ChatCompletions completions = openAIAsyncClient.getChatCompletions(DEPLOYMENT_NAME, options).block();
+        String streamed = openAIAsyncClient.getChatCompletionsStream(DEPLOYMENT_NAME, options)
+                .filter(chunk -> !chunk.getChoices().isEmpty() && chunk.getChoices().get(0).getDelta() != null)
+                .map(chunk -> String.valueOf(chunk.getChoices().get(0).getDelta().getContent()))
+                .filter(content -> !"null".equals(content))
+                .collect(Collectors.joining())
+                .block(Duration.ofSeconds(10));
+
+        assertThat(completions.getChoices().get(0).getMessage().getContent())
+                .isEqualTo("The semantic kernel is the");
+        assertThat(completions.getUsage().getPromptTokens()).isPositive();
+        assertThat(streamed).isEqualTo("The semantic kernel is the");
+    }
+
+    @Test
+    void requestsOfferedToolsForUserMessage() {
+
+        ChatCompletionsOptions options = new ChatCompletionsOptions(
+                List.of(new ChatRequestUserMessage("Currency exchange rate and weather for The Netherlands?")))
+                .setTools(List.of(toolDefinition("CurrencyExchangeRatePlugin-getCurrencyRate"),
+                        toolDefinition("SimplePlugin-makeSimpleAction")));
+
+        ChatCompletions completions = openAIAsyncClient.getChatCompletions(DEPLOYMENT_NAME, options).block();
+
+        assertThat(completions.getChoices().get(0).getMessage().getToolCalls())
+                .singleElement()
+                .isInstanceOfSatisfying(ChatCompletionsFunctionToolCall.class, toolCall -> {
+                    assertThat(toolCall.getFunction().getName())
+                            .isEqualTo("CurrencyExchangeRatePlugin-getCurrencyRate");
+                    assertThat(toolCall.getFunction().getArguments()).contains("EUR");
+                });
+        assertThat(server.getRequestCount(MockRoute.CHAT_COMPLETIONS)).isEqualTo(1);
+    }
+
+    private static ChatCompletionsFunctionToolDefinition toolDefinition(String name) {
+
+        return new ChatCompletionsFunctionToolDefinition(new ChatCompletionsFunctionToolDefinitionFunction(name)
+                .setParameters(BinaryData.fromString("{\"type\":\"object\",\"properties\":{}}")));
+    }
+}
@@ -0,0 +1,23 @@
+package com.epam.training.gen.ai.mock;
+
+import java.time.Duration;
+
+/**
+ * Behavior of a {@link MockRoute}.
+ *
+ * @param latency     latency added before the response is sent
+ * @param errorRate   probability (0..1) of answering with {@code errorStatus} instead
+ * @param errorStatus HTTP status of injected errors, e.g. 429 or 503
+ */
+public record RouteBehavior(LatencyDistribution latency, double errorRate, int errorStatus) {
+
+    public static RouteBehavior of(Duration median, Duration p99) {
+
+        return new RouteBehavior(new LatencyDistribution(median, p99), 0, 500);
+    }
+
+    public RouteBehavior withErrors(double errorRate, int errorStatus) {
+
+        return new RouteBehavior(latency, errorRate, errorStatus);
+    }
+}
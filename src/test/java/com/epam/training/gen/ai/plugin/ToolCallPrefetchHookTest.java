@@ -0,0 +1,114 @@
+package com.epam.training.gen.ai.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.azure.ai.openai.models.ChatChoice;
+import com.azure.ai.openai.models.ChatCompletions;
+import com.azure.ai.openai.models.ChatCompletionsFunctionToolCall;
+import com.azure.ai.openai.models.ChatCompletionsToolCall;
+import com.azure.ai.openai.models.ChatResponseMessage;
+import com.azure.ai.openai.models.FunctionCall;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.semantickernel.hooks.PostChatCompletionEvent;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+class ToolCallPrefetchHookTest {
+
+    private final Map<String, JsonNode> prefetchedCalls = new ConcurrentHashMap<>();
+    private final CountDownLatch startedCalls = new CountDownLatch(2);
+
+    private final ToolCallPrefetcher slowPrefetcher = (functionName, arguments) -> Mono.delay(Duration.ofSeconds(1))
+            .doOnSubscribe(subscription -> {
+                prefetchedCalls.put(functionName, arguments);
+                startedCalls.countDown();
+            })
+            .then();
+
+    @Test
+    void prefetchesAllToolCallsOfTurnConcurrently() throws InterruptedException {
+
+        ToolCallPrefetchHook hook = new ToolCallPrefetchHook(List.of(slowPrefetcher),
+                mock(SpeculativeToolPrefetch.class), new ObjectMapper(), true, 8, Duration.ofSeconds(5));
+
+        hook.onChatCompletion(eventWithTwoToolCalls(), Context.empty(), Disposables.composite());
+
+        assertThat(startedCalls.await(500, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(prefetchedCalls.get("getCurrencyRate").get("currencyCode").asText()).isEqualTo("EUR");
+        assertThat(prefetchedCalls.get("getWeatherForecast").get("latitude").asDouble()).isEqualTo(52.37);
+    }
+
+    @Test
+    void leavesSingleToolCallToKernel() throws InterruptedException {
+
+        ToolCallPrefetchHook hook = new ToolCallPrefetchHook(List.of(slowPrefetcher),
+                mock(SpeculativeToolPrefetch.class), new ObjectMapper(), true, 8, Duration.ofSeconds(5));
+
+        hook.onChatCompletion(eventWithToolCalls(
+                new FunctionCall("Currency_Exchange_Rate_Plugin-getCurrencyRate", "{\"currencyCode\":\"EUR\"}")),
+                Context.empty(), Disposables.composite());
+
+        assertThat(startedCalls.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(prefetchedCalls).isEmpty();
+    }
+
+    @Test
+    void disposesPrefetchesWithInvocation() throws InterruptedException {
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ToolCallPrefetcher cancellablePrefetcher = (functionName, arguments) -> slowPrefetcher
+                .prefetch(functionName, arguments)
+                .doOnCancel(() -> cancelled.set(true));
+        ToolCallPrefetchHook hook = new ToolCallPrefetchHook(List.of(cancellablePrefetcher),
+                mock(SpeculativeToolPrefetch.class), new ObjectMapper(), true, 8, Duration.ofSeconds(5));
+        Disposable.Composite prefetches = Disposables.composite();
+
+        hook.onChatCompletion(eventWithTwoToolCalls(), Context.empty(), prefetches);
+        assertThat(startedCalls.await(500, TimeUnit.MILLISECONDS)).isTrue();
+        prefetches.dispose();
+
+        assertThat(cancelled).isTrue();
+    }
+
+    private static PostChatCompletionEvent eventWithTwoToolCalls() {
+
+        return eventWithToolCalls(
+                new FunctionCall("Currency_Exchange_Rate_Plugin-getCurrencyRate", "{\"currencyCode\":\"EUR\"}"),
+                new FunctionCall("Weather_Forecast_Plugin-getWeatherForecast",
+                        "{\"city\":\"Amsterdam\",\"latitude\":52.37,\"longitude\":4.89}"));
+    }
+
+    private static PostChatCompletionEvent eventWithToolCalls(FunctionCall... functionCalls) {
+
+        List<ChatCompletionsToolCall> toolCalls = new ArrayList<>();
+        for (int i = 0; i < functionCalls.length; i++) {
+            toolCalls.add(new ChatCompletionsFunctionToolCall("call_" + i, functionCalls[i]));
+        }
+
+        ChatResponseMessage message = mock(ChatResponseMessage.class);
+        when(message.getToolCalls()).thenReturn(toolCalls);
+        ChatChoice choice = mock(ChatChoice.class);
+        when(choice.getMessage()).thenReturn(message);
+        ChatCompletions completions = mock(ChatCompletions.class);
+        when(completions.getChoices()).thenReturn(List.of(choice));
+        return new PostChatCompletionEvent(completions);
+    }
+}
@@ -0,0 +1,67 @@
+package com.epam.training.gen.ai.plugin.currencyExchangeRate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class CurrencyExchangeRatePluginTest {
+
+    private final NbpRateStore nbpRateStore = mock(NbpRateStore.class);
+    private final CurrencyExchangeRatePlugin currencyExchangeRatePlugin = new CurrencyExchangeRatePlugin(nbpRateStore,
+            new ToolOutputProperties(), llmMetrics());
+
+    @Test
+    void getsRateOfOneCurrencyWithTableInfo() {
+
+        when(nbpRateStore.getTable())
+                .thenReturn(Mono.just(new NbpRateTable("240/A/NBP/2024", LocalDate.of(2024, 12, 13),
+                        Map.of("EUR", 4.2722), Instant.now(), false)))
+                .thenReturn(Mono.just(new NbpRateTable("240/A/NBP/2024", LocalDate.of(2024, 12, 13),
+                        Map.of("EUR", 4.2722), Instant.now().minus(Duration.ofMinutes(150)), true)));
+
+        assertThat(currencyExchangeRatePlugin.getCurrencyRate(" eur").block())
+                .isEqualTo("1 EUR = 4.2722 PLN (2024-12-13)");
+        assertThat(currencyExchangeRatePlugin.getCurrencyRate("EUR").block())
+                .isEqualTo("1 EUR = 4.2722 PLN (2024-12-13, stale, fetched 2 h ago)");
+        assertThat(currencyExchangeRatePlugin.getCurrencyRate("XYZ").block())
+                .isEqualTo("Exchange rate was not found for currency with code XYZ.");
+    }
+
+    @Test
+    void getsRatesOfSeveralCurrenciesFromOneTableLookup() {
+
+        when(nbpRateStore.getTable()).thenReturn(Mono.just(new NbpRateTable("240/A/NBP/2024",
+                LocalDate.of(2024, 12, 13), Map.of("EUR", 4.2722, "USD", 4.0661, "JPY", 0.026597), Instant.now(),
+                false)));
+
+        assertThat(currencyExchangeRatePlugin.getCurrencyRates("eur, USD;xyz", null).block())
+                .isEqualTo("1 EUR = 4.2722 PLN; 1 USD = 4.0661 PLN; XYZ: not found (2024-12-13)");
+        assertThat(currencyExchangeRatePlugin.getCurrencyRates("EUR,JPY,PLN", "usd").block())
+                .isEqualTo("1 EUR = 1.05069 USD; 1 JPY = 0.00654116 USD; 1 PLN = 0.245936 USD (2024-12-13)");
+        verify(nbpRateStore, times(2)).getTable();
+    }
+
+    private static LlmMetrics llmMetrics() {
+
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(Map.of("gpt-35-turbo", true));
+        modelConfiguration.setDefaultDeploymentName("gpt-35-turbo");
+        return new LlmMetrics(new SimpleMeterRegistry(), modelConfiguration);
+    }
+}
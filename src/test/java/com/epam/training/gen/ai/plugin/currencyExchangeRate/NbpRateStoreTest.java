@@ -0,0 +1,155 @@
+package com.epam.training.gen.ai.plugin.currencyExchangeRate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.epam.training.gen.ai.plugin.http.CircuitBreaker;
+import com.epam.training.gen.ai.plugin.http.CircuitBreakerProperties;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+import com.epam.training.gen.ai.plugin.http.PluginHttpProperties;
+import com.epam.training.gen.ai.plugin.http.PluginWebClientFactory;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NbpRateStoreTest {
+
+    private static final String TABLE_JSON = """
+            [{"table":"A","no":"240/A/NBP/2024","effectiveDate":"%s","rates":[
+            {"currency":"euro","code":"EUR","mid":4.2722},
+            {"currency":"dolar amerykański","code":"USD","mid":4.0661}]}]""";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicReference<String> effectiveDate = new AtomicReference<>("2024-12-13");
+    private HttpServer server;
+    private NbpClient nbpClient;
+    private NbpRateStore nbpRateStore;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void startStub() throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/exchangerates/tables/a", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = TABLE_JSON.formatted(effectiveDate.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(failing.get() ? 503 : 200, failing.get() ? -1 : body.length);
+            if (!failing.get()) {
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        PluginWebClientFactory webClientFactory = new PluginWebClientFactory(WebClient.builder(),
+                new PluginHttpProperties());
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setWindowSize(3);
+        circuitBreakerProperties.setMinCalls(3);
+        circuitBreakerProperties.setOpenDuration(Duration.ofMillis(300));
+        nbpClient = new NbpClient(webClientFactory,
+                new PluginCircuitBreakers(circuitBreakerProperties, new SimpleMeterRegistry()),
+                "http://localhost:" + server.getAddress().getPort());
+        circuitBreaker = nbpClient.getCircuitBreaker();
+        nbpRateStore = new NbpRateStore(nbpClient);
+    }
+
+    @AfterEach
+    void stopStub() {
+
+        server.stop(0);
+    }
+
+    @Test
+    void tableIsLoadedOnceAndServedFromMemory() {
+
+        NbpRateTable first = nbpRateStore.getTable().block();
+        NbpRateTable second = nbpRateStore.getTable().block();
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.effectiveDate()).isEqualTo(LocalDate.of(2024, 12, 13));
+        assertThat(first.midRates()).containsEntry("EUR", 4.2722).containsEntry("USD", 4.0661);
+        assertThat(first.stale()).isFalse();
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void failedRefreshKeepsServingStaleTable() {
+
+        nbpRateStore.getTable().block();
+        failing.set(true);
+
+        NbpRateTable refreshed = nbpRateStore.refresh().block();
+
+        assertThat(refreshed.stale()).isTrue();
+        assertThat(refreshed.midRates()).containsEntry("EUR", 4.2722);
+        assertThat(nbpRateStore.getTable().block().stale()).isTrue();
+    }
+
+    @Test
+    void openCircuitServesStaleTableWithoutCallingNbpAndHalfOpenRefreshesIt() {
+
+        nbpRateStore.getTable().block();
+        failing.set(true);
+        nbpRateStore.refresh().block();
+        nbpRateStore.refresh().block();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int requestsBeforeOpen = requests.get();
+        NbpRateTable served = nbpRateStore.refresh().block();
+
+        assertThat(served.stale()).isTrue();
+        assertThat(served.midRates()).containsEntry("EUR", 4.2722);
+        assertThat(requests).hasValue(requestsBeforeOpen);
+
+        failing.set(false);
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !nbpRateStore.getTable().block().stale());
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(requests).hasValue(requestsBeforeOpen + 1);
+    }
+
+    @Test
+    void refreshesOnEveryCheckUntilTodaysTableIsPublished() {
+
+        ZonedDateTime afterPublication = ZonedDateTime.of(2024, 12, 16, 13, 0, 0, 0, ZoneId.of("Europe/Warsaw"));
+        NbpRateStore nbpRateStore = new NbpRateStore(nbpClient,
+                Clock.fixed(afterPublication.toInstant(), afterPublication.getZone()));
+        nbpRateStore.getTable().block();
+
+        // NBP still serves the previous table
+        nbpRateStore.refreshIfDue();
+        await().atMost(Duration.ofSeconds(5)).until(() -> requests.get() == 2);
+        nbpRateStore.refreshIfDue();
+        await().atMost(Duration.ofSeconds(5)).until(() -> requests.get() == 3);
+
+        effectiveDate.set("2024-12-16");
+        nbpRateStore.refreshIfDue();
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> nbpRateStore.getTable().block().effectiveDate().equals(LocalDate.of(2024, 12, 16)));
+        nbpRateStore.refreshIfDue();
+
+        assertThat(requests).hasValue(4);
+    }
+}
@@ -0,0 +1,64 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnUpstreamFailuresOnlyAndLetsOneProbeThroughWhenHalfOpen() {
+
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setWindowSize(4);
+        properties.setMinCalls(4);
+        properties.setOpenDuration(Duration.ofMillis(100));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("stub", properties, new SimpleMeterRegistry());
+        AtomicInteger halfOpenCount = new AtomicInteger();
+        circuitBreaker.onHalfOpen(halfOpenCount::incrementAndGet);
+
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, error(HttpStatus.NOT_FOUND));
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(circuitBreaker, error(HttpStatus.SERVICE_UNAVAILABLE));
+        call(circuitBreaker, error(HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> counted = Mono.fromCallable(() -> "ok").doOnSubscribe(s -> subscriptions.incrementAndGet());
+        assertThatThrownBy(() -> circuitBreaker.execute(counted).block())
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(subscriptions).hasValue(0);
+
+        await().atMost(Duration.ofSeconds(2))
+                .until(() -> circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN);
+        assertThat(halfOpenCount).hasValue(1);
+
+        Mono<String> probe = circuitBreaker.execute(Mono.<String>never());
+        probe.subscribe();
+        assertThatThrownBy(() -> circuitBreaker.execute(counted).block())
+                .isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    private static void call(CircuitBreaker circuitBreaker, Throwable error) {
+
+        circuitBreaker.execute(Mono.error(error)).onErrorComplete().block();
+    }
+
+    private static WebClientResponseException error(HttpStatus status) {
+
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), null, null, null);
+    }
+}
@@ -0,0 +1,81 @@
+package com.epam.training.gen.ai.plugin.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+
+class PluginWebClientFactoryTest {
+
+    private HttpServer server;
+    private PluginWebClientFactory webClientFactory;
+
+    @BeforeEach
+    void startStub() throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/small", exchange -> respond(exchange, 100));
+        server.createContext("/large", exchange -> respond(exchange, 10_000));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 100);
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+
+        PluginHttpProperties properties = new PluginHttpProperties();
+        properties.setResponseTimeout(Duration.ofMillis(200));
+        properties.setMaxResponseSize(DataSize.ofKilobytes(1));
+        webClientFactory = new PluginWebClientFactory(WebClient.builder(), properties);
+    }
+
+    @AfterEach
+    void stopStub() {
+
+        webClientFactory.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void failsSlowAndOversizedResponses() {
+
+        WebClient webClient = webClientFactory.create("http://localhost:" + server.getAddress().getPort());
+
+        assertThat(get(webClient, "/small")).hasSize(100);
+        assertThatThrownBy(() -> get(webClient, "/large")).hasRootCauseInstanceOf(DataBufferLimitException.class);
+        assertThatThrownBy(() -> get(webClient, "/slow")).hasRootCauseInstanceOf(ReadTimeoutException.class);
+    }
+
+    private static String get(WebClient webClient, String path) {
+
+        return webClient.get().uri(path).retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+    }
+
+    private static void respond(HttpExchange exchange, int length) throws IOException {
+
+        exchange.sendResponseHeaders(200, length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write("x".repeat(length).getBytes());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.epam.training.gen.ai.plugin.speculative;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+class GazetteerTest {
+
+    @Test
+    void findsCountriesByNameAliasAndCapital() throws IOException {
+
+        Gazetteer gazetteer = new Gazetteer(new ClassPathResource("gazetteer/capitals.csv"));
+
+        assertThat(gazetteer.find("Currency rate for The Netherlands, weather in PARIS and in the United States "
+                + "of America, then Kraków, Zürich and Bogotá", 5))
+                .extracting(Gazetteer.Place::country, Gazetteer.Place::currencyCode)
+                .containsExactly(tuple("Netherlands", "EUR"), tuple("France", "EUR"), tuple("United States", "USD"),
+                        tuple("Colombia", "COP"));
+        assertThat(gazetteer.find("Weather in the UK and Germany", 1))
+                .extracting(Gazetteer.Place::capital)
+                .containsExactly("London");
+        assertThat(gazetteer.find("Tell me a joke", 3)).isEmpty();
+    }
+}
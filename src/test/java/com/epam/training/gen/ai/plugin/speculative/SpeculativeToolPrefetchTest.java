@@ -0,0 +1,122 @@
+package com.epam.training.gen.ai.plugin.speculative;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.NbpRateStore;
+import com.epam.training.gen.ai.plugin.currencyExchangeRate.NbpRateTable;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+class SpeculativeToolPrefetchTest {
+
+    private final NbpRateStore nbpRateStore = mock(NbpRateStore.class);
+    private final WeatherForecastCache weatherForecastCache = mock(WeatherForecastCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void warmsPlacesOfInputAndCountsWastedPrefetches() throws IOException {
+
+        when(nbpRateStore.getTable()).thenReturn(Mono.just(
+                new NbpRateTable("240/A/NBP/2024", LocalDate.now(), Map.of("EUR", 4.27), Instant.now(), false)));
+        when(weatherForecastCache.warm(anyDouble(), anyDouble())).thenReturn(Mono.empty());
+        SpeculativeToolPrefetch speculativeToolPrefetch = speculativeToolPrefetch();
+
+        // the model asks for the rate only
+        String answer = Mono.deferContextual(context -> {
+                    speculativeToolPrefetch.onToolCall(context, "getCurrencyRate", "{\"currencyCode\":\"eur\"}");
+                    return Mono.just("answer");
+                })
+                .transform(speculativeToolPrefetch.around("Currency rate and weather in France?"))
+                .block();
+
+        assertThat(answer).isEqualTo("answer");
+        verify(nbpRateStore).getTable();
+        verify(weatherForecastCache).warm(48.8566, 2.3522);
+        assertThat(count(meterRegistry, "getCurrencyRate", "used")).isEqualTo(1);
+        assertThat(count(meterRegistry, "getWeatherForecast", "wasted")).isEqualTo(1);
+    }
+
+    @Test
+    void claimsOnlyPrefetchesOfOwnRequestAndCancelsWarmingOnCompletion() throws IOException {
+
+        Sinks.One<NbpRateTable> table = Sinks.one();
+        when(nbpRateStore.getTable()).thenReturn(table.asMono());
+        when(weatherForecastCache.warm(anyDouble(), anyDouble())).thenReturn(Mono.never());
+        SpeculativeToolPrefetch speculativeToolPrefetch = speculativeToolPrefetch();
+
+        // another request asks for the same rate while this one runs
+        String answer = Mono.fromCallable(() -> {
+                    speculativeToolPrefetch.onToolCall(Context.empty(), "getCurrencyRate",
+                            "{\"currencyCode\":\"EUR\"}");
+                    return "answer";
+                })
+                .transform(speculativeToolPrefetch.around("Currency rate and weather in France?"))
+                .block();
+
+        assertThat(answer).isEqualTo("answer");
+        assertThat(count(meterRegistry, "getCurrencyRate", "wasted")).isEqualTo(1);
+        assertThat(count(meterRegistry, "getWeatherForecast", "wasted")).isEqualTo(1);
+        assertThat(table.currentSubscriberCount()).isZero();
+    }
+
+    @Test
+    void warmedForecastServesNearbyCoordinates() throws IOException {
+
+        when(nbpRateStore.getTable()).thenReturn(Mono.empty());
+        when(weatherForecastCache.warm(anyDouble(), anyDouble())).thenReturn(Mono.empty());
+        when(weatherForecastCache.isCached(52.3676, 4.9041)).thenReturn(true);
+        SpeculativeToolPrefetch speculativeToolPrefetch = speculativeToolPrefetch();
+
+        double[][] locations = Mono.deferContextual(context -> {
+                    double[] latitudes = {52.37, 51.92};
+                    double[] longitudes = {4.89, 4.48};
+                    speculativeToolPrefetch.moveToWarmedLocations(context, latitudes, longitudes);
+                    // another request asks for the same location while this one runs
+                    double[] otherLatitudes = {52.37};
+                    double[] otherLongitudes = {4.89};
+                    speculativeToolPrefetch.moveToWarmedLocations(Context.empty(), otherLatitudes, otherLongitudes);
+                    return Mono.just(new double[][] {latitudes, longitudes, otherLatitudes, otherLongitudes});
+                })
+                .transform(speculativeToolPrefetch.around("Weather in Amsterdam, Netherlands?"))
+                .block();
+
+        assertThat(locations[0]).containsExactly(52.3676, 51.92);
+        assertThat(locations[1]).containsExactly(4.9041, 4.48);
+        assertThat(locations[2]).containsExactly(52.37);
+        assertThat(locations[3]).containsExactly(4.89);
+    }
+
+    private SpeculativeToolPrefetch speculativeToolPrefetch() throws IOException {
+
+        SpeculativePrefetchProperties properties = new SpeculativePrefetchProperties();
+        properties.setEnabled(true);
+        return new SpeculativeToolPrefetch(new Gazetteer(new ClassPathResource("gazetteer/capitals.csv")),
+                nbpRateStore, weatherForecastCache, properties, new ObjectMapper(), meterRegistry);
+    }
+
+    private static double count(SimpleMeterRegistry meterRegistry, String functionName, String outcome) {
+
+        return meterRegistry.get("plugin.speculative.prefetches")
+                .tag("function", functionName)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+}
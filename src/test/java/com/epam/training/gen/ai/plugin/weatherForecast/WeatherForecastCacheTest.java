@@ -0,0 +1,164 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.plugin.http.CircuitBreakerProperties;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class WeatherForecastCacheTest {
+
+    @Test
+    void nearbyCoordinatesShareGridCell() {
+
+        WeatherForecastClient weatherForecastClient = mockClient();
+        when(weatherForecastClient.getWeatherForecast(any(), any()))
+                .thenReturn(Mono.fromCallable(WeatherForecastResponseDto::new));
+        WeatherForecastCache weatherForecastCache = new WeatherForecastCache(weatherForecastClient, 0.05,
+                Duration.ofHours(24));
+
+        weatherForecastCache.getForecast(52.2297, 21.0122).block();
+        weatherForecastCache.getForecast(52.2301, 21.0098).block();
+
+        assertThat(weatherForecastCache.getUpstreamCallCount()).isEqualTo(1);
+        assertThat(weatherForecastCache.getHitCount()).isEqualTo(1);
+        verify(weatherForecastClient).getWeatherForecast(52.25, 21.0);
+    }
+
+    @Test
+    void concurrentRequestsShareOneUpstreamCall() {
+
+        WeatherForecastClient weatherForecastClient = mockClient();
+        Sinks.One<WeatherForecastResponseDto> response = Sinks.one();
+        when(weatherForecastClient.getWeatherForecast(any(), any())).thenReturn(response.asMono());
+        WeatherForecastCache weatherForecastCache = new WeatherForecastCache(weatherForecastClient, 0.05,
+                Duration.ofHours(24));
+
+        List<WeatherForecastSnapshot> snapshots = new ArrayList<>();
+        weatherForecastCache.getForecast(52.23, 21.01).subscribe(snapshots::add);
+        weatherForecastCache.getForecast(52.23, 21.01).subscribe(snapshots::add);
+        response.tryEmitValue(new WeatherForecastResponseDto());
+
+        assertThat(snapshots).hasSize(2);
+        assertThat(weatherForecastCache.getUpstreamCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    void forecastExpiresAtNextFullHour() {
+
+        WeatherForecastClient weatherForecastClient = mockClient();
+        when(weatherForecastClient.getWeatherForecast(any(), any()))
+                .thenReturn(Mono.fromCallable(WeatherForecastResponseDto::new));
+        Clock clock = mock(Clock.class);
+        Instant beforeFullHour = Instant.parse("2024-11-20T10:59:00Z");
+        when(clock.instant()).thenReturn(beforeFullHour);
+        WeatherForecastCache weatherForecastCache = new WeatherForecastCache(weatherForecastClient, 0.05,
+                Duration.ofHours(24), clock);
+
+        weatherForecastCache.getForecast(52.23, 21.01).block();
+        when(clock.instant()).thenReturn(beforeFullHour.plusSeconds(59));
+        weatherForecastCache.getForecast(52.23, 21.01).block();
+        when(clock.instant()).thenReturn(beforeFullHour.plusSeconds(60));
+        weatherForecastCache.getForecast(52.23, 21.01).block();
+
+        assertThat(weatherForecastCache.getUpstreamCallCount()).isEqualTo(2);
+        assertThat(weatherForecastCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void multiLocationRequestLoadsUncachedCellsWithOneCall() {
+
+        WeatherForecastClient weatherForecastClient = mock(WeatherForecastClient.class);
+        when(weatherForecastClient.getCircuitBreaker()).thenReturn(
+                new PluginCircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry()).get("stub"));
+        when(weatherForecastClient.getWeatherForecast(any(), any()))
+                .thenReturn(Mono.fromCallable(() -> forecast(52.5)));
+        when(weatherForecastClient.getWeatherForecasts(any(), any())).thenAnswer(invocation -> {
+            double[] latitudes = invocation.getArgument(0);
+            return Mono.fromCallable(() -> Arrays.stream(latitudes).mapToObj(WeatherForecastCacheTest::forecast)
+                    .toList());
+        });
+        WeatherForecastCache weatherForecastCache = new WeatherForecastCache(weatherForecastClient, 0.05,
+                Duration.ofHours(24));
+        weatherForecastCache.getForecast(52.5, 13.4).block();
+
+        List<Double> latitudes = Flux.concat(weatherForecastCache.getForecasts(
+                        new double[] {48.85, 52.5, 50.05}, new double[] {2.35, 13.4, 19.95}))
+                .map(snapshot -> snapshot.forecast().getLatitude())
+                .collectList()
+                .block();
+
+        assertThat(latitudes).containsExactly(48.85, 52.5, 50.05);
+        assertThat(weatherForecastCache.getUpstreamCallCount()).isEqualTo(2);
+        verify(weatherForecastClient).getWeatherForecasts(new double[] {48.85, 50.05}, new double[] {2.35, 19.95});
+    }
+
+    @Test
+    void requestSubscribedMidBatchWaitsForAllCells() {
+
+        WeatherForecastClient weatherForecastClient = mockClient();
+        when(weatherForecastClient.getWeatherForecasts(any(), any())).thenAnswer(invocation -> {
+            double[] latitudes = invocation.getArgument(0);
+            return Mono.fromCallable(() -> Arrays.stream(latitudes).mapToObj(WeatherForecastCacheTest::forecast)
+                    .toList());
+        });
+        Clock clock = mock(Clock.class);
+        Instant now = Instant.parse("2024-11-20T10:00:00Z");
+        AtomicInteger clockReads = new AtomicInteger();
+        List<WeatherForecastSnapshot> midBatch = new ArrayList<>();
+        WeatherForecastCache[] weatherForecastCache = new WeatherForecastCache[1];
+        // a concurrent request for the first cell arrives while the batch is still collecting its cells
+        when(clock.instant()).thenAnswer(invocation -> {
+            if (clockReads.incrementAndGet() == 3) {
+                weatherForecastCache[0].getForecast(48.85, 2.35).subscribe(midBatch::add);
+            }
+            return now;
+        });
+        weatherForecastCache[0] = new WeatherForecastCache(weatherForecastClient, 0.05, Duration.ofHours(24), clock);
+
+        List<Mono<WeatherForecastSnapshot>> forecasts = weatherForecastCache[0].getForecasts(
+                new double[] {48.85, 50.05}, new double[] {2.35, 19.95});
+
+        List<Double> latitudes = Flux.concat(forecasts)
+                .map(snapshot -> snapshot.forecast().getLatitude())
+                .collectList()
+                .block();
+        assertThat(latitudes).containsExactly(48.85, 50.05);
+        assertThat(midBatch).singleElement().extracting(snapshot -> snapshot.forecast().getLatitude())
+                .isEqualTo(48.85);
+        verify(weatherForecastClient).getWeatherForecasts(new double[] {48.85, 50.05}, new double[] {2.35, 19.95});
+    }
+
+    private static WeatherForecastClient mockClient() {
+
+        WeatherForecastClient weatherForecastClient = mock(WeatherForecastClient.class);
+        when(weatherForecastClient.getCircuitBreaker()).thenReturn(
+                new PluginCircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry()).get("stub"));
+        return weatherForecastClient;
+    }
+
+    private static WeatherForecastResponseDto forecast(double latitude) {
+
+        WeatherForecastResponseDto forecast = new WeatherForecastResponseDto();
+        forecast.setLatitude(latitude);
+        return forecast;
+    }
+}
@@ -0,0 +1,77 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.epam.training.gen.ai.plugin.http.CircuitBreakerProperties;
+import com.epam.training.gen.ai.plugin.http.PluginCircuitBreakers;
+import com.epam.training.gen.ai.plugin.http.PluginHttpProperties;
+import com.epam.training.gen.ai.plugin.http.PluginWebClientFactory;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WeatherForecastClientTest {
+
+    private static final String FORECASTS_JSON = """
+            [{"latitude":52.5,"longitude":13.4,"timezone":"CET",
+            "hourly_units":{"time":"unixtime","temperature_2m":"°C"},
+            "hourly":{"time":[1734130800,1734134400],"temperature_2m":[1.5,null]}},
+            {"latitude":48.85,"longitude":2.35,"timezone":"CET",
+            "hourly_units":{"time":"unixtime","temperature_2m":"°C"},
+            "hourly":{"time":[1734130800],"temperature_2m":[7.0]}}]""";
+
+    private final AtomicReference<String> query = new AtomicReference<>();
+    private HttpServer server;
+    private PluginWebClientFactory webClientFactory;
+
+    @BeforeEach
+    void startStub() throws IOException {
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/forecast", exchange -> {
+            query.set(exchange.getRequestURI().getQuery());
+            byte[] body = FORECASTS_JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        webClientFactory = new PluginWebClientFactory(WebClient.builder(), new PluginHttpProperties());
+    }
+
+    @AfterEach
+    void stopStub() {
+
+        webClientFactory.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void fetchesSeveralLocationsWithOneRequest() {
+
+        WeatherForecastClient weatherForecastClient = new WeatherForecastClient(webClientFactory,
+                new PluginCircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry()),
+                "http://localhost:" + server.getAddress().getPort());
+
+        List<WeatherForecastResponseDto> forecasts = weatherForecastClient.getWeatherForecasts(
+                new double[] {52.5, 48.85}, new double[] {13.4, 2.35}).block();
+
+        assertThat(query.get()).contains("latitude=52.5,48.85").contains("longitude=13.4,2.35");
+        assertThat(forecasts).extracting(WeatherForecastResponseDto::getLatitude).containsExactly(52.5, 48.85);
+        assertThat(forecasts.get(0).getHourly().getTemperature2m()).containsExactly(1.5, Double.NaN);
+    }
+}
@@ -0,0 +1,68 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+class WeatherForecastDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsHourlyValuesIntoArrays() throws Exception {
+
+        WeatherForecastResponseDto forecast = objectMapper.readValue("""
+                {"latitude":52.52,"longitude":13.41,"generationtime_ms":0.05,"utc_offset_seconds":3600,
+                "timezone":"Europe/Berlin","timezone_abbreviation":"CET","elevation":38.0,
+                "hourly_units":{"time":"unixtime","temperature_2m":"°C"},
+                "hourly":{"time":[1734130800,1734134400,1734138000],"temperature_2m":[1.5,null,-0.5]}}""",
+                WeatherForecastResponseDto.class);
+
+        assertThat(forecast.getLatitude()).isEqualTo(52.52);
+        assertThat(forecast.getUtcOffsetSeconds()).isEqualTo(3600);
+        assertThat(forecast.getTimezoneAbbreviation()).isEqualTo("CET");
+        assertThat(forecast.getHourlyUnits().getTemperature2m()).isEqualTo("°C");
+        assertThat(forecast.getHourly().getTime()).containsExactly(1734130800, 1734134400, 1734138000);
+        assertThat(forecast.getHourly().getTemperature2m()).containsExactly(1.5, Double.NaN, -0.5);
+    }
+
+    @Test
+    void skipsUnknownFields() throws Exception {
+
+        WeatherForecastResponseDto forecast = objectMapper.readValue("""
+                {"latitude":52.52,"current":{"time":1734130800,"values":[{"rain":[0.1]}]},"warnings":[[1],[2]],
+                "hourly":{"rain":[0.0,0.1],"time":[1734130800],"temperature_2m":[1.5],"is_day":1},
+                "longitude":13.41}""", WeatherForecastResponseDto.class);
+
+        assertThat(forecast.getLatitude()).isEqualTo(52.52);
+        assertThat(forecast.getLongitude()).isEqualTo(13.41);
+        assertThat(forecast.getHourly().getTime()).containsExactly(1734130800);
+        assertThat(forecast.getHourly().getTemperature2m()).containsExactly(1.5);
+    }
+
+    @Test
+    void readsNullAndMissingFieldsAsMissing() throws Exception {
+
+        WeatherForecastResponseDto empty = objectMapper.readValue("{}", WeatherForecastResponseDto.class);
+        WeatherForecastResponseDto nulls = objectMapper.readValue("""
+                {"timezone":null,"hourly_units":null,"hourly":{"time":null,"temperature_2m":null}}""",
+                WeatherForecastResponseDto.class);
+
+        assertThat(empty.getTimezone()).isNull();
+        assertThat(empty.getHourly()).isNull();
+        assertThat(nulls.getTimezone()).isNull();
+        assertThat(nulls.getHourlyUnits()).isNull();
+        assertThat(nulls.getHourly().size()).isZero();
+    }
+
+    @Test
+    void rejectsUnexpectedStructure() {
+
+        assertThatThrownBy(() -> objectMapper.readValue("{\"hourly\":[1,2]}", WeatherForecastResponseDto.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.Hourly;
+import com.epam.training.gen.ai.plugin.weatherForecast.WeatherForecastResponseDto.HourlyUnits;
+import com.epam.training.gen.ai.util.TokenBudget;
+
+class WeatherForecastFormatterTest {
+
+    private static final int HOURS = 7 * 24;
+
+    private final WeatherForecastResponseDto forecast = weeklyForecast();
+
+    @Test
+    void dailyFormatAggregatesHoursPerDay() {
+
+        String output = new DailyWeatherForecastFormatter().format("Amsterdam", forecast, 600);
+
+        assertThat(output)
+                .contains("2024-12-14: 0.0/23.0/11.5;")
+                .contains("2024-12-20: 0.0/23.0/11.5;")
+                .doesNotContain(TokenBudget.TRUNCATION_MARK);
+        String hourlyOutput = new HourlyWeatherForecastFormatter().format("Amsterdam", forecast,
+                Integer.MAX_VALUE / 4);
+        assertThat(TokenBudget.estimateTokens(output)).isLessThan(TokenBudget.estimateTokens(hourlyOutput) / 10);
+    }
+
+    @Test
+    void hourlyFormatStopsAtTokenBudget() {
+
+        String output = new HourlyWeatherForecastFormatter().format("Amsterdam", forecast, 200);
+
+        assertThat(TokenBudget.estimateTokens(output)).isLessThanOrEqualTo(200);
+        assertThat(output)
+                .contains("Time: 2024-12-14T00:00 temperature: 0.0°C;")
+                .endsWith("°C;" + TokenBudget.TRUNCATION_MARK);
+    }
+
+    private static WeatherForecastResponseDto weeklyForecast() {
+
+        long start = ZonedDateTime.of(LocalDateTime.of(2024, 12, 14, 0, 0), WeatherForecastClient.TIME_ZONE)
+                .toEpochSecond();
+        long[] time = new long[HOURS];
+        double[] temperatures = new double[HOURS];
+        for (int i = 0; i < HOURS; i++) {
+            time[i] = start + i * 3600L;
+            temperatures[i] = i % 24;
+        }
+
+        Hourly hourly = new Hourly();
+        hourly.setTime(time);
+        hourly.setTemperature2m(temperatures);
+        HourlyUnits hourlyUnits = new HourlyUnits();
+        hourlyUnits.setTemperature2m("°C");
+
+        WeatherForecastResponseDto forecast = new WeatherForecastResponseDto();
+        forecast.setHourly(hourly);
+        forecast.setHourlyUnits(hourlyUnits);
+        return forecast;
+    }
+}
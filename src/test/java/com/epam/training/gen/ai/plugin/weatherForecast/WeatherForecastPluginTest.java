@@ -0,0 +1,73 @@
+package com.epam.training.gen.ai.plugin.weatherForecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.metrics.LlmMetrics;
+import com.epam.training.gen.ai.plugin.output.ToolOutputProperties;
+import com.epam.training.gen.ai.plugin.speculative.SpeculativeToolPrefetch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class WeatherForecastPluginTest {
+
+    private final WeatherForecastCache weatherForecastCache = mock(WeatherForecastCache.class);
+    private final WeatherForecastPlugin weatherForecastPlugin = new WeatherForecastPlugin(weatherForecastCache,
+            mock(SpeculativeToolPrefetch.class), new ToolOutputProperties(),
+            List.of(new HourlyWeatherForecastFormatter(), new DailyWeatherForecastFormatter()), llmMetrics(),
+            20, 1000, 2);
+
+    @Test
+    void splitsCityNamesOnSemicolons() {
+
+        assertThat(WeatherForecastPlugin.splitCities("Washington, D.C.; Paris", 2))
+                .containsExactly("Washington, D.C.", " Paris");
+        assertThat(WeatherForecastPlugin.splitCities("Washington, D.C.", 1)).containsExactly("Washington, D.C.");
+        assertThat(WeatherForecastPlugin.splitCities("Paris, Berlin", 2)).containsExactly("Paris", " Berlin");
+    }
+
+    @Test
+    void keepsCommasInCityNames() {
+
+        when(weatherForecastCache.getForecasts(any(), any())).thenReturn(List.of(
+                Mono.error(new IllegalStateException("Open-Meteo is down.")),
+                Mono.error(new IllegalStateException("Open-Meteo is down."))));
+
+        assertThat(weatherForecastPlugin.getWeatherForecasts("Washington, D.C.;Paris", "38.9,48.86", "-77.04,2.35")
+                .block())
+                .isEqualTo("Weather forecast was not found for Washington, D.C..\n"
+                        + "Weather forecast was not found for Paris.");
+    }
+
+    @Test
+    void skipsPrefetchBeyondLocationLimit() throws Exception {
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        weatherForecastPlugin.prefetch(WeatherForecastPlugin.GET_WEATHER_FORECASTS_FUNCTION, objectMapper.readTree("""
+                {"cities":"Paris;Berlin;Rome","latitudes":"48.86,52.52,41.9","longitudes":"2.35,13.41,12.5"}"""))
+                .block();
+
+        verify(weatherForecastCache, never()).getForecasts(any(), any());
+    }
+
+    private static LlmMetrics llmMetrics() {
+
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(Map.of("gpt-35-turbo", true));
+        modelConfiguration.setDefaultDeploymentName("gpt-35-turbo");
+        return new LlmMetrics(new SimpleMeterRegistry(), modelConfiguration);
+    }
+}
@@ -0,0 +1,181 @@
+package com.epam.training.gen.ai.rag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.epam.training.gen.ai.config.rag.RagProperties;
+import com.epam.training.gen.ai.service.EmbeddingService;
+
+import reactor.core.publisher.Mono;
+
+class DocumentIngestionServiceTest {
+
+    private static final List<String> TOPICS = List.of("weather", "currency", "kernel");
+
+    @TempDir
+    Path directory;
+
+    private final RagProperties properties = new RagProperties();
+    private final AtomicInteger upsertsBeforeFailure = new AtomicInteger(Integer.MAX_VALUE);
+    private final InMemoryDocumentStore documentStore = new InMemoryDocumentStore() {
+
+        @Override
+        public Mono<Void> upsert(List<DocumentChunk> chunks, List<float[]> vectors) {
+
+            return upsertsBeforeFailure.getAndDecrement() > 0
+                    ? super.upsert(chunks, vectors)
+                    : Mono.error(new IllegalStateException("Document store is unavailable."));
+        }
+    };
+    private final EmbeddingService embeddingService = mock(EmbeddingService.class);
+    private final AtomicInteger embeddingRequests = new AtomicInteger();
+    private Path documents;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        documents = Files.createDirectories(directory.resolve("documents"));
+        properties.setDocumentsPath(documents.toString());
+        properties.setChunkSize(200);
+        properties.setChunkOverlap(20);
+        properties.setEmbeddingBatchSize(4);
+        properties.setUpsertBatchSize(3);
+        properties.setEnabled(true);
+        properties.setMinScore(0.5);
+
+        when(embeddingService.getModelName()).thenReturn("text-embedding-ada-002");
+        when(embeddingService.embed(anyList())).thenAnswer(invocation -> {
+            embeddingRequests.incrementAndGet();
+            List<String> texts = invocation.getArgument(0);
+            return Mono.just(texts.stream().map(DocumentIngestionServiceTest::embed).toList());
+        });
+        when(embeddingService.embed(anyString()))
+                .thenAnswer(invocation -> Mono.just(embed(invocation.getArgument(0))));
+    }
+
+    @Test
+    void ingestsIncrementallyAndResumesFromManifest() throws Exception {
+
+        Files.writeString(documents.resolve("weather.md"), "The weather forecast is sunny. ".repeat(40));
+        Files.createDirectories(documents.resolve("finance"));
+        Files.writeString(documents.resolve("finance/currency.txt"), "The currency exchange rate is stable. ");
+        Files.writeString(documents.resolve("image.png"), "not a document");
+        IngestionManifest manifest = new IngestionManifest(directory.resolve("manifest.log"));
+
+        IngestionReport first = newService(manifest).ingest().block();
+
+        assertThat(first.ingestedDocuments()).isEqualTo(2);
+        assertThat(first.chunks()).isEqualTo(documentStore.size()).isGreaterThan(5);
+        // chunks of both documents share embedding batches
+        assertThat(embeddingRequests.get()).isEqualTo((int) Math.ceil(first.chunks() / 4.0));
+
+        Files.writeString(documents.resolve("finance/currency.txt"), "The currency is the kernel of trade. ");
+        Files.delete(documents.resolve("weather.md"));
+        // a restarted application reads the manifest of the previous runs
+        IngestionReport second = newService(new IngestionManifest(directory.resolve("manifest.log"))).ingest()
+                .block();
+
+        assertThat(second.ingestedDocuments()).isEqualTo(1);
+        assertThat(second.removedDocuments()).isEqualTo(1);
+        assertThat(second.unchangedDocuments()).isZero();
+        assertThat(documentStore.size()).isEqualTo(1);
+        assertThat(new IngestionManifest(directory.resolve("manifest.log")).getSources())
+                .containsExactly("finance/currency.txt");
+
+        IngestionReport third = newService(new IngestionManifest(directory.resolve("manifest.log"))).ingest()
+                .block();
+        assertThat(third.unchangedDocuments()).isEqualTo(1);
+        assertThat(third.chunks()).isZero();
+    }
+
+    @Test
+    void resumesRunFailedInTheMiddleOfUpserts() throws Exception {
+
+        properties.setMaxRetries(0);
+        Files.writeString(documents.resolve("currency.md"), "The currency exchange rate is stable. ");
+        IngestionReport first = newService(new IngestionManifest(directory.resolve("manifest.log"))).ingest()
+                .block();
+        assertThat(first.ingestedDocuments()).isEqualTo(1);
+
+        // the first batch of the new document is stored, the second one fails
+        Files.writeString(documents.resolve("weather.md"), "The weather forecast is sunny. ".repeat(40));
+        upsertsBeforeFailure.set(1);
+        assertThatThrownBy(() -> newService(new IngestionManifest(directory.resolve("manifest.log"))).ingest()
+                .block())
+                .hasRootCauseMessage("Document store is unavailable.");
+        assertThat(new IngestionManifest(directory.resolve("manifest.log")).getSources())
+                .containsExactly("currency.md");
+        assertThat(documentStore.size()).isEqualTo(1 + properties.getUpsertBatchSize());
+
+        upsertsBeforeFailure.set(Integer.MAX_VALUE);
+        IngestionReport resumed = newService(new IngestionManifest(directory.resolve("manifest.log"))).ingest()
+                .block();
+
+        assertThat(resumed.unchangedDocuments()).isEqualTo(1);
+        assertThat(resumed.ingestedDocuments()).isEqualTo(1);
+        // the chunks stored by the failed run are replaced, not duplicated
+        assertThat(documentStore.size()).isEqualTo(1 + resumed.chunks());
+        assertThat(new IngestionManifest(directory.resolve("manifest.log")).getSources())
+                .containsExactlyInAnyOrder("currency.md", "weather.md");
+    }
+
+    @Test
+    void retrievesRelevantChunksIntoContext() throws Exception {
+
+        Files.writeString(documents.resolve("weather.md"), "Weather in Warsaw: rainy weather all week.");
+        Files.writeString(documents.resolve("kernel.md"), "Semantic kernel runs plugins.");
+        newService(new IngestionManifest(null)).ingest().block();
+        DocumentRetriever retriever = new DocumentRetriever(properties, documentStore, embeddingService);
+
+        String context = retriever.retrieveContext("How is the weather?").block();
+
+        assertThat(context).contains("[weather.md]", "rainy weather").doesNotContain("kernel.md");
+        assertThat(retriever.retrieveContext("What is the exchange rate?").block()).isEmpty();
+    }
+
+    @Test
+    void chunksLargeTextsWithOverlap() {
+
+        String text = "word ".repeat(1_000);
+
+        List<String> chunks = new TextChunker(100, 10).chunk(() -> new StringReader(text))
+                .collectList()
+                .block();
+
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(100).endsWith("word"));
+        assertThat(String.join(" ", chunks).split(" ").length).isGreaterThan(1_000);
+    }
+
+    private DocumentIngestionService newService(IngestionManifest manifest) {
+
+        return new DocumentIngestionService(properties, documentStore, manifest, embeddingService);
+    }
+
+    /**
+     * Counts the topic words, so that texts about the same topic are similar.
+     */
+    private static float[] embed(String text) {
+
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        float[] vector = new float[TOPICS.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = lowerCase.split(TOPICS.get(i), -1).length - 1;
+        }
+        return vector;
+    }
+}
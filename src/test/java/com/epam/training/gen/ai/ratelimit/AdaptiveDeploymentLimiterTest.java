@@ -0,0 +1,106 @@
+package com.epam.training.gen.ai.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpResponse;
+import com.epam.training.gen.ai.config.ratelimit.AdmissionProperties;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+class AdaptiveDeploymentLimiterTest {
+
+    private static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    @Test
+    void queuesRequestsOverTheLimitAndRejectsWhenTheQueueIsFull() {
+
+        AdmissionProperties properties = properties(2);
+        properties.setMaxQueueSize(1);
+        AdaptiveDeploymentLimiter limiter = new AdaptiveDeploymentLimiter(DEPLOYMENT_NAME, properties, 0);
+
+        AdaptiveDeploymentLimiter.Permit first = limiter.acquire(100).block();
+        limiter.acquire(100).block();
+        Mono<AdaptiveDeploymentLimiter.Permit> queued = limiter.acquire(100).cache();
+        Disposable subscription = queued.subscribe();
+
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        assertThatThrownBy(() -> limiter.acquire(100).block()).isInstanceOf(AdmissionRejectedException.class);
+
+        first.complete();
+        assertThat(queued.block(Duration.ofSeconds(1))).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getLimit()).isEqualTo(2.5);
+        subscription.dispose();
+    }
+
+    @Test
+    void shrinksTheLimitOncePerBurstOfThrottledRequestsAndPausesAdmission() {
+
+        AdaptiveDeploymentLimiter limiter = new AdaptiveDeploymentLimiter(DEPLOYMENT_NAME, properties(8), 0);
+        AdaptiveDeploymentLimiter.Permit first = limiter.acquire(100).block();
+        AdaptiveDeploymentLimiter.Permit second = limiter.acquire(100).block();
+        HttpResponseException throttled = throttled("200");
+
+        long startNanos = System.nanoTime();
+        first.fail(throttled);
+        second.fail(throttled);
+        limiter.acquire(100).block(Duration.ofSeconds(1));
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void waitsForTokensOfTheTokensPerMinuteBucket() {
+
+        // 600 000 tokens per minute refill 10 tokens per millisecond
+        AdaptiveDeploymentLimiter limiter = new AdaptiveDeploymentLimiter(DEPLOYMENT_NAME, properties(8), 600_000);
+        limiter.acquire(600_000).block();
+
+        long startNanos = System.nanoTime();
+        limiter.acquire(2_000).block(Duration.ofSeconds(1));
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+    }
+
+    @Test
+    void readsRetryAfterOfThrottledResponsesOnly() {
+
+        Duration defaultPause = Duration.ofSeconds(1);
+
+        assertThat(AdaptiveDeploymentLimiter.getRetryAfter(new IllegalStateException(throttled("3")), defaultPause))
+                .isEqualTo(Duration.ofMillis(3));
+        assertThat(AdaptiveDeploymentLimiter.getRetryAfter(throttled(null), defaultPause)).isEqualTo(defaultPause);
+        assertThat(AdaptiveDeploymentLimiter.getRetryAfter(new IllegalStateException("Failed"), defaultPause))
+                .isNull();
+    }
+
+    private static AdmissionProperties properties(int initialLimit) {
+
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setBackoffRatio(0.5);
+        return properties;
+    }
+
+    private static HttpResponseException throttled(String retryAfterMillis) {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfterMillis != null) {
+            headers.set(HttpHeaderName.fromString("retry-after-ms"), retryAfterMillis);
+        }
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(429);
+        when(response.getHeaders()).thenReturn(headers);
+        return new HttpResponseException("Too many requests", response);
+    }
+}
@@ -0,0 +1,82 @@
+package com.epam.training.gen.ai.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.config.ai.ModelConfiguration;
+import com.epam.training.gen.ai.config.routing.RoutingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class DeploymentRouterTest {
+
+    private static final String GPT_35 = "gpt-35-turbo";
+    private static final String GPT_4O = "gpt-4o-2024-05-13";
+    private static final String MIXTRAL = "Mixtral-8x7B-Instruct-v0.1";
+
+    @Test
+    void routesToTheFastestHealthyDeploymentSupportingTheRequest() {
+
+        DeploymentRouter router = new DeploymentRouter(new RoutingProperties(), modelConfiguration(),
+                new SimpleMeterRegistry());
+        call(router, GPT_35, Duration.ofMillis(60));
+        call(router, GPT_4O, Duration.ofMillis(20));
+        call(router, MIXTRAL, Duration.ofMillis(1));
+
+        assertThat(router.route(false)).contains(MIXTRAL);
+        assertThat(router.route(true)).contains(GPT_4O);
+
+        for (int i = 0; i < 5; i++) {
+            Mono<String> failed = Mono.error(new IllegalStateException("Service unavailable"));
+            router.invoke(GPT_4O, true, name -> failed).onErrorComplete().block();
+        }
+        assertThat(router.route(true)).contains(GPT_35);
+    }
+
+    @Test
+    void hedgesSlowRequestsOnTheNextBestDeploymentAndCancelsTheLoser() {
+
+        RoutingProperties properties = new RoutingProperties();
+        properties.setHedging(true);
+        properties.setHedgeMinSamples(3);
+        properties.setHedgeMinDelay(Duration.ofMillis(50));
+        DeploymentRouter router = new DeploymentRouter(properties, modelConfiguration(), new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            call(router, GPT_35, Duration.ofMillis(10));
+        }
+
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        String answer = router.invoke(GPT_35, true, name -> GPT_35.equals(name)
+                        ? Mono.<String>never().doOnCancel(() -> primaryCancelled.set(true))
+                        : Mono.just(name))
+                .block(Duration.ofSeconds(1));
+
+        // Mixtral does not support tool calling, so it is not used as the hedge
+        assertThat(answer).isEqualTo(GPT_4O);
+        assertThat(primaryCancelled).isTrue();
+    }
+
+    private static void call(DeploymentRouter router, String deploymentName, Duration latency) {
+
+        router.invoke(deploymentName, false, name -> Mono.delay(latency).thenReturn(name)).block();
+    }
+
+    private static ModelConfiguration modelConfiguration() {
+
+        Map<String, Boolean> allowFeatures = new LinkedHashMap<>();
+        allowFeatures.put(GPT_35, true);
+        allowFeatures.put(GPT_4O, true);
+        allowFeatures.put(MIXTRAL, false);
+        ModelConfiguration modelConfiguration = new ModelConfiguration();
+        modelConfiguration.setAllowFeatures(allowFeatures);
+        modelConfiguration.setDefaultDeploymentName(GPT_35);
+        return modelConfiguration;
+    }
+}
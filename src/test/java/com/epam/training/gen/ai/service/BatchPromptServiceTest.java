@@ -0,0 +1,85 @@
+package com.epam.training.gen.ai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.epam.training.gen.ai.config.batch.BatchProperties;
+import com.epam.training.gen.ai.model.response.BatchPromptResultDto;
+import com.epam.training.gen.ai.ratelimit.DeploymentRateLimiters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+class BatchPromptServiceTest {
+
+    private static final String DEPLOYMENT_NAME = "gpt-35-turbo";
+
+    private final BatchProperties batchProperties = new BatchProperties();
+    private final BatchPromptService batchPromptService = new BatchPromptService(new ObjectMapper(),
+            batchProperties, new DeploymentRateLimiters(batchProperties));
+
+    @Test
+    void processesNdjsonWithBoundedConcurrencyAndPerItemErrors() {
+
+        batchProperties.setConcurrency(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        String body = """
+                {"input": "first"}
+                {"input": "fail"}
+                {"input": ""}
+                {"input": "fourth"}
+                """;
+
+        List<BatchPromptResultDto> results = batchPromptService.process(toStream(body), DEPLOYMENT_NAME,
+                        input -> Mono.delay(Duration.ofMillis(50))
+                                .doOnSubscribe(subscription -> maxRunning.accumulateAndGet(running.incrementAndGet(),
+                                        Math::max))
+                                // decremented before the result is emitted and the next prompt is subscribed
+                                .doOnNext(tick -> running.decrementAndGet())
+                                .flatMap(tick -> "fail".equals(input)
+                                        ? Mono.error(new IllegalStateException("Model is overloaded."))
+                                        : Mono.just(List.of(input.toUpperCase()))))
+                .collectSortedList(Comparator.comparing(BatchPromptResultDto::getIndex))
+                .block();
+
+        assertThat(results).extracting(BatchPromptResultDto::getAnswers)
+                .containsExactly(List.of("FIRST"), null, null, List.of("FOURTH"));
+        assertThat(results).extracting(BatchPromptResultDto::getError)
+                .containsExactly(null, "Model is overloaded.", "Input must not be empty.", null);
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    void processesJsonArrayAndReportsMalformedInput() {
+
+        String body = "[{\"input\": \"first\"}, {\"input\": \"second\"}, {\"input\": ";
+
+        List<BatchPromptResultDto> results = batchPromptService.process(toStream(body), DEPLOYMENT_NAME,
+                        input -> Mono.delay(Duration.ofMillis(50)).thenReturn(List.of(input)))
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(BatchPromptResultDto::getAnswers)
+                .containsExactlyInAnyOrder(List.of("first"), List.of("second"), null);
+        assertThat(results).filteredOn(result -> result.getIndex() == null)
+                .singleElement()
+                .extracting(BatchPromptResultDto::getError)
+                .asString()
+                .startsWith("Failed to read prompts");
+    }
+
+    private static ByteArrayInputStream toStream(String body) {
+
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.epam.training.gen.ai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.models.EmbeddingItem;
+import com.azure.ai.openai.models.Embeddings;
+import com.azure.ai.openai.models.EmbeddingsOptions;
+import com.epam.training.gen.ai.cache.MappedFileEmbeddingCache;
+
+import reactor.core.publisher.Mono;
+
+class EmbeddingServiceTest {
+
+    private static final String MODEL = "text-embedding-ada-002";
+
+    @TempDir
+    Path directory;
+
+    private final OpenAIAsyncClient openAIAsyncClient = mock(OpenAIAsyncClient.class);
+
+    @Test
+    void embedsOnlyMissingTextsAndKeepsInputOrder() throws Exception {
+
+        // the model returns the items out of order
+        Embeddings embeddings = mock(Embeddings.class);
+        List<EmbeddingItem> items = List.of(item(1, 3f), item(0, 1f));
+        when(embeddings.getData()).thenReturn(items);
+        when(openAIAsyncClient.getEmbeddings(eq(MODEL), any())).thenReturn(Mono.just(embeddings));
+
+        try (MappedFileEmbeddingCache cache = new MappedFileEmbeddingCache(directory.resolve("embeddings.bin"),
+                1 << 16, 16)) {
+            cache.putAll(MODEL, List.of("cached"), List.of(new float[] {2f, 2f}));
+            EmbeddingService embeddingService = new EmbeddingService(openAIAsyncClient, MODEL, cache);
+
+            List<float[]> vectors = embeddingService.embed(List.of("first", "cached", "second")).block();
+
+            assertThat(vectors).containsExactly(new float[] {1f, 1f}, new float[] {2f, 2f}, new float[] {3f, 3f});
+            // the embedded texts are cached, so the next call needs no request
+            assertThat(embeddingService.embed(List.of("second", "first")).block())
+                    .containsExactly(new float[] {3f, 3f}, new float[] {1f, 1f});
+            ArgumentCaptor<EmbeddingsOptions> options = ArgumentCaptor.forClass(EmbeddingsOptions.class);
+            verify(openAIAsyncClient).getEmbeddings(eq(MODEL), options.capture());
+            assertThat(options.getValue().getInput()).containsExactly("first", "second");
+        }
+    }
+
+    private static EmbeddingItem item(int promptIndex, float value) {
+
+        EmbeddingItem item = mock(EmbeddingItem.class);
+        when(item.getPromptIndex()).thenReturn(promptIndex);
+        when(item.getEmbedding()).thenReturn(List.of(value, value));
+        return item;
+    }
+}